@@ -0,0 +1,188 @@
+package frc.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import frc.systems.dirtyswerve.lowerlevel.SwerveKinematics;
+import frc.systems.dirtyswerve.lowerlevel.module.AzimuthPlanner;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+
+/**
+ * Replays joystick traces through the teleop input shaping and the kinematics, and compares how far the modules
+ * turn and how often they reverse with AzimuthPlanner against the planner it replaced. Modules are assumed to reach
+ * every setpoint before the next loop so only the planning is compared.
+ *
+ * Usage: AzimuthTravelBenchmark [trace.csv ...]
+ * Trace files have one header row followed by rows of time,movementX,movementY,rotationTwist sampled every robot
+ * loop, the raw axes teleopControl() reads. Without any files a set of synthetic traces is used.
+ */
+public class AzimuthTravelBenchmark{
+
+    private static final double LOOP_PERIOD = 0.02;
+
+    public static void main(String[] args) throws IOException{
+        List<String> names = new ArrayList<>();
+        List<double[][]> traces = new ArrayList<>();
+        if(args.length == 0){
+            addSyntheticTraces(names, traces);
+        }
+        for(String arg : args){
+            names.add(new File(arg).getName());
+            traces.add(readTrace(new File(arg)));
+        }
+
+        System.out.printf("%-16s %14s %14s %8s %10s %10s%n", "trace", "legacy_deg", "planner_deg", "saved",
+            "legacy_rev", "planner_rev");
+        double legacyTotal = 0, plannerTotal = 0;
+        for(int i = 0; i < traces.size(); i++){
+            double[] legacy = replay(traces.get(i), false);
+            double[] planned = replay(traces.get(i), true);
+            legacyTotal += legacy[0];
+            plannerTotal += planned[0];
+            System.out.printf("%-16s %14.0f %14.0f %7.1f%% %10.0f %10.0f%n", names.get(i), legacy[0], planned[0],
+                100 * (1 - planned[0] / legacy[0]), legacy[1], planned[1]);
+        }
+        System.out.printf("%-16s %14.0f %14.0f %7.1f%%%n", "total", legacyTotal, plannerTotal,
+            100 * (1 - plannerTotal / legacyTotal));
+    }
+
+    /**
+     * Replays a trace through every module
+     * @param trace Rows of movementX, movementY, rotationTwist
+     * @param usePlanner True for AzimuthPlanner, false for the legacy planner
+     * @return Returns total azimuth travel in degrees and total reversals
+     */
+    private static double[] replay(double[][] trace, boolean usePlanner){
+        SwerveKinematics kinematics = new SwerveKinematics(SwerveConfig.CHASSIS_LENGTH, SwerveConfig.CHASSIS_WIDTH);
+        double[] speeds = new double[4];
+        double[] azms = new double[4];
+        double[] current = new double[4];
+        boolean[] inverted = new boolean[4];
+        AzimuthPlanner[] planners = new AzimuthPlanner[4];
+        for(int i = 0; i < 4; i++){
+            planners[i] = new AzimuthPlanner(SwerveConfig.MIN_REVERSAL_CYCLES);
+        }
+
+        double travel = 0;
+        int reversals = 0;
+        for(double[] row : trace){
+            //Same shaping as DirtySwerve.teleopControl()
+            double x = SwerveConfig.DISPLACEMENT_FACTOR * powerInput(row[0]);
+            double y = SwerveConfig.DISPLACEMENT_FACTOR * powerInput(row[1]);
+            double t = Math.IEEEremainder(0.5 * powerInput(row[2]), 2);
+            kinematics.calculate(y, x, t, speeds, azms);
+            if(SwerveKinematics.getMaxSpeed(speeds) <= SwerveConfig.MIN_THROTTLE){
+                continue;
+            }
+
+            for(int i = 0; i < 4; i++){
+                double setpoint;
+                if(usePlanner){
+                    planners[i].plan(current[i], azms[i]);
+                    setpoint = planners[i].getSetpoint();
+                }else{
+                    boolean wasInverted = inverted[i];
+                    setpoint = legacySetpoint(current[i], azms[i], inverted, i);
+                    if(inverted[i] != wasInverted){
+                        reversals++;
+                    }
+                }
+                travel += Math.abs(setpoint - current[i]);
+                current[i] = setpoint;
+            }
+        }
+        if(usePlanner){
+            for(AzimuthPlanner planner : planners){
+                reversals += planner.getReversals();
+            }
+        }
+        return new double[]{travel, reversals};
+    }
+
+    /**
+     * The azimuth planning SwerveModule used before AzimuthPlanner, kept here as the baseline
+     */
+    private static double legacySetpoint(double current, double target, boolean[] inverted, int module){
+        target = Math.IEEEremainder(target, 360);
+        double absolute = Math.IEEEremainder(current, 360);
+        double secondary = target < absolute ? target - 180 : target + 180;
+
+        double chosen;
+        if(Math.abs(target - absolute) < Math.abs(secondary - absolute)){
+            inverted[module] = false;
+            chosen = target;
+        }else{
+            inverted[module] = true;
+            chosen = secondary;
+        }
+        return chosen + (current - absolute);
+    }
+
+    private static double powerInput(double input){
+        return input >= 0 ? input * input : -(input * input);
+    }
+
+    private static double[][] readTrace(File file) throws IOException{
+        List<String> lines = Files.readAllLines(file.toPath());
+        List<double[]> rows = new ArrayList<>();
+        for(String line : lines.subList(1, lines.size())){
+            if(line.trim().isEmpty()){
+                continue;
+            }
+            String[] values = line.split(",");
+            rows.add(new double[]{Double.parseDouble(values[1].trim()), Double.parseDouble(values[2].trim()),
+                Double.parseDouble(values[3].trim())});
+        }
+        return rows.toArray(new double[0][]);
+    }
+
+    /**
+     * Synthetic 60 second traces covering the moves drivers make most: wandering, reversing and circling
+     */
+    private static void addSyntheticTraces(List<String> names, List<double[][]> traces){
+        int length = (int)(60 / LOOP_PERIOD);
+        Random random = new Random(4384);
+
+        double[][] wander = new double[length][3];
+        double x = 0, y = 0, twist = 0;
+        for(int i = 0; i < length; i++){
+            x = clamp(0.95 * x + 0.15 * random.nextGaussian());
+            y = clamp(0.95 * y + 0.15 * random.nextGaussian());
+            twist = clamp(0.9 * twist + 0.05 * random.nextGaussian());
+            wander[i] = new double[]{x, y, twist};
+        }
+        names.add("wander");
+        traces.add(wander);
+
+        double[][] shuffle = new double[length][3];
+        for(int i = 0; i < length; i++){
+            double direction = (i / 40) % 2 == 0 ? -0.8 : 0.8;
+            shuffle[i] = new double[]{0.05 * random.nextGaussian(), direction, 0};
+        }
+        names.add("shuffle");
+        traces.add(shuffle);
+
+        double[][] circle = new double[length][3];
+        for(int i = 0; i < length; i++){
+            double angle = 2 * Math.PI * i * LOOP_PERIOD / 3;
+            circle[i] = new double[]{0.7 * Math.sin(angle), -0.7 * Math.cos(angle), 0};
+        }
+        names.add("circle");
+        traces.add(circle);
+
+        double[][] spin = new double[length][3];
+        for(int i = 0; i < length; i++){
+            spin[i] = new double[]{0.3 * Math.sin(i * LOOP_PERIOD), -0.6, (i / 150) % 2 == 0 ? 0.8 : -0.8};
+        }
+        names.add("spinDrive");
+        traces.add(spin);
+    }
+
+    private static double clamp(double value){
+        return Math.max(-1, Math.min(1, value));
+    }
+}
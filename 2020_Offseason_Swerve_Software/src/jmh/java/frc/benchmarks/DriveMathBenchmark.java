@@ -0,0 +1,150 @@
+package frc.benchmarks;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import frc.sim.SimDriveMotor;
+import frc.systems.arcadedrive.lowerlevel.ArcadeDriveLowerLevel.DriveSpeed;
+import frc.systems.arcadedrive.toplevel.ArcadeDrive;
+import frc.systems.dirtyswerve.lowerlevel.SwerveKinematics;
+import frc.systems.dirtyswerve.lowerlevel.module.AzimuthPlanner;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+
+/**
+ * Benchmarks the drive math that runs every robot loop. None of these touch a motor controller so they run on any
+ * desktop machine, the arcade drive is built on simulated motors. Inputs are cycled through a table of random
+ * joystick values so the JIT can't fold them away.
+ */
+@State(Scope.Thread)
+public class DriveMathBenchmark{
+
+    private static final int INPUTS = 1024;
+
+    private final double[] forward = new double[INPUTS];
+    private final double[] strafe = new double[INPUTS];
+    private final double[] rotation = new double[INPUTS];
+    private int index;
+
+    private SwerveKinematics kinematics;
+    private final double[] trajVars = new double[4];
+    private final double[] speeds = new double[4];
+    private final double[] azms = new double[4];
+
+    private final AzimuthPlanner planner = new AzimuthPlanner(SwerveConfig.MIN_REVERSAL_CYCLES);
+    private double plannedAzimuth;
+
+    private final BenchmarkArcadeDrive arcadeDrive = new BenchmarkArcadeDrive();
+
+    @Setup
+    public void setup(){
+        Random random = new Random(4384);
+        for(int i = 0; i < INPUTS; i++){
+            forward[i] = random.nextDouble() * 2 - 1;
+            strafe[i] = random.nextDouble() * 2 - 1;
+            rotation[i] = random.nextDouble() * 2 - 1;
+        }
+        kinematics = new SwerveKinematics(SwerveConfig.CHASSIS_LENGTH, SwerveConfig.CHASSIS_WIDTH);
+    }
+
+    private int next(){
+        index = (index + 1) & (INPUTS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public double[] calcTrajVars(){
+        int i = next();
+        kinematics.calcTrajVars(forward[i], strafe[i], rotation[i], trajVars);
+        return trajVars;
+    }
+
+    @Benchmark
+    public double[] calcWheelSpds(){
+        int i = next();
+        trajVars[0] = forward[i];
+        trajVars[1] = strafe[i];
+        trajVars[2] = rotation[i];
+        trajVars[3] = forward[i] - strafe[i];
+        kinematics.calcWheelSpds(trajVars, speeds);
+        return speeds;
+    }
+
+    @Benchmark
+    public double[] calcWheelAzms(){
+        int i = next();
+        trajVars[0] = forward[i];
+        trajVars[1] = strafe[i];
+        trajVars[2] = rotation[i];
+        trajVars[3] = forward[i] - strafe[i];
+        kinematics.calcWheelAzms(trajVars, azms);
+        return azms;
+    }
+
+    @Benchmark
+    public double[] normalizeSpds(){
+        int i = next();
+        speeds[0] = 2 * forward[i];
+        speeds[1] = 2 * strafe[i];
+        speeds[2] = 2 * rotation[i];
+        speeds[3] = forward[i] + strafe[i];
+        SwerveKinematics.normalizeSpds(speeds);
+        return speeds;
+    }
+
+    @Benchmark
+    public double[] fullKinematics(){
+        int i = next();
+        kinematics.calculate(forward[i], strafe[i], rotation[i], speeds, azms);
+        return azms;
+    }
+
+    @Benchmark
+    public double planAzimuth(){
+        int i = next();
+        planner.plan(plannedAzimuth, 180 * forward[i]);
+        plannedAzimuth = planner.getSetpoint();
+        return plannedAzimuth;
+    }
+
+    @Benchmark
+    public DriveSpeed calculateSpeed(){
+        int i = next();
+        return arcadeDrive.calculate(forward[i], rotation[i]);
+    }
+
+    @Benchmark
+    public DriveSpeed scaleDriveOutput(){
+        int i = next();
+        return new ScalableDriveSpeed(forward[i] + rotation[i], forward[i] - rotation[i]).scale(0.8);
+    }
+
+    /**
+     * Gives the benchmark access to the protected arcade drive math, on motors that never touch a motor controller
+     */
+    private static class BenchmarkArcadeDrive extends ArcadeDrive{
+        BenchmarkArcadeDrive(){
+            super(new SimDriveMotor(), new SimDriveMotor());
+        }
+
+        DriveSpeed calculate(double throttle, double steer){
+            return calculateSpeed(throttle, steer);
+        }
+    }
+
+    /**
+     * Gives the benchmark access to the protected scaling method
+     */
+    private static class ScalableDriveSpeed extends DriveSpeed{
+        ScalableDriveSpeed(double leftSpeed, double rightSpeed){
+            super(leftSpeed, rightSpeed);
+        }
+
+        DriveSpeed scale(double maxSpeed){
+            return scaleDriveOutput(maxSpeed);
+        }
+    }
+}
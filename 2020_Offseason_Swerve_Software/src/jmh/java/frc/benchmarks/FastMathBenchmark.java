@@ -0,0 +1,99 @@
+package frc.benchmarks;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import frc.systems.dirtyswerve.lowerlevel.SwerveKinematics;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+import frc.util.FastMath;
+
+/**
+ * Compares FastMath against java.lang.Math for the functions the drive loop uses, alone and inside the full
+ * kinematics. Run on the roboRIO as well as a desktop, the gap is much larger on the roboRIO's ARM core.
+ */
+@State(Scope.Thread)
+public class FastMathBenchmark{
+
+    private static final int INPUTS = 1024;
+
+    private final double[] x = new double[INPUTS];
+    private final double[] y = new double[INPUTS];
+    private final double[] angle = new double[INPUTS];
+    private int index;
+
+    private SwerveKinematics standardKinematics;
+    private SwerveKinematics fastKinematics;
+    private final double[] speeds = new double[4];
+    private final double[] azms = new double[4];
+
+    @Setup
+    public void setup(){
+        Random random = new Random(4384);
+        for(int i = 0; i < INPUTS; i++){
+            x[i] = random.nextDouble() * 2 - 1;
+            y[i] = random.nextDouble() * 2 - 1;
+            angle[i] = (random.nextDouble() * 2 - 1) * Math.PI;
+        }
+        standardKinematics = new SwerveKinematics(SwerveConfig.CHASSIS_LENGTH, SwerveConfig.CHASSIS_WIDTH, false);
+        fastKinematics = new SwerveKinematics(SwerveConfig.CHASSIS_LENGTH, SwerveConfig.CHASSIS_WIDTH, true);
+    }
+
+    private int next(){
+        index = (index + 1) & (INPUTS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public double mathSinCos(){
+        int i = next();
+        return Math.sin(angle[i]) + Math.cos(angle[i]);
+    }
+
+    @Benchmark
+    public double fastSinCos(){
+        int i = next();
+        return FastMath.sin(angle[i]) + FastMath.cos(angle[i]);
+    }
+
+    @Benchmark
+    public double mathAtan2(){
+        int i = next();
+        return Math.atan2(y[i], x[i]);
+    }
+
+    @Benchmark
+    public double fastAtan2(){
+        int i = next();
+        return FastMath.atan2(y[i], x[i]);
+    }
+
+    @Benchmark
+    public double mathHypot(){
+        int i = next();
+        return Math.hypot(x[i], y[i]);
+    }
+
+    @Benchmark
+    public double fastHypot(){
+        int i = next();
+        return FastMath.hypot(x[i], y[i]);
+    }
+
+    @Benchmark
+    public double[] standardKinematics(){
+        int i = next();
+        standardKinematics.calculate(x[i], y[i], angle[i] / Math.PI, speeds, azms);
+        return azms;
+    }
+
+    @Benchmark
+    public double[] fastKinematics(){
+        int i = next();
+        fastKinematics.calculate(x[i], y[i], angle[i] / Math.PI, speeds, azms);
+        return azms;
+    }
+}
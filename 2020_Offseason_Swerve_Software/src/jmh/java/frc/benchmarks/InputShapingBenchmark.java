@@ -0,0 +1,69 @@
+package frc.benchmarks;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+import frc.util.input.Deadband;
+import frc.util.input.Expo;
+import frc.util.input.InputPipeline;
+import frc.util.input.JerkLimit;
+import frc.util.input.SlewLimit;
+
+/**
+ * Benchmarks the teleop input shaping against the old powerInput(), which called Math.pow() for every axis. The gc
+ * profiler should show no allocation for any of these.
+ */
+@State(Scope.Thread)
+public class InputShapingBenchmark{
+
+    private static final int INPUTS = 1024;
+
+    private final double[] axis = new double[INPUTS];
+    private int index;
+
+    private final Expo expo = new Expo(SwerveConfig.INPUT_EXPO, SwerveConfig.INPUT_EXPO_DEGREE);
+    private final InputPipeline pipeline = new InputPipeline(
+        new Deadband(SwerveConfig.TRANSLATION_DEADBAND),
+        new Expo(SwerveConfig.INPUT_EXPO, SwerveConfig.INPUT_EXPO_DEGREE),
+        new SlewLimit(SwerveConfig.TRANSLATION_RISE_RATE, SwerveConfig.TRANSLATION_FALL_RATE),
+        new JerkLimit(SwerveConfig.TRANSLATION_JERK, SwerveConfig.TRANSLATION_RISE_RATE,
+            SwerveConfig.TRANSLATION_FALL_RATE));
+
+    @Setup
+    public void setup(){
+        Random random = new Random(4384);
+        for(int i = 0; i < INPUTS; i++){
+            axis[i] = random.nextDouble() * 2 - 1;
+        }
+    }
+
+    private int next(){
+        index = (index + 1) & (INPUTS - 1);
+        return index;
+    }
+
+    @Benchmark
+    public double powerInput(){
+        double input = axis[next()];
+        if(input >= 0){
+            return Math.pow(input, 2);
+        }else{
+            return -Math.abs(Math.pow(input, 2));
+        }
+    }
+
+    @Benchmark
+    public double expo(){
+        return expo.calculate(axis[next()], SwerveConfig.INPUT_PERIOD);
+    }
+
+    @Benchmark
+    public double pipeline(){
+        return pipeline.calculate(axis[next()], SwerveConfig.INPUT_PERIOD);
+    }
+}
@@ -0,0 +1,26 @@
+package frc.hardware;
+
+/**
+ * Motor controller that steers a swerve module with closed-loop position control
+ */
+public interface AzimuthMotor{
+
+    /**
+     * Sets the closed-loop position target
+     * @param position Target in encoder ticks
+     */
+    void setPosition(double position);
+
+    /**
+     * Sets the closed-loop position target with an arbitrary feedforward added to the loop's output
+     * @param position Target in encoder ticks
+     * @param feedforward Feedforward in percent output from -1.0 to 1.0
+     */
+    void setPosition(double position, double feedforward);
+
+    /**
+     * Reads the position of the selected sensor
+     * @return Position in encoder ticks
+     */
+    double getPosition();
+}
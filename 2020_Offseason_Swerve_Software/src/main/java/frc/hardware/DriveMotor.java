@@ -0,0 +1,13 @@
+package frc.hardware;
+
+/**
+ * Open-loop motor controller for one side of a drivetrain
+ */
+public interface DriveMotor{
+
+    /**
+     * Sets the percent output of the motor
+     * @param speed Percent output from -1.0 to 1.0
+     */
+    void set(double speed);
+}
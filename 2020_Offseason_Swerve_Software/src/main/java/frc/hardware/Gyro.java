@@ -0,0 +1,13 @@
+package frc.hardware;
+
+/**
+ * Sensor that measures the heading of the robot
+ */
+public interface Gyro{
+
+    /**
+     * Reads the heading of the robot
+     * @return Heading in degrees, positive counter-clockwise
+     */
+    double getFusedHeading();
+}
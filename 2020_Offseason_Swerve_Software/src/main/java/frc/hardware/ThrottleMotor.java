@@ -0,0 +1,40 @@
+package frc.hardware;
+
+import com.revrobotics.ControlType;
+
+/**
+ * Motor controller that drives a swerve module's wheel
+ */
+public interface ThrottleMotor{
+
+    /**
+     * Sets a closed-loop reference
+     * @param value value of unit depending on control type
+     * @param ctrl Control Type (Position, Velocity etc.)
+     */
+    void setPIDReference(double value, ControlType ctrl);
+
+    /**
+     * Sets the percent output of the motor
+     * @param speed Percent output from -1.0 to 1.0
+     */
+    void set(double speed);
+
+    /**
+     * Reads the position of the encoder
+     * @return Position in encoder units
+     */
+    double getEncPosition();
+
+    /**
+     * Reads the velocity of the encoder
+     * @return Velocity in encoder units per minute
+     */
+    double getEncVelocity();
+
+    /**
+     * Reads the current the motor controller is driving the motor with
+     * @return Output current in amps
+     */
+    double getOutputCurrent();
+}
@@ -7,30 +7,83 @@
 
 package frc.robot;
 
+import java.io.File;
+import java.io.IOException;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Filesystem;
 import edu.wpi.first.wpilibj.Joystick;
 import edu.wpi.first.wpilibj.TimedRobot;
+import frc.systems.dirtyswerve.lowerlevel.ThreadedControl;
 import frc.systems.dirtyswerve.toplevel.DirtySwerve;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+import frc.util.LoopTimer;
+import frc.util.Trajectory;
 
 public class Robot extends TimedRobot {
   
   private DirtySwerve drive = new DirtySwerve();
   private Joystick driveJoy1 = new Joystick(1);
   private Joystick driveJoy2 = new Joystick(2);
+  private Trajectory autoTrajectory;
 
   @Override
   public void robotInit() {
+    if (SwerveConfig.GYRO_SAMPLER_ENABLED) {
+      drive.startGyroSampler();
+    }
+    if (SwerveConfig.THREADED_CONTROL) {
+      drive.startControlThreads();
+    } else {
+      drive.startOdometry();
+    }
+    if (SwerveConfig.SERVO_ENABLED) {
+      drive.startServos();
+    }
+
+    try {
+      autoTrajectory = Trajectory.load(new File(Filesystem.getDeployDirectory(), SwerveConfig.AUTONOMOUS_TRAJECTORY));
+    } catch (IOException ex) {
+      DriverStation.reportError("Could not load autonomous trajectory: " + ex.getMessage(), false);
+    }
+  }
+
+  @Override
+  public void disabledInit() {
+    drive.stopTelemetry();
+    if (drive.getLoopTimer().getCount() > 0) {
+      drive.getLoopTimer().dump(new File("/home/lvuser/LoopTiming.csv"));
+    }
+    LoopTimer<ThreadedControl.LatencyStage> latencyTimer = drive.getLatencyTimer();
+    if (latencyTimer != null && latencyTimer.getCount() > 0) {
+      latencyTimer.dump(new File("/home/lvuser/Latency.csv"));
+    }
+    if (drive.getPowerBudget().getEventCount() > 0) {
+      drive.getPowerBudget().dumpEvents(new File("/home/lvuser/PowerEvents.csv"));
+    }
   }
 
   @Override
   public void autonomousInit() {
+    drive.startTelemetry();
+    drive.setHeadingHoldEnabled(false);
+    if (autoTrajectory != null) {
+      drive.startTrajectory(autoTrajectory);
+    }
   }
 
   @Override
   public void autonomousPeriodic() {
+    if (autoTrajectory != null) {
+      drive.followTrajectory();
+    }
   }
 
   @Override
   public void teleopInit() {
+    drive.startTelemetry();
+    drive.resetInputs();
+    drive.setHeadingHoldEnabled(SwerveConfig.HEADING_HOLD_ENABLED);
   }
 
   @Override
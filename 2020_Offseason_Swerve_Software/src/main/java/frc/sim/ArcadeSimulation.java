@@ -0,0 +1,103 @@
+package frc.sim;
+
+import frc.systems.arcadedrive.toplevel.ArcadeDrive;
+import frc.systems.dirtyswerve.lowerlevel.odometry.Pose;
+
+/**
+ * Runs an ArcadeDrive on simulated motors without any robot hardware. Each call to step() advances both sides of
+ * the drivetrain and moves the chassis as a differential drive. Time only passes when step() is called.
+ *
+ * Poses use the same field frame as swerve odometry: X forward, Y right and heading counter-clockwise.
+ */
+public class ArcadeSimulation{
+
+    private final SimDriveMotor left = new SimDriveMotor();
+    private final SimDriveMotor right = new SimDriveMotor();
+    private final ArcadeDrive drive = new ArcadeDrive(left, right);
+
+    private double time;
+    private double x, y, heading;
+
+    /**
+     * Fetches the simulated drivetrain, which is controlled exactly like the real one
+     * @return Returns the arcade drive
+     */
+    public ArcadeDrive getDrive(){
+        return drive;
+    }
+
+    /**
+     * Fetches the simulated left side of the drivetrain
+     * @return Returns the left motor
+     */
+    public SimDriveMotor getLeftMotor(){
+        return left;
+    }
+
+    /**
+     * Fetches the simulated right side of the drivetrain
+     * @return Returns the right motor
+     */
+    public SimDriveMotor getRightMotor(){
+        return right;
+    }
+
+    /**
+     * Fetches the simulated time
+     * @return Returns the seconds simulated since the simulation was created
+     */
+    public double getTime(){
+        return time;
+    }
+
+    /**
+     * Fetches the true field X of the simulated robot
+     * @return Returns the X in inches
+     */
+    public double getX(){
+        return x;
+    }
+
+    /**
+     * Fetches the true field Y of the simulated robot
+     * @return Returns the Y in inches
+     */
+    public double getY(){
+        return y;
+    }
+
+    /**
+     * Fetches the true heading of the simulated robot
+     * @return Returns the heading in degrees, positive counter-clockwise
+     */
+    public double getHeading(){
+        return heading;
+    }
+
+    /**
+     * Copies the true pose of the simulated robot
+     * @param pose Pose that is overwritten
+     */
+    public void getPose(Pose pose){
+        pose.set(x, y, heading);
+    }
+
+    /**
+     * Advances the simulation by one time step. Call after the drive has been commanded for this step.
+     * @param dt Length of the step in seconds
+     */
+    public void step(double dt){
+        left.step(dt);
+        right.step(dt);
+
+        double forward = (left.getVelocity() + right.getVelocity()) / 2;
+        double rotation = Math.toDegrees((right.getVelocity() - left.getVelocity()) / SimConfig.ARCADE_TRACK_WIDTH);
+
+        double previousHeading = heading;
+        heading += rotation * dt;
+        double midHeading = Math.toRadians((previousHeading + heading) / 2);
+        x += forward * Math.cos(midHeading) * dt;
+        y += -forward * Math.sin(midHeading) * dt;
+        time += dt;
+    }
+}
@@ -0,0 +1,63 @@
+package frc.sim;
+
+import frc.hardware.AzimuthMotor;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+
+/**
+ * Simulated swerve azimuth. The position follows the commanded position with a first order lag limited to a
+ * maximum steering rate. An arbitrary feedforward turns the azimuth at its fraction of AZIMUTH_FREE_SPEED on top of
+ * that. Positions are in encoder ticks like the real Talon, with AZIMUTH_TICKS_PER_DEGREE ticks per degree.
+ */
+public class SimAzimuthMotor implements AzimuthMotor{
+
+    private final double maxRate = SimConfig.AZIMUTH_MAX_RATE * SwerveConfig.AZIMUTH_TICKS_PER_DEGREE;
+    private final double freeSpeed = SimConfig.AZIMUTH_FREE_SPEED * SwerveConfig.AZIMUTH_TICKS_PER_DEGREE;
+
+    private double target;
+    private double feedforward;
+    private double position;
+
+    /**
+     * Creates a simulated azimuth motor
+     * @param position Starting position in encoder ticks
+     */
+    public SimAzimuthMotor(double position){
+        this.position = position;
+        this.target = position;
+    }
+
+    @Override
+    public void setPosition(double position){
+        setPosition(position, 0);
+    }
+
+    @Override
+    public void setPosition(double position, double feedforward){
+        target = position;
+        this.feedforward = Math.max(-1, Math.min(1, feedforward));
+    }
+
+    @Override
+    public double getPosition(){
+        return position;
+    }
+
+    /**
+     * Fetches the angle the wheel is pointing
+     * @return Returns the azimuth in degrees, not wrapped
+     */
+    public double getAzimuth(){
+        return position / SwerveConfig.AZIMUTH_TICKS_PER_DEGREE;
+    }
+
+    /**
+     * Advances the motor by one time step
+     * @param dt Length of the step in seconds
+     */
+    public void step(double dt){
+        double move = (target - position) * (1 - Math.exp(-dt / SimConfig.AZIMUTH_TIME_CONSTANT))
+            + feedforward * freeSpeed * dt;
+        double limit = maxRate * dt;
+        position += Math.max(-limit, Math.min(limit, move));
+    }
+}
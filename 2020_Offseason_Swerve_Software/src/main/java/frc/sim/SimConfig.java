@@ -0,0 +1,46 @@
+package frc.sim;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+
+public final class SimConfig{
+    /**
+     * Simulation Time Step (Seconds)
+     */
+    public static final double TIME_STEP = 0.02;
+
+    /**
+     * Swerve Throttle Dynamics (Full output reaches MAX_LINEAR_SPEED)
+     */
+    public static final double THROTTLE_FREE_SPEED = SwerveConfig.MAX_LINEAR_SPEED; //Inches/Second
+    public static final double THROTTLE_TIME_CONSTANT = 0.08; //Seconds
+
+    /**
+     * Swerve Throttle Current and Battery (Amps, Volts and Ohms, full output at BATTERY_VOLTAGE reaches the free
+     * speed and draws the stall current from standstill, and the battery sags by its resistance times the current)
+     */
+    public static final double THROTTLE_STALL_CURRENT = SwerveConfig.THROTTLE_STALL_CURRENT;
+    public static final double THROTTLE_FREE_CURRENT = 1.8;
+    public static final double BATTERY_VOLTAGE = 12.5; //Open circuit
+    public static final double BATTERY_RESISTANCE = 0.018;
+    public static final double BROWNOUT_VOLTAGE = 6.8;
+
+    /**
+     * Swerve Wheel Traction (Inches/Second^2, how fast a wheel can change the velocity of the ground under it before
+     * it spins out)
+     */
+    public static final double WHEEL_GRIP_ACCEL = 450;
+
+    /**
+     * Swerve Azimuth Dynamics
+     */
+    public static final double AZIMUTH_TIME_CONSTANT = 0.04; //Seconds
+    public static final double AZIMUTH_MAX_RATE = 720; //Degrees/Second
+    public static final double AZIMUTH_FREE_SPEED = 720; //Degrees/Second at full output, for feedforward
+
+    /**
+     * Arcade Drivetrain Dynamics
+     */
+    public static final double ARCADE_TRACK_WIDTH = 24; //Inches
+    public static final double ARCADE_FREE_SPEED = 120; //Inches/Second at full output
+    public static final double ARCADE_TIME_CONSTANT = 0.1; //Seconds
+}
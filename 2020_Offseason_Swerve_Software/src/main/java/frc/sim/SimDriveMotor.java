@@ -0,0 +1,41 @@
+package frc.sim;
+
+import frc.hardware.DriveMotor;
+
+/**
+ * Simulated side of an arcade drivetrain. The side's velocity follows its percent output with a first order lag.
+ */
+public class SimDriveMotor implements DriveMotor{
+
+    private double output;
+    private double velocity;
+
+    @Override
+    public void set(double speed){
+        output = Math.max(-1, Math.min(1, speed));
+    }
+
+    /**
+     * Fetches the last percent output that was set
+     * @return Returns the output from -1.0 to 1.0
+     */
+    public double getOutput(){
+        return output;
+    }
+
+    /**
+     * Fetches the velocity of this side of the drivetrain
+     * @return Returns the velocity in inches/second
+     */
+    public double getVelocity(){
+        return velocity;
+    }
+
+    /**
+     * Advances the motor by one time step
+     * @param dt Length of the step in seconds
+     */
+    public void step(double dt){
+        velocity += (output * SimConfig.ARCADE_FREE_SPEED - velocity) * (1 - Math.exp(-dt / SimConfig.ARCADE_TIME_CONSTANT));
+    }
+}
@@ -0,0 +1,50 @@
+package frc.sim;
+
+import java.util.Arrays;
+
+import frc.hardware.Gyro;
+
+/**
+ * Simulated gyro that reports the heading of a simulated robot, optionally a number of simulation steps late like a
+ * real gyro reporting over CAN
+ */
+public class SimGyro implements Gyro{
+
+    private double[] history = new double[1];
+    private int newest;
+    private volatile double heading;
+
+    @Override
+    public double getFusedHeading(){
+        return heading;
+    }
+
+    /**
+     * Sets the heading that is reported
+     * @param heading Heading in degrees, positive counter-clockwise
+     */
+    public void setHeading(double heading){
+        newest = (newest + 1) % history.length;
+        history[newest] = heading;
+        this.heading = history[(newest + 1) % history.length];
+    }
+
+    /**
+     * Sets the heading that is reported right away, forgetting the headings still waiting to be reported
+     * @param heading Heading in degrees, positive counter-clockwise
+     */
+    public void resetHeading(double heading){
+        Arrays.fill(history, heading);
+        this.heading = heading;
+    }
+
+    /**
+     * Delays the reported heading
+     * @param steps Number of setHeading() calls between a heading being set and reported, 0 for none
+     */
+    public void setLatencySteps(int steps){
+        history = new double[steps + 1];
+        newest = 0;
+        resetHeading(heading);
+    }
+}
@@ -0,0 +1,144 @@
+package frc.sim;
+
+import com.revrobotics.ControlType;
+
+import frc.hardware.ThrottleMotor;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+
+/**
+ * Simulated swerve throttle. The wheel velocity follows the commanded velocity with a first order lag, which stands
+ * in for both the SparkMax velocity loop and the inertia of the robot. Encoder units match the real SparkMax:
+ * rotations for position and rotations per minute for velocity, with THOTTLE_TICKS_PER_INCH rotations per inch.
+ *
+ * The motor is given the output a velocity loop would settle on, the target over the free speed, and behaves like a
+ * DC motor on the battery voltage: it draws current in proportion to the voltage left over after the back EMF of
+ * the wheel's speed, and settles on a lower speed when the battery sags.
+ */
+public class SimThrottleMotor implements ThrottleMotor{
+
+    private final double freeSpeed = SimConfig.THROTTLE_FREE_SPEED * SwerveConfig.THOTTLE_TICKS_PER_INCH * 60;
+
+    private double target;
+    private double velocity;
+    private double position;
+    private double wheelScale = 1;
+    private double busVoltage = SimConfig.BATTERY_VOLTAGE;
+
+    //Velocity and current are reported in a status frame, which only refreshes once per period
+    private double statusPeriod;
+    private double statusAge;
+    private double reportedVelocity, reportedCurrent;
+
+    @Override
+    public void setPIDReference(double value, ControlType ctrl){
+        if(ctrl == ControlType.kVelocity){
+            target = Math.max(-freeSpeed, Math.min(freeSpeed, value));
+        }else if(ctrl == ControlType.kDutyCycle){
+            set(value);
+        }
+    }
+
+    @Override
+    public void set(double speed){
+        target = Math.max(-1, Math.min(1, speed)) * freeSpeed;
+    }
+
+    @Override
+    public double getEncPosition(){
+        return position;
+    }
+
+    @Override
+    public double getEncVelocity(){
+        return statusPeriod > 0 ? reportedVelocity : velocity;
+    }
+
+    /**
+     * Fetches the true velocity of the motor, without the status frame delay
+     * @return Returns the velocity in encoder units per minute
+     */
+    public double getMotorVelocity(){
+        return velocity;
+    }
+
+    /**
+     * Reports velocity and output current in a status frame that refreshes once per period, like the SparkMax's
+     * kStatus1 frame. Position is always current, like kStatus2 at the odometry period.
+     * @param statusPeriod Frame period in seconds, 0 to always report the current values
+     */
+    public void setStatusPeriod(double statusPeriod){
+        this.statusPeriod = statusPeriod;
+        statusAge = Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public double getOutputCurrent(){
+        return statusPeriod > 0 ? reportedCurrent : Math.abs(getMotorCurrent());
+    }
+
+    /**
+     * Fetches the output the motor controller applies to the motor
+     * @return Returns the output from -1.0 to 1.0
+     */
+    public double getAppliedOutput(){
+        return target / freeSpeed;
+    }
+
+    /**
+     * Fetches the current through the motor, which is drawn from the battery in proportion to the applied output
+     * @return Returns the current in amps, positive when it pushes the motor forward
+     */
+    public double getMotorCurrent(){
+        double current = SimConfig.THROTTLE_STALL_CURRENT * (getDrivenSpeed() - velocity) / freeSpeed;
+        return current + Math.copySign(SimConfig.THROTTLE_FREE_CURRENT, velocity == 0 ? target : velocity);
+    }
+
+    /**
+     * Sets the battery voltage reaching the motor controller, which scales the speed the output drives the motor to
+     * @param busVoltage Voltage in volts
+     */
+    public void setBusVoltage(double busVoltage){
+        this.busVoltage = busVoltage;
+    }
+
+    /**
+     * Fetches the velocity of the wheel
+     * @return Returns the velocity in inches/second, positive when the motor turns forward
+     */
+    public double getWheelVelocity(){
+        return wheelScale * velocity / 60 / SwerveConfig.THOTTLE_TICKS_PER_INCH;
+    }
+
+    /**
+     * Makes the wheel travel further or less far per encoder rotation than configured, like a worn or oversized
+     * tread. The encoder still reports the configured distance.
+     * @param wheelScale Actual distance over configured distance, 1 for a perfect wheel
+     */
+    public void setWheelScale(double wheelScale){
+        this.wheelScale = wheelScale;
+    }
+
+    /**
+     * Advances the motor by one time step
+     * @param dt Length of the step in seconds
+     */
+    public void step(double dt){
+        double previous = velocity;
+        velocity += (getDrivenSpeed() - velocity) * (1 - Math.exp(-dt / SimConfig.THROTTLE_TIME_CONSTANT));
+        position += (previous + velocity) / 2 / 60 * dt;
+
+        statusAge += dt;
+        if(statusAge >= statusPeriod - 1e-9){
+            statusAge = 0;
+            reportedVelocity = velocity;
+            reportedCurrent = Math.abs(getMotorCurrent());
+        }
+    }
+
+    /**
+     * Speed the applied output settles on at the bus voltage, where the back EMF cancels the applied voltage
+     */
+    private double getDrivenSpeed(){
+        return target * busVoltage / SimConfig.BATTERY_VOLTAGE;
+    }
+}
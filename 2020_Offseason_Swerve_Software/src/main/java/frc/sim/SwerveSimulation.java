@@ -0,0 +1,301 @@
+package frc.sim;
+
+import frc.systems.dirtyswerve.lowerlevel.module.SwerveModule;
+import frc.systems.dirtyswerve.lowerlevel.odometry.Pose;
+import frc.systems.dirtyswerve.toplevel.DirtySwerve;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+
+/**
+ * Runs a DirtySwerve on simulated motors and a simulated gyro without any robot hardware. Each call to step()
+ * advances the motors, moves the chassis with the velocity that best fits all four wheels, and updates odometry.
+ * A wheel can only change the velocity of the ground under it by its grip each step, so a wheel that asks for more
+ * spins out and the others move the robot.
+ * Time only passes when step() is called, so simulations run as fast as the CPU allows.
+ *
+ * Poses use the same field frame as odometry: X forward, Y right and heading counter-clockwise.
+ */
+public class SwerveSimulation{
+
+    //Module positions from the center of the robot, numbered like the kinematics (X forward, Y right)
+    private static final double[] MODULE_X = {SwerveConfig.CHASSIS_LENGTH / 2, SwerveConfig.CHASSIS_LENGTH / 2,
+        -SwerveConfig.CHASSIS_LENGTH / 2, -SwerveConfig.CHASSIS_LENGTH / 2};
+    private static final double[] MODULE_Y = {-SwerveConfig.CHASSIS_WIDTH / 2, SwerveConfig.CHASSIS_WIDTH / 2,
+        -SwerveConfig.CHASSIS_WIDTH / 2, SwerveConfig.CHASSIS_WIDTH / 2};
+    private static final double MODULE_RADIUS_SQUARED = (SwerveConfig.CHASSIS_LENGTH * SwerveConfig.CHASSIS_LENGTH
+        + SwerveConfig.CHASSIS_WIDTH * SwerveConfig.CHASSIS_WIDTH) / 4;
+
+    private final SimThrottleMotor[] throttles = new SimThrottleMotor[4];
+    private final SimAzimuthMotor[] azimuths = new SimAzimuthMotor[4];
+    private final SwerveModule[] modules = new SwerveModule[4];
+    private final SimGyro gyro = new SimGyro();
+    private final DirtySwerve drive;
+
+    private double time;
+    private double x, y, heading;
+    private double forwardVelocity, strafeVelocity, rotationRate;
+    private final double[] grips = {SimConfig.WHEEL_GRIP_ACCEL, SimConfig.WHEEL_GRIP_ACCEL,
+        SimConfig.WHEEL_GRIP_ACCEL, SimConfig.WHEEL_GRIP_ACCEL};
+    private double pushForward, pushStrafe;
+    private double batteryVoltage = SimConfig.BATTERY_VOLTAGE;
+    private double batteryCurrent;
+
+    /**
+     * Creates a simulated swerve drive at the origin with every module pointing forward
+     */
+    public SwerveSimulation(){
+        String[] names = {"FrontLeftModule", "FrontRightModule", "RearLeftModule", "RearRightModule"};
+        for(int i = 0; i < 4; i++){
+            throttles[i] = new SimThrottleMotor();
+            azimuths[i] = new SimAzimuthMotor(0);
+            modules[i] = new SwerveModule(names[i], throttles[i], azimuths[i]);
+        }
+        drive = new DirtySwerve(gyro, modules[0], modules[1], modules[2], modules[3]);
+        drive.setBatteryVoltageSource(this::getBatteryVoltage);
+        drive.setClock(this::getTime);
+        drive.getPowerBudget().setEventSink(message -> { }); //Events are still kept for dumpEvents()
+    }
+
+    /**
+     * Fetches the simulated drivetrain, which is controlled exactly like the real one
+     * @return Returns the swerve drive
+     */
+    public DirtySwerve getDrive(){
+        return drive;
+    }
+
+    /**
+     * Fetches one of the simulated modules
+     * @param index Module number 0-3, numbered like the kinematics
+     * @return Returns the module
+     */
+    public SwerveModule getModule(int index){
+        return modules[index];
+    }
+
+    /**
+     * Fetches the simulated azimuth motor of a module
+     * @param index Module number 0-3, numbered like the kinematics
+     * @return Returns the azimuth motor
+     */
+    public SimAzimuthMotor getAzimuthMotor(int index){
+        return azimuths[index];
+    }
+
+    /**
+     * Fetches the simulated throttle motor of a module
+     * @param index Module number 0-3, numbered like the kinematics
+     * @return Returns the throttle motor
+     */
+    public SimThrottleMotor getThrottleMotor(int index){
+        return throttles[index];
+    }
+
+    /**
+     * Fetches the simulated gyro
+     * @return Returns the gyro
+     */
+    public SimGyro getGyro(){
+        return gyro;
+    }
+
+    /**
+     * Fetches the simulated time
+     * @return Returns the seconds simulated since the simulation was created
+     */
+    public double getTime(){
+        return time;
+    }
+
+    /**
+     * Fetches the true field X of the simulated robot
+     * @return Returns the X in inches
+     */
+    public double getX(){
+        return x;
+    }
+
+    /**
+     * Fetches the true field Y of the simulated robot
+     * @return Returns the Y in inches
+     */
+    public double getY(){
+        return y;
+    }
+
+    /**
+     * Fetches the true heading of the simulated robot
+     * @return Returns the heading in degrees, positive counter-clockwise
+     */
+    public double getHeading(){
+        return heading;
+    }
+
+    /**
+     * Sets how well a wheel grips the carpet, lower for a worn tread or a slick patch
+     * @param index Module number 0-3, numbered like the kinematics
+     * @param grip Largest change of the ground velocity under the wheel in inches/second^2
+     */
+    public void setWheelGrip(int index, double grip){
+        grips[index] = grip;
+    }
+
+    /**
+     * Pushes the robot like a defending robot does. The wheels resist the push with their grip.
+     * @param forward Acceleration the push would give a robot without wheels, in inches/second^2 towards its front
+     * @param strafe Acceleration the push would give a robot without wheels, in inches/second^2 towards its right
+     */
+    public void setPush(double forward, double strafe){
+        pushForward = forward;
+        pushStrafe = strafe;
+    }
+
+    /**
+     * Fetches how much faster a wheel spins than the ground under it moves along the wheel in the last step. Sliding
+     * sideways across the wheel is not counted.
+     * @param index Module number 0-3, numbered like the kinematics
+     * @return Returns the slip in inches/second, positive when the wheel spins faster in the direction it turns
+     */
+    public double getWheelSlip(int index){
+        double speed = throttles[index].getWheelVelocity();
+        return Math.copySign(1, speed) * (speed - getGroundSpeed(index));
+    }
+
+    /**
+     * Fetches how fast the ground under a wheel moves along the wheel in the last step
+     * @param index Module number 0-3, numbered like the kinematics
+     * @return Returns the speed in inches/second, positive in the direction the wheel turns forward
+     */
+    public double getGroundSpeed(int index){
+        double angle = Math.toRadians(azimuths[index].getAzimuth() + modules[index].azimuthOffset);
+        double groundForward = forwardVelocity - rotationRate * MODULE_Y[index];
+        double groundStrafe = strafeVelocity + rotationRate * MODULE_X[index];
+        return groundForward * Math.cos(angle) + groundStrafe * Math.sin(angle);
+    }
+
+    /**
+     * Fetches the battery voltage in the last step, sagged by the current the throttles drew
+     * @return Returns the voltage in volts
+     */
+    public double getBatteryVoltage(){
+        return batteryVoltage;
+    }
+
+    /**
+     * Fetches the current the throttles drew from the battery in the last step
+     * @return Returns the current in amps
+     */
+    public double getBatteryCurrent(){
+        return batteryCurrent;
+    }
+
+    /**
+     * Copies the true pose of the simulated robot
+     * @param pose Pose that is overwritten
+     */
+    public void getPose(Pose pose){
+        pose.set(x, y, heading);
+    }
+
+    /**
+     * Fetches the rotation rate of the chassis in the last step
+     * @return Returns the rotation rate in degrees/second, positive counter-clockwise
+     */
+    public double getRotationRate(){
+        return -Math.toDegrees(rotationRate);
+    }
+
+    /**
+     * Fetches the speed of the chassis in the last step
+     * @return Returns the speed in inches/second
+     */
+    public double getSpeed(){
+        return Math.hypot(forwardVelocity, strafeVelocity);
+    }
+
+    /**
+     * Moves the simulated robot. Odometry is moved to the same position.
+     * @param x Field X in inches
+     * @param y Field Y in inches
+     * @param heading Heading in degrees, positive counter-clockwise
+     */
+    public void setPose(double x, double y, double heading){
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+        gyro.resetHeading(heading);
+        drive.getOdometry().resetPosition(x, y);
+        drive.getOdometry().update();
+    }
+
+    /**
+     * Advances the simulation by one time step. Call after the drive has been commanded for this step.
+     * @param dt Length of the step in seconds
+     */
+    public void step(double dt){
+        double sumForward = 0;
+        double sumStrafe = 0;
+        double sumMoment = 0;
+
+        /*
+         * Throttle controllers draw their motor current times their output d from the battery, and a motor at speed w
+         * (as a fraction of free speed) draws stall current times d * V / VB - w, so the battery voltage V solves
+         * V = VB - R * stall * sum(d * (d * V / VB - w)). The azimuths and free currents are left out.
+         */
+        double squares = 0, products = 0;
+        for(int i = 0; i < 4; i++){
+            double output = throttles[i].getAppliedOutput();
+            squares += output * output;
+            products += output * throttles[i].getMotorVelocity() / (SimConfig.THROTTLE_FREE_SPEED
+                * SwerveConfig.THOTTLE_TICKS_PER_INCH * 60);
+        }
+        double resistance = SimConfig.BATTERY_RESISTANCE * SimConfig.THROTTLE_STALL_CURRENT;
+        batteryVoltage = SimConfig.BATTERY_VOLTAGE * (1 + resistance * products / SimConfig.BATTERY_VOLTAGE)
+            / (1 + resistance * squares / SimConfig.BATTERY_VOLTAGE);
+
+        batteryCurrent = 0;
+        for(int i = 0; i < 4; i++){
+            throttles[i].setBusVoltage(batteryVoltage);
+            batteryCurrent += throttles[i].getAppliedOutput() * throttles[i].getMotorCurrent();
+            throttles[i].step(dt);
+            azimuths[i].step(dt);
+
+            double angle = Math.toRadians(azimuths[i].getAzimuth() + modules[i].azimuthOffset);
+            double speed = throttles[i].getWheelVelocity();
+            double wheelForward = speed * Math.cos(angle);
+            double wheelStrafe = speed * Math.sin(angle);
+
+            //The ground under the wheel, pushed along with the robot, only follows the wheel as far as it grips
+            double groundForward = forwardVelocity - rotationRate * MODULE_Y[i] + pushForward * dt;
+            double groundStrafe = strafeVelocity + rotationRate * MODULE_X[i] + pushStrafe * dt;
+            double slipForward = wheelForward - groundForward;
+            double slipStrafe = wheelStrafe - groundStrafe;
+            double slip = Math.hypot(slipForward, slipStrafe);
+            double grip = grips[i] * dt;
+            if(slip > grip){
+                wheelForward = groundForward + slipForward * grip / slip;
+                wheelStrafe = groundStrafe + slipStrafe * grip / slip;
+            }
+
+            sumForward += wheelForward;
+            sumStrafe += wheelStrafe;
+            sumMoment += -MODULE_Y[i] * wheelForward + MODULE_X[i] * wheelStrafe;
+        }
+
+        //Least squares fit of a rigid body velocity to the four wheel velocities. Wheels that disagree scrub.
+        forwardVelocity = sumForward / 4;
+        strafeVelocity = sumStrafe / 4;
+        rotationRate = sumMoment / (4 * MODULE_RADIUS_SQUARED); //Radians/second, positive clockwise
+
+        double previousHeading = heading;
+        heading -= Math.toDegrees(rotationRate) * dt;
+        double midHeading = Math.toRadians((previousHeading + heading) / 2);
+        double cos = Math.cos(midHeading);
+        double sin = Math.sin(midHeading);
+        x += (forwardVelocity * cos + strafeVelocity * sin) * dt;
+        y += (-forwardVelocity * sin + strafeVelocity * cos) * dt;
+
+        gyro.setHeading(heading);
+        drive.getOdometry().update();
+        time += dt;
+    }
+}
@@ -0,0 +1,30 @@
+package frc.sim.scenario;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveTuning;
+
+/**
+ * A scripted drive that can be replayed in simulation and scored. Every run builds its own simulation, so one
+ * scenario can be run on many threads at once.
+ */
+public interface Scenario{
+
+    /**
+     * Fetches the name the scenario is reported under
+     * @return Returns the name
+     */
+    String getName();
+
+    /**
+     * Determines if the tuning changes the outcome of this scenario. Scenarios that don't depend on it are only run
+     * once per sweep.
+     * @return Returns true if the scenario should be run for every tuning variant
+     */
+    boolean isTuned();
+
+    /**
+     * Runs the scenario from the start in a new simulation
+     * @param tuning Tuning given to the drivetrain
+     * @return Returns the scores of the run
+     */
+    ScenarioResult run(SwerveTuning tuning);
+}
@@ -0,0 +1,153 @@
+package frc.sim.scenario;
+
+import frc.sim.SimAzimuthMotor;
+import frc.sim.SwerveSimulation;
+import frc.systems.dirtyswerve.lowerlevel.module.SwerveModule;
+
+/**
+ * Scores a run while it happens. Call one of the record methods after every simulation step.
+ *
+ * Path error is the distance between the robot and where the scenario says it should be. An azimuth is settling
+ * from the step its setpoint jumps by more than SETPOINT_STEP until it is within SETTLE_TOLERANCE of the setpoint.
+ * A reversal is a module flipping its throttle direction to reach an azimuth by the shorter path.
+ */
+public class ScenarioMetrics{
+
+    public static final double SETPOINT_STEP = 5; //Degrees
+    public static final double SETTLE_TOLERANCE = 2; //Degrees
+
+    private double time;
+    private int samples;
+    private double sumSquaredError;
+    private double maxPathError;
+    private double finalPathError;
+
+    private final double[] lastSetpoint = new double[4];
+    private final boolean[] lastInverted = new boolean[4];
+    private final boolean[] settling = new boolean[4];
+    private final double[] settleStart = new double[4];
+    private int settleCount;
+    private double settleSum;
+    private double maxSettleTime;
+    private int reversals;
+
+    /**
+     * Records the path error of an arcade drive, which has no modules
+     * @param dt Length of the step in seconds
+     * @param pathError Distance from the reference path in inches
+     */
+    public void record(double dt, double pathError){
+        time += dt;
+        samples++;
+        sumSquaredError += pathError * pathError;
+        maxPathError = Math.max(maxPathError, pathError);
+        finalPathError = pathError;
+    }
+
+    /**
+     * Records the path error and the state of every module of a swerve drive
+     * @param sim Simulation that was just stepped
+     * @param dt Length of the step in seconds
+     * @param pathError Distance from the reference path in inches
+     */
+    public void record(SwerveSimulation sim, double dt, double pathError){
+        record(dt, pathError);
+
+        for(int i = 0; i < 4; i++){
+            SwerveModule module = sim.getModule(i);
+            SimAzimuthMotor azimuthMotor = sim.getAzimuthMotor(i);
+            double setpoint = module.getAzimuthSetpoint();
+
+            if(module.invertThrottle != lastInverted[i]){
+                reversals++;
+                lastInverted[i] = module.invertThrottle;
+            }
+
+            //A new step while still settling keeps the original start, so the settle time covers both
+            if(Math.abs(setpoint - lastSetpoint[i]) > SETPOINT_STEP && !settling[i]){
+                settling[i] = true;
+                settleStart[i] = time - dt;
+            }
+            lastSetpoint[i] = setpoint;
+
+            double error = azimuthMotor.getAzimuth() + module.azimuthOffset - setpoint;
+            if(settling[i] && Math.abs(error) < SETTLE_TOLERANCE){
+                double settleTime = time - settleStart[i];
+                settling[i] = false;
+                settleCount++;
+                settleSum += settleTime;
+                maxSettleTime = Math.max(maxSettleTime, settleTime);
+            }
+        }
+    }
+
+    /**
+     * Fetches the simulated time recorded so far
+     * @return Returns the time in seconds
+     */
+    public double getTime(){
+        return time;
+    }
+
+    /**
+     * Fetches the root mean square path error
+     * @return Returns the error in inches
+     */
+    public double getRmsPathError(){
+        return samples == 0 ? 0 : Math.sqrt(sumSquaredError / samples);
+    }
+
+    /**
+     * Fetches the largest path error
+     * @return Returns the error in inches
+     */
+    public double getMaxPathError(){
+        return maxPathError;
+    }
+
+    /**
+     * Fetches the path error of the last step
+     * @return Returns the error in inches
+     */
+    public double getFinalPathError(){
+        return finalPathError;
+    }
+
+    /**
+     * Fetches the average azimuth settle time
+     * @return Returns the settle time in seconds
+     */
+    public double getMeanSettleTime(){
+        return settleCount == 0 ? 0 : settleSum / settleCount;
+    }
+
+    /**
+     * Fetches the longest azimuth settle time
+     * @return Returns the settle time in seconds
+     */
+    public double getMaxSettleTime(){
+        return maxSettleTime;
+    }
+
+    /**
+     * Fetches how many modules were still settling when the run ended
+     * @return Returns the number of unsettled modules
+     */
+    public int getUnsettled(){
+        int count = 0;
+        for(boolean moduleSettling : settling){
+            if(moduleSettling){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Fetches the total number of module reversals
+     * @return Returns the number of reversals
+     */
+    public int getReversals(){
+        return reversals;
+    }
+}
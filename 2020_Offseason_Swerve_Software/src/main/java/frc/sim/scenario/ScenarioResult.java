@@ -0,0 +1,129 @@
+package frc.sim.scenario;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveTuning;
+
+/**
+ * Scores from one run of a scenario
+ */
+public class ScenarioResult{
+
+    public static final String CSV_HEADER = "scenario,translationP,headingP,minThrottle,rmsPathError_in,"
+        + "maxPathError_in,finalPathError_in,meanSettle_s,maxSettle_s,unsettled,reversals,simulated_s";
+
+    private final String scenario;
+    private final SwerveTuning tuning;
+    private final double rmsPathError, maxPathError, finalPathError;
+    private final double meanSettleTime, maxSettleTime;
+    private final int unsettled;
+    private final int reversals;
+    private final double simulatedTime;
+
+    /**
+     * Creates the result of a run
+     * @param scenario Name of the scenario
+     * @param tuning Tuning the drivetrain ran with
+     * @param metrics Metrics recorded during the run
+     */
+    public ScenarioResult(String scenario, SwerveTuning tuning, ScenarioMetrics metrics){
+        this.scenario = scenario;
+        this.tuning = tuning;
+        this.rmsPathError = metrics.getRmsPathError();
+        this.maxPathError = metrics.getMaxPathError();
+        this.finalPathError = metrics.getFinalPathError();
+        this.meanSettleTime = metrics.getMeanSettleTime();
+        this.maxSettleTime = metrics.getMaxSettleTime();
+        this.unsettled = metrics.getUnsettled();
+        this.reversals = metrics.getReversals();
+        this.simulatedTime = metrics.getTime();
+    }
+
+    /**
+     * Fetches the name of the scenario that was run
+     * @return Returns the scenario name
+     */
+    public String getScenario(){
+        return scenario;
+    }
+
+    /**
+     * Fetches the tuning the drivetrain ran with
+     * @return Returns the tuning
+     */
+    public SwerveTuning getTuning(){
+        return tuning;
+    }
+
+    /**
+     * Fetches the root mean square distance between the robot and the reference path
+     * @return Returns the error in inches
+     */
+    public double getRmsPathError(){
+        return rmsPathError;
+    }
+
+    /**
+     * Fetches the largest distance between the robot and the reference path
+     * @return Returns the error in inches
+     */
+    public double getMaxPathError(){
+        return maxPathError;
+    }
+
+    /**
+     * Fetches the distance between the robot and the reference path at the end of the run
+     * @return Returns the error in inches
+     */
+    public double getFinalPathError(){
+        return finalPathError;
+    }
+
+    /**
+     * Fetches the average time for an azimuth to reach a new setpoint
+     * @return Returns the settle time in seconds
+     */
+    public double getMeanSettleTime(){
+        return meanSettleTime;
+    }
+
+    /**
+     * Fetches the longest time for an azimuth to reach a new setpoint
+     * @return Returns the settle time in seconds
+     */
+    public double getMaxSettleTime(){
+        return maxSettleTime;
+    }
+
+    /**
+     * Fetches how many azimuth setpoint changes were still unsettled at the end of the run
+     * @return Returns the number of unsettled changes
+     */
+    public int getUnsettled(){
+        return unsettled;
+    }
+
+    /**
+     * Fetches how many times any module flipped its throttle direction to take the shorter azimuth path
+     * @return Returns the total number of reversals
+     */
+    public int getReversals(){
+        return reversals;
+    }
+
+    /**
+     * Fetches how long the run lasted in simulated time
+     * @return Returns the time in seconds
+     */
+    public double getSimulatedTime(){
+        return simulatedTime;
+    }
+
+    /**
+     * Formats the result as a row matching CSV_HEADER
+     * @return Returns the CSV row
+     */
+    public String toCsv(){
+        return scenario + "," + tuning.getTranslationP() + "," + tuning.getHeadingP() + "," + tuning.getMinThrottle()
+            + "," + rmsPathError + "," + maxPathError + "," + finalPathError + "," + meanSettleTime + ","
+            + maxSettleTime + "," + unsettled + "," + reversals + "," + simulatedTime;
+    }
+}
@@ -0,0 +1,181 @@
+package frc.sim.scenario;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveTuning;
+import frc.util.Trajectory;
+
+/**
+ * Runs every scenario against every tuning variant in simulation on all cores and writes the scores to a CSV file.
+ * The best variant of each scenario by RMS path error is printed when the sweep finishes.
+ *
+ * Usage: ScenarioRunner output.csv [trajectory.traj ...]
+ * Run it with "gradlew runScenarios", which also passes in every trajectory in build/deploy.
+ */
+public class ScenarioRunner{
+
+    /**
+     * Tuning values swept by default, every combination is run
+     */
+    private static final double[] TRANSLATION_P = {0.5, 1.0, 1.5, 2.0, 3.0, 4.0, 6.0, 8.0};
+    private static final double[] HEADING_P = {1.0, 2.0, 3.0, 4.0, 6.0, 8.0};
+    private static final double[] MIN_THROTTLE = {0.02, 0.05, 0.1};
+
+    public static void main(String[] args){
+        if(args.length < 1){
+            System.err.println("Usage: ScenarioRunner output.csv [trajectory.traj ...]");
+            System.exit(1);
+        }
+
+        List<Scenario> scenarios = createScriptedScenarios();
+        for(int i = 1; i < args.length; i++){
+            File file = new File(args[i]);
+            try{
+                scenarios.add(new TrajectoryScenario(file.getName(), Trajectory.load(file)));
+            }catch(IOException ex){
+                System.err.println("Skipping trajectory " + file + ": " + ex.getMessage());
+            }
+        }
+
+        long start = System.nanoTime();
+        List<ScenarioResult> results = run(scenarios, createVariants(), Runtime.getRuntime().availableProcessors());
+        double wallTime = (System.nanoTime() - start) / 1e9;
+
+        File output = new File(args[0]);
+        if(output.getParentFile() != null){
+            output.getParentFile().mkdirs();
+        }
+        try(PrintWriter out = new PrintWriter(output)){
+            out.println(ScenarioResult.CSV_HEADER);
+            for(ScenarioResult result : results){
+                out.println(result.toCsv());
+            }
+        }catch(IOException ex){
+            ex.printStackTrace();
+            System.exit(1);
+        }
+
+        printSummary(results, wallTime);
+        System.out.println("Results written to " + output);
+    }
+
+    /**
+     * Runs scenarios in parallel on a fork-join pool. Tuned scenarios are run once per variant and the rest are run
+     * once with the default tuning.
+     * @param scenarios Scenarios to run
+     * @param variants Tuning variants to run each tuned scenario with
+     * @param threads Number of worker threads
+     * @return Returns the results, ordered by scenario then variant
+     */
+    public static List<ScenarioResult> run(List<Scenario> scenarios, List<SwerveTuning> variants, int threads){
+        List<Job> jobs = new ArrayList<>();
+        for(Scenario scenario : scenarios){
+            if(scenario.isTuned()){
+                for(SwerveTuning variant : variants){
+                    jobs.add(new Job(scenario, variant));
+                }
+            }else{
+                jobs.add(new Job(scenario, SwerveTuning.DEFAULT));
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try{
+            return pool.submit(() -> jobs.parallelStream().map(Job::run).collect(Collectors.toList())).get();
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Scenario run was interrupted", ex);
+        }catch(ExecutionException ex){
+            throw new IllegalStateException("Scenario failed", ex.getCause());
+        }finally{
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Creates the built in scenarios, which exercise straight driving, direction changes and rotation
+     * @return Returns a modifiable list of scenarios
+     */
+    public static List<Scenario> createScriptedScenarios(){
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(new ScriptedSwerveScenario("Straight", 4,
+            t -> t < 3 ? 0.6 : 0, t -> 0, t -> 0));
+        scenarios.add(new ScriptedSwerveScenario("StrafeRight", 3,
+            t -> 0, t -> 0.5, t -> 0));
+        scenarios.add(new ScriptedSwerveScenario("Box", 6,
+            t -> t < 1.5 ? 0.5 : t >= 3 && t < 4.5 ? -0.5 : 0,
+            t -> t >= 1.5 && t < 3 ? 0.5 : t >= 4.5 ? -0.5 : 0,
+            t -> 0));
+        scenarios.add(new ScriptedSwerveScenario("Shuffle", 4,
+            t -> ((int)(t / 0.5) % 2 == 0) ? 0.5 : -0.5, t -> 0, t -> 0));
+        scenarios.add(new ScriptedSwerveScenario("SpinAndTranslate", 4,
+            t -> 0.4, t -> 0, t -> 0.3));
+        scenarios.add(new ScriptedSwerveScenario("Slalom", 4,
+            t -> 0.5, t -> 0.5 * Math.sin(Math.PI * t), t -> 0));
+
+        scenarios.add(new ScriptedArcadeScenario("ArcadeStraight", 3,
+            t -> -0.8, t -> 0));
+        scenarios.add(new ScriptedArcadeScenario("ArcadeTurn", 3,
+            t -> -0.5, t -> 0.5));
+        scenarios.add(new ScriptedArcadeScenario("ArcadeSCurve", 4,
+            t -> -0.6, t -> 0.6 * Math.sin(Math.PI * t / 2)));
+        return scenarios;
+    }
+
+    /**
+     * Creates every combination of the swept tuning values
+     * @return Returns the tuning variants
+     */
+    public static List<SwerveTuning> createVariants(){
+        List<SwerveTuning> variants = new ArrayList<>();
+        for(double translationP : TRANSLATION_P){
+            for(double headingP : HEADING_P){
+                for(double minThrottle : MIN_THROTTLE){
+                    variants.add(new SwerveTuning(translationP, headingP, minThrottle));
+                }
+            }
+        }
+        return variants;
+    }
+
+    private static void printSummary(List<ScenarioResult> results, double wallTime){
+        Map<String, ScenarioResult> best = new LinkedHashMap<>();
+        double simulatedTime = 0;
+        for(ScenarioResult result : results){
+            simulatedTime += result.getSimulatedTime();
+            best.merge(result.getScenario(), result,
+                (a, b) -> b.getRmsPathError() < a.getRmsPathError() ? b : a);
+        }
+
+        for(ScenarioResult result : best.values()){
+            System.out.printf("%-20s rms %7.2f in  max %7.2f in  settle %5.3f s  reversals %3d  %s%n",
+                result.getScenario(), result.getRmsPathError(), result.getMaxPathError(), result.getMeanSettleTime(),
+                result.getReversals(), result.getTuning());
+        }
+        System.out.printf("%d runs, %.0f simulated seconds in %.2f s (%.0fx real time)%n", results.size(),
+            simulatedTime, wallTime, simulatedTime / wallTime);
+    }
+
+    private static class Job{
+        private final Scenario scenario;
+        private final SwerveTuning tuning;
+
+        Job(Scenario scenario, SwerveTuning tuning){
+            this.scenario = scenario;
+            this.tuning = tuning;
+        }
+
+        ScenarioResult run(){
+            return scenario.run(tuning);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package frc.sim.scenario;
+
+import java.util.function.DoubleUnaryOperator;
+
+import frc.sim.ArcadeSimulation;
+import frc.sim.SimConfig;
+import frc.systems.dirtyswerve.toplevel.config.SwerveTuning;
+
+/**
+ * Replays scripted controller axes through ArcadeDrive.runArcade(). The reference path is where the drivetrain
+ * would go if each side reached its commanded output instantly. Arcade drives have no modules, so settle time and
+ * reversals are always 0, and the swerve tuning has no effect.
+ *
+ * The reverse button is never pressed because ArcadeDriveLowerLevel.isDriveReversed is shared by every drivetrain
+ * in the process.
+ */
+public class ScriptedArcadeScenario implements Scenario{
+
+    private final String name;
+    private final double duration;
+    private final DoubleUnaryOperator throttleAxis, steerAxis;
+
+    /**
+     * Creates a scripted scenario. Each script maps the time since the start in seconds to an axis value.
+     * @param name Name the scenario is reported under
+     * @param duration Length of the scenario in seconds
+     * @param throttleAxis Throttle axis, negative is forward like a joystick Y axis
+     * @param steerAxis Steering axis
+     */
+    public ScriptedArcadeScenario(String name, double duration, DoubleUnaryOperator throttleAxis,
+            DoubleUnaryOperator steerAxis){
+        this.name = name;
+        this.duration = duration;
+        this.throttleAxis = throttleAxis;
+        this.steerAxis = steerAxis;
+    }
+
+    @Override
+    public String getName(){
+        return name;
+    }
+
+    @Override
+    public boolean isTuned(){
+        return false;
+    }
+
+    @Override
+    public ScenarioResult run(SwerveTuning tuning){
+        ArcadeSimulation sim = new ArcadeSimulation();
+        ScenarioMetrics metrics = new ScenarioMetrics();
+
+        double referenceX = 0, referenceY = 0, referenceHeading = 0;
+        double dt = SimConfig.TIME_STEP;
+        for(double time = 0; time < duration; time += dt){
+            sim.getDrive().runArcade(throttleAxis.applyAsDouble(time), steerAxis.applyAsDouble(time), false);
+            sim.step(dt);
+
+            double left = sim.getLeftMotor().getOutput() * SimConfig.ARCADE_FREE_SPEED;
+            double right = sim.getRightMotor().getOutput() * SimConfig.ARCADE_FREE_SPEED;
+            double previousHeading = referenceHeading;
+            referenceHeading += Math.toDegrees((right - left) / SimConfig.ARCADE_TRACK_WIDTH) * dt;
+            double midHeading = Math.toRadians((previousHeading + referenceHeading) / 2);
+            referenceX += (left + right) / 2 * Math.cos(midHeading) * dt;
+            referenceY += -(left + right) / 2 * Math.sin(midHeading) * dt;
+
+            metrics.record(dt, Math.hypot(sim.getX() - referenceX, sim.getY() - referenceY));
+        }
+        return new ScenarioResult(name, tuning, metrics);
+    }
+}
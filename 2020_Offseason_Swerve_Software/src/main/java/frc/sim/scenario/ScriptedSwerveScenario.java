@@ -0,0 +1,87 @@
+package frc.sim.scenario;
+
+import java.util.function.DoubleUnaryOperator;
+
+import frc.sim.SimConfig;
+import frc.sim.SwerveSimulation;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+import frc.systems.dirtyswerve.toplevel.config.SwerveTuning;
+
+/**
+ * Replays scripted drive commands through DirtySwerve.drive(), the same values teleopControl() passes on from the
+ * joysticks. The reference path is where an ideal drivetrain would go: every command is reached instantly at
+ * MAX_LINEAR_SPEED, desaturated the same way the kinematics normalize wheel speeds.
+ */
+public class ScriptedSwerveScenario implements Scenario{
+
+    private static final double DIAGONAL = Math.hypot(SwerveConfig.CHASSIS_LENGTH, SwerveConfig.CHASSIS_WIDTH);
+    private static final double RELATIVE_LENGTH = SwerveConfig.CHASSIS_LENGTH / DIAGONAL;
+    private static final double RELATIVE_WIDTH = SwerveConfig.CHASSIS_WIDTH / DIAGONAL;
+
+    private final String name;
+    private final double duration;
+    private final DoubleUnaryOperator forward, strafe, rotation;
+
+    /**
+     * Creates a scripted scenario. Each script maps the time since the start in seconds to a drive command.
+     * @param name Name the scenario is reported under
+     * @param duration Length of the scenario in seconds
+     * @param forward Field-oriented forward command from -1.0 to 1.0
+     * @param strafe Field-oriented strafe command from -1.0 (left) to 1.0 (right)
+     * @param rotation Rotation command from -1.0 (CCW) to 1.0 (CW)
+     */
+    public ScriptedSwerveScenario(String name, double duration, DoubleUnaryOperator forward, DoubleUnaryOperator strafe,
+            DoubleUnaryOperator rotation){
+        this.name = name;
+        this.duration = duration;
+        this.forward = forward;
+        this.strafe = strafe;
+        this.rotation = rotation;
+    }
+
+    @Override
+    public String getName(){
+        return name;
+    }
+
+    @Override
+    public boolean isTuned(){
+        return true;
+    }
+
+    @Override
+    public ScenarioResult run(SwerveTuning tuning){
+        SwerveSimulation sim = new SwerveSimulation();
+        sim.getDrive().setTuning(tuning);
+        ScenarioMetrics metrics = new ScenarioMetrics();
+
+        //Commands are field-oriented, so the reference path doesn't depend on heading
+        double referenceX = 0, referenceY = 0;
+        double dt = SimConfig.TIME_STEP;
+        for(double time = 0; time < duration; time += dt){
+            double f = forward.applyAsDouble(time);
+            double s = strafe.applyAsDouble(time);
+            double a = rotation.applyAsDouble(time);
+            sim.getDrive().drive(f, s, a);
+            sim.step(dt);
+
+            double scale = SwerveConfig.MAX_LINEAR_SPEED / Math.max(1, maxWheelSpeed(f, s, a));
+            referenceX += f * scale * dt;
+            referenceY += s * scale * dt;
+
+            metrics.record(sim, dt, Math.hypot(sim.getX() - referenceX, sim.getY() - referenceY));
+        }
+        return new ScenarioResult(name, tuning, metrics);
+    }
+
+    /**
+     * Finds the fastest wheel speed for a command before normalizing, see SwerveKinematics
+     */
+    private static double maxWheelSpeed(double forward, double strafe, double azimuth){
+        double a = strafe - azimuth * RELATIVE_LENGTH;
+        double b = strafe + azimuth * RELATIVE_LENGTH;
+        double c = forward - azimuth * RELATIVE_WIDTH;
+        double d = forward + azimuth * RELATIVE_WIDTH;
+        return Math.max(Math.max(Math.hypot(b, d), Math.hypot(b, c)), Math.max(Math.hypot(a, d), Math.hypot(a, c)));
+    }
+}
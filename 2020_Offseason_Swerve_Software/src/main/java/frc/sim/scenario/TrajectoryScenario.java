@@ -0,0 +1,72 @@
+package frc.sim.scenario;
+
+import frc.sim.SimConfig;
+import frc.sim.SwerveSimulation;
+import frc.systems.dirtyswerve.toplevel.DirtySwerve;
+import frc.systems.dirtyswerve.toplevel.config.SwerveTuning;
+import frc.util.Trajectory;
+
+/**
+ * Follows a trajectory with DirtySwerve.followTrajectory(), starting with the robot placed on the first sample.
+ * The reference path is the trajectory itself.
+ */
+public class TrajectoryScenario implements Scenario{
+
+    private final String name;
+    private final Trajectory trajectory;
+
+    /**
+     * Creates a trajectory scenario. The trajectory is only read, so one can be shared by every run.
+     * @param name Name the scenario is reported under
+     * @param trajectory Trajectory to follow
+     */
+    public TrajectoryScenario(String name, Trajectory trajectory){
+        this.name = name;
+        this.trajectory = trajectory;
+    }
+
+    @Override
+    public String getName(){
+        return name;
+    }
+
+    @Override
+    public boolean isTuned(){
+        return true;
+    }
+
+    @Override
+    public ScenarioResult run(SwerveTuning tuning){
+        SwerveSimulation sim = new SwerveSimulation();
+        DirtySwerve drive = sim.getDrive();
+        drive.setTuning(tuning);
+        ScenarioMetrics metrics = new ScenarioMetrics();
+
+        if(trajectory.length() > 0){
+            sim.setPose(trajectory.getX(0), trajectory.getY(0), trajectory.getHeading(0));
+        }
+        drive.startTrajectory(trajectory, 0);
+
+        double dt = SimConfig.TIME_STEP;
+        int index = 0;
+        boolean finished = trajectory.length() == 0;
+        while(!finished){
+            finished = drive.followTrajectory(sim.getTime());
+            sim.step(dt);
+
+            //Reference position at the new time, interpolated like the follower does
+            double time = Math.min(sim.getTime(), trajectory.getDuration());
+            while(index < trajectory.length() - 2 && trajectory.getTime(index + 1) <= time){
+                index++;
+            }
+            int next = Math.min(index + 1, trajectory.length() - 1);
+            double span = trajectory.getTime(next) - trajectory.getTime(index);
+            double t = span > 0 ? Math.min(Math.max((time - trajectory.getTime(index)) / span, 0), 1) : 0;
+            double x = trajectory.getX(index) + (trajectory.getX(next) - trajectory.getX(index)) * t;
+            double y = trajectory.getY(index) + (trajectory.getY(next) - trajectory.getY(index)) * t;
+
+            metrics.record(sim, dt, Math.hypot(sim.getX() - x, sim.getY() - y));
+        }
+        return new ScenarioResult(name, tuning, metrics);
+    }
+}
@@ -1,21 +1,24 @@
 package frc.systems.arcadedrive.lowerlevel;
 
-import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
 import com.ctre.phoenix.motorcontrol.can.WPI_VictorSPX;
 
+import edu.wpi.first.wpilibj.DriverStation;
+
+import frc.hardware.DriveMotor;
 import frc.systems.arcadedrive.toplevel.config.ArcadeConfig;
+import frc.util.BbTalonSRX;
+import frc.util.StatusFrameManager;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.FeedbackDevice;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
 import com.ctre.phoenix.motorcontrol.StatusFrame;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
 
 public class ArcadeDriveLowerLevel{
-    private WPI_TalonSRX leftMaster;
-    private WPI_VictorSPX leftSlave;
-
-    private WPI_TalonSRX rightMaster;
-    private WPI_VictorSPX rightSlave;
+    private DriveMotor leftMaster;
+    private DriveMotor rightMaster;
+    private StatusFrameManager statusFrames;
 
     public static boolean isDriveReversed;
     protected double driveRevFactor = 1.0;
@@ -25,20 +28,52 @@ public class ArcadeDriveLowerLevel{
      * prepares motor controllers for 10ms period Motion Profile Curves.
      */
     public ArcadeDriveLowerLevel(){
-        leftMaster = new WPI_TalonSRX(ArcadeConfig.LEFT_MASTER_ID);
-        leftSlave = new WPI_VictorSPX(ArcadeConfig.LEFT_SLAVE_ID);
+        BbTalonSRX leftMaster = new BbTalonSRX(ArcadeConfig.LEFT_MASTER_ID);
+        WPI_VictorSPX leftSlave = new WPI_VictorSPX(ArcadeConfig.LEFT_SLAVE_ID);
+
+        BbTalonSRX rightMaster = new BbTalonSRX(ArcadeConfig.RIGHT_MASTER_ID);
+        WPI_VictorSPX rightSlave = new WPI_VictorSPX(ArcadeConfig.RIGHT_SLAVE_ID);
+
+        motorControllerConfig(leftMaster, leftSlave, rightMaster, rightSlave);
+
+        StatusFrameManager frames = new StatusFrameManager("Arcade");
+        statusFrameConfig(frames, "LeftMaster", leftMaster);
+        statusFrameConfig(frames, "RightMaster", rightMaster);
+        statusFrameConfig(frames, "LeftSlave", leftSlave);
+        statusFrameConfig(frames, "RightSlave", rightSlave);
+        DriverStation.reportWarning(frames.getSummary(), false);
+
+        this.statusFrames = frames;
+        this.leftMaster = leftMaster;
+        this.rightMaster = rightMaster;
+    }
 
-        rightMaster = new WPI_TalonSRX(ArcadeConfig.RIGHT_MASTER_ID);
-        rightSlave = new WPI_VictorSPX(ArcadeConfig.RIGHT_SLAVE_ID);
+    /**
+     * Creates the drivetrain around motors that already exist, such as simulated ones. The motors are used as they
+     * are and not configured.
+     * @param leftMaster Motor driving the left side of the drivetrain
+     * @param rightMaster Motor driving the right side of the drivetrain
+     */
+    public ArcadeDriveLowerLevel(DriveMotor leftMaster, DriveMotor rightMaster){
+        this.leftMaster = leftMaster;
+        this.rightMaster = rightMaster;
+    }
 
-        motorControllerConfig();
+    /**
+     * Fetches the status frame periods assigned to the drivetrain's motor controllers. Call getReport() on it for
+     * the period of every frame.
+     * @return Returns the status frames, or null if the motors were not created by this drivetrain
+     */
+    public StatusFrameManager getStatusFrames(){
+        return statusFrames;
     }
 
     /**
      * Inverts and sets sensor phase and configures feedback devices. Also
      * prepares motor controllers for 10ms period Motion Profile Curves.
      */
-    private void motorControllerConfig(){
+    private static void motorControllerConfig(BbTalonSRX leftMaster, WPI_VictorSPX leftSlave, BbTalonSRX rightMaster,
+            WPI_VictorSPX rightSlave){
         rightMaster.setInverted(true);
         rightSlave.setInverted(true);
 
@@ -48,7 +83,7 @@ public class ArcadeDriveLowerLevel{
         rightMaster.setNeutralMode(NeutralMode.Brake);
         leftMaster.setNeutralMode(NeutralMode.Brake);
 
-        sensorConfig();
+        sensorConfig(leftMaster, rightMaster);
 
         leftMaster.configOpenloopRamp(ArcadeConfig.OPEN_LOOP_RAMP_RATE);
         rightMaster.configOpenloopRamp(ArcadeConfig.OPEN_LOOP_RAMP_RATE);
@@ -58,12 +93,16 @@ public class ArcadeDriveLowerLevel{
 
         rightMaster.configNeutralDeadband(0.01);
         leftMaster.configNeutralDeadband(0.01);
+
+        rightMaster.getWriteFilter().configure(ArcadeConfig.WRITE_EPSILON, ArcadeConfig.KEEP_ALIVE_CYCLES);
+        leftMaster.getWriteFilter().configure(ArcadeConfig.WRITE_EPSILON, ArcadeConfig.KEEP_ALIVE_CYCLES);
     }
 
     /**
-     * Configures sensors with PID, trajectory rates of 10ms, and set control frame periods
+     * Configures sensors with PID, trajectory rates of 10ms, and set control frame periods. Status frames are set by
+     * statusFrameConfig().
      */
-    private void sensorConfig(){
+    private static void sensorConfig(BbTalonSRX leftMaster, BbTalonSRX rightMaster){
         rightMaster.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative);
         leftMaster.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Relative);
 
@@ -76,9 +115,6 @@ public class ArcadeDriveLowerLevel{
         rightMaster.configMotionProfileTrajectoryPeriod(10);
         leftMaster.configMotionProfileTrajectoryPeriod(10);
 
-        rightMaster.setStatusFramePeriod(StatusFrame.Status_10_MotionMagic, 10);
-        leftMaster.setStatusFramePeriod(StatusFrame.Status_10_MotionMagic, 10);
-
         rightMaster.changeMotionControlFramePeriod(5);
         leftMaster.changeMotionControlFramePeriod(5);
 
@@ -86,6 +122,33 @@ public class ArcadeDriveLowerLevel{
         leftMaster.clearMotionProfileTrajectories();
     }
 
+    /**
+     * Assigns the status frames of a master. Motion profiling reads the encoders and trajectory targets, nothing
+     * reads the rest.
+     */
+    private static void statusFrameConfig(StatusFrameManager frames, String device, BbTalonSRX master){
+        frames.assign(device, master, StatusFrameEnhanced.Status_1_General, 10);
+        frames.assign(device, master, StatusFrameEnhanced.Status_2_Feedback0, ArcadeConfig.FEEDBACK_FRAME_PERIOD);
+        frames.assign(device, master, StatusFrameEnhanced.Status_10_Targets, ArcadeConfig.TARGETS_FRAME_PERIOD);
+        frames.assign(device, master, StatusFrameEnhanced.Status_3_Quadrature, StatusFrameManager.UNUSED_PERIOD);
+        frames.assign(device, master, StatusFrameEnhanced.Status_4_AinTempVbat, StatusFrameManager.UNUSED_PERIOD);
+        frames.assign(device, master, StatusFrameEnhanced.Status_8_PulseWidth, StatusFrameManager.UNUSED_PERIOD);
+        frames.assign(device, master, StatusFrameEnhanced.Status_12_Feedback1, StatusFrameManager.UNUSED_PERIOD);
+        frames.assign(device, master, StatusFrameEnhanced.Status_13_Base_PIDF0, StatusFrameManager.UNUSED_PERIOD);
+        frames.assign(device, master, StatusFrameEnhanced.Status_14_Turn_PIDF1, StatusFrameManager.UNUSED_PERIOD);
+        frames.addControlFrame(device, 10, ArcadeConfig.CONTROL_FRAME_PERIOD);
+    }
+
+    /**
+     * Assigns the status frames of a follower, which only mirrors its master so nothing reads its frames
+     */
+    private static void statusFrameConfig(StatusFrameManager frames, String device, WPI_VictorSPX follower){
+        frames.assign(device, follower, StatusFrame.Status_1_General, StatusFrameManager.UNUSED_PERIOD);
+        frames.assign(device, follower, StatusFrame.Status_2_Feedback0, StatusFrameManager.UNUSED_PERIOD);
+        frames.assign(device, follower, StatusFrame.Status_4_AinTempVbat, StatusFrameManager.UNUSED_PERIOD);
+        frames.addControlFrame(device, 10, ArcadeConfig.CONTROL_FRAME_PERIOD);
+    }
+
     /**
      * Updates direction of driving based on button input
      * @param buttonPress an instantaneous get(Raw)ButtonPressed input that is used as a toggle
@@ -97,21 +160,6 @@ public class ArcadeDriveLowerLevel{
         }
     }
 
-    /**
-     * Apply a Exponent to any Input that returns negative if the input is negative and vice-versa
-     *
-     * @param input  Parameter to Apply the exponent to
-     * @param degree Apply this exponent to the input
-     * @return Input to the power of the degree
-     */
-    protected double powerInput(double input, int degree) {
-        if (input >= 0) {
-            return Math.pow(input, degree);
-        } else {
-            return -Math.abs(Math.pow(input, degree));
-        }
-    }
-
     /**
      * Quickly set and bound speed for all four motors on the drivetrain.
      *
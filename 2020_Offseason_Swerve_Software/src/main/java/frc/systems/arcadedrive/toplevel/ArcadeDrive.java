@@ -1,10 +1,27 @@
 package frc.systems.arcadedrive.toplevel;
 
 import edu.wpi.first.wpilibj.Joystick;
+import frc.hardware.DriveMotor;
 import frc.systems.arcadedrive.lowerlevel.ArcadeDriveLowerLevel;
 import frc.systems.arcadedrive.toplevel.config.ArcadeConfig;
+import frc.util.input.Deadband;
+import frc.util.input.Expo;
+import frc.util.input.InputPipeline;
+import frc.util.input.JerkLimit;
+import frc.util.input.SlewLimit;
 
 public class ArcadeDrive extends ArcadeDriveLowerLevel{
+
+    private final InputPipeline throttleInput = new InputPipeline(
+        new Deadband(ArcadeConfig.INPUT_DEADBAND),
+        new Expo(ArcadeConfig.INPUT_EXPO, ArcadeConfig.INPUT_EXPO_DEGREE),
+        new SlewLimit(ArcadeConfig.THROTTLE_RISE_RATE, ArcadeConfig.THROTTLE_FALL_RATE),
+        new JerkLimit(ArcadeConfig.THROTTLE_JERK, ArcadeConfig.THROTTLE_RISE_RATE, ArcadeConfig.THROTTLE_FALL_RATE));
+    private final InputPipeline steerInput = new InputPipeline(
+        new Deadband(ArcadeConfig.INPUT_DEADBAND),
+        new Expo(ArcadeConfig.INPUT_EXPO, ArcadeConfig.INPUT_EXPO_DEGREE),
+        new SlewLimit(ArcadeConfig.STEER_RISE_RATE, ArcadeConfig.STEER_FALL_RATE),
+        new JerkLimit(ArcadeConfig.STEER_JERK, ArcadeConfig.STEER_RISE_RATE, ArcadeConfig.STEER_FALL_RATE));
     
     /**
      * Instantiates the drivetrain motor contollers, inverts and sets sensor phase and configures feedback devices. Also
@@ -14,17 +31,46 @@ public class ArcadeDrive extends ArcadeDriveLowerLevel{
         super();
     }
 
+    /**
+     * Creates the drivetrain around motors that already exist, such as simulated ones.
+     * @param leftMaster Motor driving the left side of the drivetrain
+     * @param rightMaster Motor driving the right side of the drivetrain
+     */
+    public ArcadeDrive(DriveMotor leftMaster, DriveMotor rightMaster){
+        super(leftMaster, rightMaster);
+    }
+
     public void runArcade(Joystick driveJoy){
+        runArcade(driveJoy.getY(ArcadeConfig.THROTTLE_AXIS), driveJoy.getRawAxis(4),
+            driveJoy.getRawButtonPressed(ArcadeConfig.REVERSE_BUTTON));
+    }
+
+    /**
+     * Runs arcade drive from raw controller values, so it can be driven without a joystick. Both axes are shaped by
+     * their own input pipeline, called once per ArcadeConfig.INPUT_PERIOD.
+     * @param throttleAxis Throttle axis, negative is forward like a joystick Y axis
+     * @param steerAxis Steering axis
+     * @param reversePressed True on the cycle the reverse button is pressed
+     */
+    public void runArcade(double throttleAxis, double steerAxis, boolean reversePressed){
         double throttle = 0.0;
         double steer = 0.0;
 
         
-        throttle = powerInput(this.driveRevFactor * -1.0 * driveJoy.getY(ArcadeConfig.THROTTLE_AXIS),2);
-        steer = 0.40 * powerInput(driveJoy.getRawAxis(4),2);
+        throttle = throttleInput.calculate(this.driveRevFactor * -1.0 * throttleAxis, ArcadeConfig.INPUT_PERIOD);
+        steer = 0.40 * steerInput.calculate(steerAxis, ArcadeConfig.INPUT_PERIOD);
 
-        this.reverseDrive(driveJoy.getRawButtonPressed(ArcadeConfig.REVERSE_BUTTON));
+        this.reverseDrive(reversePressed);
 
         DriveSpeed driveSpeed = calculateSpeed(throttle, steer);
         setDriveMotorScaledSpeed(driveSpeed);
     }
-}
\ No newline at end of file
+
+    /**
+     * Clears the slew and jerk limits so teleop starts from a standstill, such as after the robot was disabled
+     */
+    public void resetInputs(){
+        throttleInput.reset(0);
+        steerInput.reset(0);
+    }
+}
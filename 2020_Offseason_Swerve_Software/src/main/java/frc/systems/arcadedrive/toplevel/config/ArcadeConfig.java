@@ -14,9 +14,9 @@ public final class ArcadeConfig{
     public static final int RIGHT_SLAVE_ID = 34;
 
     /**
-     * PID Values for arcade drive
+     * PID Values for arcade drive (Defaults until gains are stored in the calibration file under this name)
      */
-    public static final PID_Config DRIVE_PID = new PID_Config(0.3, 0.002, 30.0, 0.3673, 300);
+    public static final PID_Config DRIVE_PID = new PID_Config("ArcadeDrivePID", 0.3, 0.002, 30.0, 0.3673, 300);
 
     /**
      * Ramp Rates
@@ -24,11 +24,40 @@ public final class ArcadeConfig{
     public static final double OPEN_LOOP_RAMP_RATE = 0.3;
     public static final double CLOSED_LOOP_RAMP_RATE = 0;
 
+    /**
+     * Teleop Input Shaping (Stick deadband and expo curve, then slew limits in output/second while speeding up and
+     * slowing down, and a jerk limit in output/second^2) and the period runArcade() is called at (Seconds)
+     */
+    public static final double INPUT_DEADBAND = 0.05;
+    public static final double INPUT_EXPO = 1.0;
+    public static final int INPUT_EXPO_DEGREE = 2;
+    public static final double THROTTLE_RISE_RATE = 3.0;
+    public static final double THROTTLE_FALL_RATE = 6.0;
+    public static final double THROTTLE_JERK = 30.0;
+    public static final double STEER_RISE_RATE = 5.0;
+    public static final double STEER_FALL_RATE = 10.0;
+    public static final double STEER_JERK = 50.0;
+    public static final double INPUT_PERIOD = 0.02;
+
     /**
      * Max Drivetrain Speed
      */
     public static final double MAX_SPEED= 1.0;
 
+    /**
+     * CAN Write Filtering (Outputs within epsilon of the last sent value are skipped until the keep-alive)
+     */
+    public static final double WRITE_EPSILON = 0.001;
+    public static final int KEEP_ALIVE_CYCLES = 10;
+
+    /**
+     * Status Frame Periods (Milliseconds, motion profiling reads the master encoders and targets, nothing reads the
+     * followers)
+     */
+    public static final int FEEDBACK_FRAME_PERIOD = 20;
+    public static final int TARGETS_FRAME_PERIOD = 10;
+    public static final int CONTROL_FRAME_PERIOD = 10;
+
     /**
      * Controller Inputs
      */
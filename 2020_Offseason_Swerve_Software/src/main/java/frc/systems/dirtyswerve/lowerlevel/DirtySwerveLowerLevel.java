@@ -4,15 +4,92 @@
 
 package frc.systems.dirtyswerve.lowerlevel;
 
-import com.ctre.phoenix.sensors.PigeonIMU;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.DoubleSupplier;
 
+import com.ctre.phoenix.sensors.PigeonIMU_StatusFrame;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.RobotController;
+
+import frc.hardware.Gyro;
 import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig.DriveMode;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig.KinematicsMode;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig.MathMode;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig.ThrottleType;
+import frc.systems.dirtyswerve.toplevel.config.SwerveTuning;
 import frc.systems.dirtyswerve.lowerlevel.module.SwerveModule;
+import frc.systems.dirtyswerve.lowerlevel.odometry.OdometrySource;
+import frc.systems.dirtyswerve.lowerlevel.odometry.SwerveOdometry;
+import frc.systems.dirtyswerve.lowerlevel.telemetry.SwerveTelemetry;
+import frc.util.BbPigeonIMU;
+import frc.util.CalibrationStore;
+import frc.util.FastMath;
+import frc.util.GyroSampler;
+import frc.util.LoopTimer;
+import frc.util.StatusFrameManager;
 
-public class DirtySwerveLowerLevel{
+public class DirtySwerveLowerLevel implements OdometrySource{
     
   protected SwerveModule frontLeftModule,frontRightModule,rearLeftModule,rearRightModule;
-  protected PigeonIMU gyro;
+  protected Gyro gyro;
+  protected StatusFrameManager statusFrames;
+
+  protected final SwerveKinematics kinematics = new SwerveKinematics(SwerveConfig.CHASSIS_LENGTH, SwerveConfig.CHASSIS_WIDTH,
+      SwerveConfig.SELECTED_MATH_MODE == MathMode.FAST);
+  protected final double[] wheelSpds = new double[4];
+  protected final double[] wheelAzms = new double[4];
+  protected final double[] wheelRates = new double[4];
+  private final double[] nextSpds = new double[4];
+  private final double[] nextAzms = new double[4];
+  private double robotForward, robotStrafe;
+
+  protected KinematicsMode kinematicsMode = SwerveConfig.SELECTED_KINEMATICS_MODE;
+  protected double controlPeriod = SwerveConfig.CONTROL_PERIOD;
+
+  protected SwerveTuning tuning = SwerveTuning.DEFAULT;
+
+  protected double gyroHeading;
+  protected volatile double headingOffset;
+  protected GyroSampler gyroSampler;
+  protected final HeadingController headingHold = new HeadingController(SwerveConfig.HEADING_PID);
+  protected volatile boolean headingHoldEnabled = SwerveConfig.HEADING_HOLD_ENABLED;
+  private int savedReadsPerCycle;
+
+  protected final PowerBudget powerBudget = new PowerBudget();
+  protected volatile boolean powerBudgetEnabled = SwerveConfig.POWER_BUDGET_ENABLED;
+  protected DoubleSupplier batteryVoltage = RobotController::getBatteryVoltage;
+  protected DoubleSupplier clock = () -> RobotController.getFPGATime() / 1.0e6;
+  private final double[] commandedSpds = new double[4];
+  private final double[] measuredSpds = new double[4];
+  private final double[] throttleCurrents = new double[4];
+
+  protected final TractionControl traction = new TractionControl();
+  protected volatile boolean tractionControlEnabled = SwerveConfig.TRACTION_CONTROL_ENABLED;
+  private final double[] wheelCommands = new double[4];
+  private final double[] wheelVelocities = new double[4];
+  private final double[] moduleAzimuths = new double[4];
+
+  protected final SwerveOdometry odometry = new SwerveOdometry(this);
+  protected volatile SwerveTelemetry telemetry;
+  protected ThreadedControl controlThreads;
+  private boolean servosRunning;
+
+  /**
+   * Stages of one control loop, timed by loopTimer
+   */
+  public enum LoopStage{
+    INPUT,
+    KINEMATICS,
+    MODULE_FEED,
+    CAN_WRITE
+  }
+
+  protected final LoopTimer<LoopStage> loopTimer = new LoopTimer<>(LoopStage.class, SwerveConfig.LOOP_TIMER_SAMPLES);
 
   /**
    * This is the central file to run the swerve drive. Developed based on the inverse kinematic equations developed
@@ -22,109 +99,695 @@ public class DirtySwerveLowerLevel{
    * facing forward.
    */
   public DirtySwerveLowerLevel(){
-    gyro = new PigeonIMU(SwerveConfig.GYRO_ID);
+    StatusFrameManager frames = new StatusFrameManager("Swerve");
+    gyro = createGyro(frames);
+
+    loadCalibration();
+    SwerveConfig.HEADING_PID.load();
 
-    frontLeftModule = new SwerveModule("FrontLeftModule", SwerveConfig.FRONT_LEFT_THROTTLE_ID, SwerveConfig.FRONT_LEFT_AZIMUTH_ID);
-    frontRightModule = new SwerveModule("FrontRightModule", SwerveConfig.FRONT_RIGHT_THROTTLE_ID, SwerveConfig.FRONT_RIGHT_AZIMUTH_ID);
-    rearLeftModule = new SwerveModule("RearLeftModule", SwerveConfig.REAR_LEFT_THROTTLE_ID, SwerveConfig.REAR_LEFT_AZIMUTH_ID);
-    rearRightModule = new SwerveModule("RearRightModule", SwerveConfig.REAR_RIGHT_THROTTLE_ID, SwerveConfig.REAR_RIGHT_AZIMUTH_ID);
+    frontLeftModule = new SwerveModule("FrontLeftModule", SwerveConfig.FRONT_LEFT_THROTTLE_ID, SwerveConfig.FRONT_LEFT_AZIMUTH_ID, frames);
+    frontRightModule = new SwerveModule("FrontRightModule", SwerveConfig.FRONT_RIGHT_THROTTLE_ID, SwerveConfig.FRONT_RIGHT_AZIMUTH_ID, frames);
+    rearLeftModule = new SwerveModule("RearLeftModule", SwerveConfig.REAR_LEFT_THROTTLE_ID, SwerveConfig.REAR_LEFT_AZIMUTH_ID, frames);
+    rearRightModule = new SwerveModule("RearRightModule", SwerveConfig.REAR_RIGHT_THROTTLE_ID, SwerveConfig.REAR_RIGHT_AZIMUTH_ID, frames);
+
+    statusFrames = frames;
+    DriverStation.reportWarning(frames.getSummary(), false);
   }
 
   /**
-   * Calculates the variables used to generate speeds and azimuths as an array of 4. Based off of
-   * the letter (a,b,c,d) variables described in Ether's Chief Delphi Post.
-   * @param forward Net Y-axis movement, from -1.0 (reverse) to 1.0 (forward)
-   * @param strafe Net X-axis movement, from -1.0 (reverse) to 1.0 (forward)
-   * @param azimuth Absolute robot rotation from -1.0 CCW to 1.0 CW
-   * @return Returns a double array with the variables stored
+   * Instantiates the Pigeon and assigns its status frames. Only the fused heading is read, by odometry and
+   * field-oriented drive.
+   * @param frames Assigns the status frame periods
+   * @return Returns the configured gyro
    */
-  protected double[] calcTrajVars(double forward, double strafe, double azimuth){
-    double[] vars = new double [4];
+  private static BbPigeonIMU createGyro(StatusFrameManager frames){
+    BbPigeonIMU pigeon = new BbPigeonIMU(SwerveConfig.GYRO_ID);
+    frames.assign("Gyro", pigeon, PigeonIMU_StatusFrame.CondStatus_1_General, 100);
+    frames.assign("Gyro", pigeon, PigeonIMU_StatusFrame.CondStatus_6_SensorFusion, SwerveConfig.FEEDBACK_FRAME_PERIOD);
+    frames.assign("Gyro", pigeon, PigeonIMU_StatusFrame.CondStatus_9_SixDeg_YPR, StatusFrameManager.UNUSED_PERIOD);
+    frames.assign("Gyro", pigeon, PigeonIMU_StatusFrame.CondStatus_11_GyroAccum, StatusFrameManager.UNUSED_PERIOD);
+    frames.assign("Gyro", pigeon, PigeonIMU_StatusFrame.CondStatus_2_GeneralCompass, StatusFrameManager.UNUSED_PERIOD);
+    frames.assign("Gyro", pigeon, PigeonIMU_StatusFrame.CondStatus_3_GeneralAccel, StatusFrameManager.UNUSED_PERIOD);
+    frames.assign("Gyro", pigeon, PigeonIMU_StatusFrame.CondStatus_10_SixDeg_Quat, StatusFrameManager.UNUSED_PERIOD);
+    return pigeon;
+  }
 
-    double radius = Math.hypot(SwerveConfig.CHASSIS_LENGTH, SwerveConfig.CHASSIS_WIDTH);
-    double relativeLength = SwerveConfig.CHASSIS_LENGTH/radius;
-    double relativeWidth = SwerveConfig.CHASSIS_WIDTH/radius;
+  /**
+   * Creates the swerve drive around a gyro and modules that already exist, such as simulated ones. The calibration
+   * store is not read.
+   * @param gyro Gyro that measures the heading of the robot
+   * @param frontLeft Front left module
+   * @param frontRight Front right module
+   * @param rearLeft Rear left module
+   * @param rearRight Rear right module
+   */
+  public DirtySwerveLowerLevel(Gyro gyro, SwerveModule frontLeft, SwerveModule frontRight, SwerveModule rearLeft,
+      SwerveModule rearRight){
+    this.gyro = gyro;
+    frontLeftModule = frontLeft;
+    frontRightModule = frontRight;
+    rearLeftModule = rearLeft;
+    rearRightModule = rearRight;
+  }
 
-    vars[0] = strafe - azimuth * relativeLength;
-    vars[1] = strafe + azimuth * relativeLength;
-    vars[2] = forward - azimuth * relativeWidth;
-    vars[3] = forward + azimuth * relativeWidth;
+  /**
+   * Reads every module's calibration in a single file read before the modules are created, and reports why if the
+   * calibration file can't be used.
+   */
+  private void loadCalibration(){
+    CalibrationStore store = CalibrationStore.getDefault();
+    switch(store.load()){
+      case MISSING:
+        DriverStation.reportWarning("No swerve calibration found, modules will assume they are straight: "
+            + store.getLoadError(), false);
+        break;
+      case CORRUPT:
+        DriverStation.reportError("Swerve calibration is corrupt, azimuths will be wrong until recalibrated: "
+            + store.getLoadError(), false);
+        break;
+      default:
+        break;
+    }
+  }
 
-    return vars;
+  /**
+   * Replaces the tuned SwerveConfig values this drivetrain uses
+   * @param tuning Tuning to use from now on
+   */
+  public void setTuning(SwerveTuning tuning){
+    this.tuning = tuning;
   }
 
   /**
-   * Returns wheel speeds as an array based on precalculated variables []
-   * @param trajVars Precalculated variable dependecies
-   * @return 
+   * Fetches the tuned SwerveConfig values this drivetrain uses
+   * @return Returns the current tuning
    */
-  protected double[] calcWheelSpds(double[] trajVars){
-    double[] speeds = new double[4];
+  public SwerveTuning getTuning(){
+    return tuning;
+  }
 
-    speeds[0]= Math.hypot(trajVars[1], trajVars[3]);
-    speeds[1] = Math.hypot(trajVars[1], trajVars[2]);
-    speeds[2] = Math.hypot(trajVars[0], trajVars[3]);
-    speeds[3] = Math.hypot(trajVars[0], trajVars[2]);
+  /**
+   * Selects first or second order kinematics for field-oriented driving
+   * @param kinematicsMode Kinematics to use from now on
+   */
+  public void setKinematicsMode(KinematicsMode kinematicsMode){
+    this.kinematicsMode = kinematicsMode;
+  }
 
-    speeds = normalizeSpds(speeds);
-    return speeds;
+  /**
+   * Fetches the kinematics used for field-oriented driving
+   * @return Returns the kinematics mode
+   */
+  public KinematicsMode getKinematicsMode(){
+    return kinematicsMode;
   }
 
   /**
-   * Scales down all speed factors to a range of 0-1.
-   * @param speeds
-   * @return
+   * Fetches the status frame periods assigned to the drivetrain's devices. Call getReport() on it for the period of
+   * every frame.
+   * @return Returns the status frames, or null if the hardware was injected
    */
-  protected double[] normalizeSpds(double[] speeds){
-    final double maxWheelSpeed = this.getMaxSpeed(speeds);
+  public StatusFrameManager getStatusFrames(){
+    return statusFrames;
+  }
 
-    if (maxWheelSpeed > 1.0) {
-      for (int i = 0; i < 4; i++) {
-        speeds[i] /= maxWheelSpeed;
+  /**
+   * Opens a new telemetry log in /home/lvuser if telemetry is enabled. Every call to logTelemetry() after this adds
+   * one record. The oldest logs are deleted so that at most SwerveConfig.TELEMETRY_MAX_LOGS are kept.
+   */
+  public void startTelemetry(){
+    if(!SwerveConfig.TELEMETRY_ENABLED || telemetry != null){
+      return;
+    }
+    File directory = new File("/home/lvuser");
+    deleteOldTelemetry(directory, SwerveConfig.TELEMETRY_MAX_LOGS - 1);
+    File file = new File(directory, "Telemetry_" + System.currentTimeMillis() + ".bin");
+    try{
+      telemetry = new SwerveTelemetry(file, SwerveConfig.TELEMETRY_BUFFER_RECORDS, SwerveConfig.TELEMETRY_DRAIN_PERIOD);
+    }catch(IOException ex){
+      DriverStation.reportError("Could not open telemetry log " + file + ": " + ex.getMessage(), false);
+    }
+  }
+
+  /**
+   * Writes every buffered record and closes the telemetry log. Call startTelemetry() to open a new one.
+   */
+  public void stopTelemetry(){
+    SwerveTelemetry log = telemetry;
+    if(log == null){
+      return;
+    }
+    telemetry = null;
+    log.close();
+    if(log.getDroppedRecords() > 0){
+      DriverStation.reportWarning("Telemetry dropped " + log.getDroppedRecords() + " records", false);
+    }
+  }
+
+  /**
+   * Deletes the oldest telemetry logs in a directory until no more than the given number are left
+   * @param directory Directory the logs are written to
+   * @param keep Number of logs to keep
+   */
+  static void deleteOldTelemetry(File directory, int keep){
+    File[] logs = directory.listFiles((dir, name) -> name.startsWith("Telemetry_") && name.endsWith(".bin"));
+    if(logs == null || logs.length <= keep){
+      return;
+    }
+    Arrays.sort(logs, Comparator.comparingLong(File::lastModified));
+    for(int i = 0; i < logs.length - Math.max(keep, 0); i++){
+      if(!logs[i].delete()){
+        DriverStation.reportWarning("Could not delete old telemetry log " + logs[i], false);
       }
     }
+  }
 
-    return speeds;
+  /**
+   * Records the commanded and measured state of every module and the gyro heading for this loop
+   */
+  protected void logTelemetry(){
+    SwerveTelemetry log = telemetry; //stopTelemetry() may run on another thread
+    if(log == null){
+      return;
+    }
+    log.begin(RobotController.getFPGATime(), gyroHeading);
+    logModule(log, 0, frontLeftModule);
+    logModule(log, 1, frontRightModule);
+    logModule(log, 2, rearLeftModule);
+    logModule(log, 3, rearRightModule);
+    log.commit();
   }
 
-  protected double getMaxSpeed(double[] speeds){
-    return Math.max(Math.max(speeds[0], speeds[1]), Math.max(speeds[2], speeds[3]));
+  private void logModule(SwerveTelemetry log, int index, SwerveModule module){
+    log.module(index, module.getAzimuthSetpoint(), module.getSnapshotAzimuth(), module.getThrottleSetpoint(),
+        module.getThrottleVelocity(), module.invertThrottle);
   }
 
-  protected double[] calcWheelAzms(double[] trajVars){
-    double[] azms = new double[4];
+  /**
+   * Fetches the timer that records how long each stage of the control loop takes
+   * @return Returns the loop timer
+   */
+  public LoopTimer<LoopStage> getLoopTimer(){
+    return loopTimer;
+  }
 
-    azms[0] = Math.atan2(trajVars[1], trajVars[3]) * 180 / Math.PI;
-    azms[1] = Math.atan2(trajVars[1], trajVars[2]) * 180 / Math.PI;
-    azms[2] = Math.atan2(trajVars[0], trajVars[3]) * 180 / Math.PI;
-    azms[3] = Math.atan2(trajVars[0], trajVars[2]) * 180 / Math.PI;
+  /**
+   * Starts tracking the position of the robot on its own thread. Does nothing while the control threads are
+   * running, since they update odometry every loop.
+   */
+  public void startOdometry(){
+    if(isThreaded()){
+      return;
+    }
+    odometry.start(SwerveConfig.ODOMETRY_PERIOD);
+  }
 
-    return azms; 
+  /**
+   * Turns holding the heading while translating without a rotation command on or off, see HeadingController
+   * @param enabled True to hold the heading
+   */
+  public void setHeadingHoldEnabled(boolean enabled){
+    headingHoldEnabled = enabled;
   }
 
-  protected void feedModules(double[] spds,double[] azms){
-    //does not update azimuths if the speed is under threshold
-    if(this.getMaxSpeed(spds)>SwerveConfig.MIN_THROTTLE){ 
-      frontLeftModule.set(azms[0], spds[0]);
-      frontRightModule.set(azms[1], spds[1]);
-      rearLeftModule.set(azms[2], spds[2]);
-      rearRightModule.set(azms[3], spds[3]);
+  /**
+   * Determines if the heading is held while translating without a rotation command
+   * @return Returns true if heading hold is enabled
+   */
+  public boolean isHeadingHoldEnabled(){
+    return headingHoldEnabled;
+  }
+
+  /**
+   * Fetches the heading hold controller, which can be read to see the heading being held
+   * @return Returns the heading controller
+   */
+  public HeadingController getHeadingHold(){
+    return headingHold;
+  }
+
+  /**
+   * Turns scaling the throttles down to keep their current under the budget on or off, see PowerBudget
+   * @param enabled True to limit the throttle current
+   */
+  public void setPowerBudgetEnabled(boolean enabled){
+    powerBudgetEnabled = enabled;
+  }
+
+  /**
+   * Fetches the power budget, which can be read to see how much the throttles are limited and dump limiting events
+   * @return Returns the power budget
+   */
+  public PowerBudget getPowerBudget(){
+    return powerBudget;
+  }
+
+  /**
+   * Turns cutting the throttle of wheels that spin out on or off, see TractionControl
+   * @param enabled True to control traction
+   */
+  public void setTractionControlEnabled(boolean enabled){
+    tractionControlEnabled = enabled;
+    if(!enabled){
+      traction.reset();
     }
   }
 
   /**
-     * Apply a Exponent to any Input that returns negative if the input is negative and vice-versa
-     *
-     * @param input  Parameter to Apply the exponent to
-     * @param degree Apply this exponent to the input
-     * @return Input to the power of the degree
-     */
-  protected double powerInput(double input, int degree) {
-      if (input >= 0) {
-          return Math.pow(input, degree);
-      } else {
-          return -Math.abs(Math.pow(input, degree));
-      }
+   * Fetches the traction control, which can be read to see which wheels slip
+   * @return Returns the traction control
+   */
+  public TractionControl getTractionControl(){
+    return traction;
+  }
+
+  /**
+   * Reads the battery voltage from somewhere else than the roboRIO, such as a simulated battery
+   * @param batteryVoltage Source of the battery voltage in volts
+   */
+  public void setBatteryVoltageSource(DoubleSupplier batteryVoltage){
+    this.batteryVoltage = batteryVoltage;
+  }
+
+  /**
+   * Reads the time that power budget events are recorded with from somewhere else than the FPGA, such as a
+   * simulation's clock
+   * @param clock Source of the time in seconds
+   */
+  public void setClock(DoubleSupplier clock){
+    this.clock = clock;
+  }
+
+  /**
+   * Starts reading the gyro on its own thread, see GyroSampler. From then on the control loop and odometry use the
+   * cached heading extrapolated by SwerveConfig.GYRO_LATENCY instead of reading the gyro over CAN themselves.
+   */
+  public void startGyroSampler(){
+    if(gyroSampler == null){
+      gyroSampler = new GyroSampler(gyro, SwerveConfig.GYRO_LATENCY, SwerveConfig.GYRO_RATE_WINDOW);
+    }
+    gyroSampler.start(SwerveConfig.GYRO_SAMPLE_PERIOD);
+  }
+
+  /**
+   * Uses a gyro sampler that is run by the caller, such as a simulation stepping it with simulated time
+   * @param gyroSampler Sampler of this drivetrain's gyro, or null to read the gyro directly again
+   */
+  public void setGyroSampler(GyroSampler gyroSampler){
+    this.gyroSampler = gyroSampler;
+  }
+
+  /**
+   * Fetches the gyro sampler
+   * @return Returns the sampler, or null if the gyro is read directly
+   */
+  public GyroSampler getGyroSampler(){
+    return gyroSampler;
+  }
+
+  /**
+   * Moves the control loop, odometry and module writes onto their own threads, see ThreadedControl. From then on
+   * drive() only hands its command to the control thread.
+   */
+  public void startControlThreads(){
+    if(controlThreads == null){
+      controlThreads = new ThreadedControl(this, new SwerveModule[]{frontLeftModule, frontRightModule,
+          rearLeftModule, rearRightModule});
+    }
+    odometry.stop();
+    controlPeriod = SwerveConfig.CONTROL_THREAD_PERIOD;
+    controlThreads.start(SwerveConfig.CONTROL_THREAD_PERIOD);
+  }
+
+  /**
+   * Stops the control threads, after which drive() runs the control loop on the calling thread again. Odometry
+   * has to be restarted with startOdometry() if it is still needed.
+   */
+  public void stopControlThreads(){
+    if(controlThreads != null){
+      controlThreads.stop();
+    }
+    controlPeriod = SwerveConfig.CONTROL_PERIOD;
+  }
+
+  /**
+   * Starts a servo loop for every module that interpolates between control loops and writes the setpoints every
+   * SwerveConfig.SERVO_PERIOD, see ModuleServo
+   */
+  public void startServos(){
+    frontLeftModule.startServo(SwerveConfig.SERVO_PERIOD);
+    frontRightModule.startServo(SwerveConfig.SERVO_PERIOD);
+    rearLeftModule.startServo(SwerveConfig.SERVO_PERIOD);
+    rearRightModule.startServo(SwerveConfig.SERVO_PERIOD);
+    servosRunning = true;
+  }
+
+  /**
+   * Stops the module servo loops, after which setpoints are written once per control loop again
+   */
+  public void stopServos(){
+    servosRunning = false;
+    frontLeftModule.stopServo();
+    frontRightModule.stopServo();
+    rearLeftModule.stopServo();
+    rearRightModule.stopServo();
+  }
+
+  /**
+   * Fetches the most overruns of any module servo, see ModuleServo
+   * @return Returns the overrun count of the worst module
+   */
+  public long getServoOverruns(){
+    return Math.max(Math.max(getServoOverruns(frontLeftModule), getServoOverruns(frontRightModule)),
+        Math.max(getServoOverruns(rearLeftModule), getServoOverruns(rearRightModule)));
+  }
+
+  private static long getServoOverruns(SwerveModule module){
+    return module.getServo() == null ? 0 : module.getServo().getOverruns();
+  }
+
+  /**
+   * Determines if the control loop is running on its own threads
+   * @return Returns true while the control threads are running
+   */
+  public boolean isThreaded(){
+    return controlThreads != null && controlThreads.isRunning();
+  }
+
+  /**
+   * Fetches the timer that records the latency from a command to the modules being written. While the servos are
+   * running this is the front left servo's timer, since the servos write the modules, otherwise it is the control
+   * threads' timer.
+   * @return Returns the latency timer, or null if the control threads were never started
+   */
+  public LoopTimer<ThreadedControl.LatencyStage> getLatencyTimer(){
+    if(servosRunning && frontLeftModule.getServo() != null){
+      return frontLeftModule.getServo().getLatencyTimer();
+    }
+    return controlThreads == null ? null : controlThreads.getLatencyTimer();
+  }
+
+  /**
+   * Fetches the control threads, which record the latency from a command to the modules being written
+   * @return Returns the control threads, or null if they were never started
+   */
+  public ThreadedControl getControlThreads(){
+    return controlThreads;
+  }
+
+  /**
+   * Fetches the odometry tracker, which can be used to read or reset the pose of the robot
+   * @return Returns the odometry of the drivetrain
+   */
+  public SwerveOdometry getOdometry(){
+    return odometry;
+  }
+
+  @Override
+  public void readModules(double[] distances, double[] azimuths){
+    distances[0] = frontLeftModule.getThrottleDistance();
+    distances[1] = frontRightModule.getThrottleDistance();
+    distances[2] = rearLeftModule.getThrottleDistance();
+    distances[3] = rearRightModule.getThrottleDistance();
+
+    azimuths[0] = frontLeftModule.getMeasuredAzimuth();
+    azimuths[1] = frontRightModule.getMeasuredAzimuth();
+    azimuths[2] = rearLeftModule.getMeasuredAzimuth();
+    azimuths[3] = rearRightModule.getMeasuredAzimuth();
+  }
+
+  @Override
+  public int readSlipMask(){
+    return traction.getSlipMask();
+  }
+
+  @Override
+  public double readHeading(){
+    return (gyroSampler != null ? gyroSampler.getHeading() : gyro.getFusedHeading()) + headingOffset;
+  }
+
+  /**
+   * Offsets every gyro reading so the robot's current heading reads as the given heading from now on. Field-oriented
+   * driving and odometry both use the offset heading.
+   * @param heading Heading the robot is at now in degrees, positive counter-clockwise
+   */
+  public void resetHeading(double heading){
+    if(gyro != null){
+      headingOffset += heading - readHeading();
+    }
+  }
+
+  /**
+   * Takes a snapshot of every module's azimuth encoder and the gyro heading so each sensor is only read over CAN
+   * once per cycle. The heading comes from the gyro sampler's cache while it is in use. Also records how many reads
+   * the previous cycle saved.
+   */
+  protected void sampleSensors(){
+    savedReadsPerCycle = frontLeftModule.getSavedReads() + frontRightModule.getSavedReads()
+        + rearLeftModule.getSavedReads() + rearRightModule.getSavedReads();
+
+    frontLeftModule.resetReadCounters();
+    frontRightModule.resetReadCounters();
+    rearLeftModule.resetReadCounters();
+    rearRightModule.resetReadCounters();
+
+    frontLeftModule.sampleSensors();
+    frontRightModule.sampleSensors();
+    rearLeftModule.sampleSensors();
+    rearRightModule.sampleSensors();
+
+    if(gyro != null){
+      gyroHeading = readHeading();
+    }
+  }
+
+  /**
+   * Gets how many CAN reads were served from the sensor snapshot instead of the bus during the last full cycle
+   * @return Number of CAN reads saved in the last cycle
+   */
+  public int getSavedReadsPerCycle(){
+    return savedReadsPerCycle;
+  }
+
+  /**
+   * Runs one full control loop: samples the sensors, holds the heading if enabled, runs the kinematics and feeds
+   * the modules. Runs on the control thread while it is running, otherwise on whichever thread calls drive().
+   * @param forward Y-axis movement, from -1.0 (reverse) to 1.0 (forward)
+   * @param strafe X-axis movement, from -1.0 (left) to 1.0 (right)
+   * @param azimuth robot rotation, from -1.0 (CCW) to 1.0 (CW)
+   */
+  protected void runControlLoop(double forward, double strafe, double azimuth){
+    loopTimer.start();
+    sampleSensors();
+    loopTimer.mark(LoopStage.INPUT);
+
+    if(gyro != null && headingHoldEnabled){
+      boolean translating = Math.hypot(forward, strafe) > tuning.getMinThrottle();
+      azimuth = headingHold.calculate(translating, azimuth, gyroHeading, controlPeriod);
+    }else{
+      headingHold.release();
+    }
+
+    if(gyro != null && SwerveConfig.SELECTED_DRIVE_MODE == DriveMode.FIELD_ORIENTED){
+      calcModuleStates(forward, strafe, azimuth, Math.IEEEremainder(gyroHeading, 360.0));
+    }else{
+      calcModuleStates(forward, strafe, azimuth);
+    }
+    loopTimer.mark(LoopStage.KINEMATICS);
+
+    feedModules(wheelSpds, wheelAzms, wheelRates);
+    logTelemetry();
+    loopTimer.end();
+  }
+
+  /**
+   * Runs the inverse kinematics and stores the results in the wheelSpds and wheelAzms buffers. The buffers are
+   * reused every loop so no garbage is created.
+   * @param forward Net Y-axis movement, from -1.0 (reverse) to 1.0 (forward)
+   * @param strafe Net X-axis movement, from -1.0 (reverse) to 1.0 (forward)
+   * @param azimuth Absolute robot rotation from -1.0 CCW to 1.0 CW
+   */
+  protected void calcModuleStates(double forward, double strafe, double azimuth){
+    kinematics.calculate(forward, strafe, azimuth, wheelSpds, wheelAzms);
+    for(int i = 0; i < 4; i++){
+      wheelRates[i] = 0;
+    }
+  }
+
+  /**
+   * Runs the inverse kinematics for a field-oriented command and stores the results in the wheelSpds, wheelAzms and
+   * wheelRates buffers.
+   *
+   * With FIRST_ORDER kinematics the command is rotated by the current heading, so the modules point where they
+   * should have pointed at the start of the loop and the robot skews off its path when it translates and rotates at
+   * once. SECOND_ORDER kinematics rotate it by the heading halfway through the loop instead, and calculate how fast
+   * each module must turn to keep up so the azimuths can be fed forward.
+   * @param forward Field-oriented forward movement, from -1.0 (reverse) to 1.0 (forward)
+   * @param strafe Field-oriented strafe movement, from -1.0 (left) to 1.0 (right)
+   * @param azimuth Absolute robot rotation from -1.0 CCW to 1.0 CW
+   * @param heading Heading of the robot in degrees, positive counter-clockwise
+   */
+  protected void calcModuleStates(double forward, double strafe, double azimuth, double heading){
+    toRobotFrame(forward, strafe, heading);
+    if(kinematicsMode != KinematicsMode.SECOND_ORDER){
+      calcModuleStates(robotForward, robotStrafe, azimuth);
+      return;
+    }
+
+    //Heading change over one loop in degrees, positive counter-clockwise
+    double rotationStep = -Math.toDegrees(kinematics.calcRotationRate(robotForward, robotStrafe, azimuth,
+        SwerveConfig.MAX_LINEAR_SPEED)) * controlPeriod;
+
+    toRobotFrame(forward, strafe, heading + 1.5 * rotationStep);
+    kinematics.calculate(robotForward, robotStrafe, azimuth, nextSpds, nextAzms);
+    toRobotFrame(forward, strafe, heading + 0.5 * rotationStep);
+    kinematics.calculate(robotForward, robotStrafe, azimuth, wheelSpds, wheelAzms);
+
+    for(int i = 0; i < 4; i++){
+      double rate = Math.IEEEremainder(nextAzms[i] - wheelAzms[i], 360) / controlPeriod;
+      wheelRates[i] = Math.max(-SwerveConfig.MAX_AZIMUTH_RATE, Math.min(SwerveConfig.MAX_AZIMUTH_RATE, rate));
+    }
+  }
+
+  /**
+   * Rotates a field-oriented command into the robot's frame, the results are stored in robotForward and robotStrafe
+   * @param forward Field-oriented forward movement
+   * @param strafe Field-oriented strafe movement
+   * @param heading Heading of the robot in degrees, positive counter-clockwise
+   */
+  private void toRobotFrame(double forward, double strafe, double heading){
+    double angle = Math.toRadians(heading);
+    double sin, cos;
+    if(SwerveConfig.SELECTED_MATH_MODE == MathMode.FAST){
+      sin = FastMath.sin(angle);
+      cos = FastMath.cos(angle);
+    }else{
+      sin = Math.sin(angle);
+      cos = Math.cos(angle);
+    }
+    robotForward = forward * cos - strafe * sin;
+    robotStrafe = forward * sin + strafe * cos;
+  }
+
+  protected void feedModules(double[] spds,double[] azms,double[] rates){
+    //Below the threshold the throttles stop and the azimuths hold instead of all snapping straight
+    if(SwerveKinematics.getMaxSpeed(spds)>tuning.getMinThrottle()){ 
+      //Speeds are normalized, velocity mode needs them in inches/second
+      double scale = SwerveConfig.SELECTED_THROTTLE_TYPE == ThrottleType.VelocityMode ? SwerveConfig.MAX_LINEAR_SPEED : 1;
+      frontLeftModule.prepare(azms[0], spds[0]*scale, rates[0]);
+      frontRightModule.prepare(azms[1], spds[1]*scale, rates[1]);
+      rearLeftModule.prepare(azms[2], spds[2]*scale, rates[2]);
+      rearRightModule.prepare(azms[3], spds[3]*scale, rates[3]);
+    }else{
+      frontLeftModule.hold();
+      frontRightModule.hold();
+      rearLeftModule.hold();
+      rearRightModule.hold();
+    }
+    if(tractionControlEnabled || powerBudgetEnabled){
+      readThrottleVelocities();
+    }
+    if(tractionControlEnabled && gyro != null){
+      limitWheelSlip();
+    }
+    if(powerBudgetEnabled){
+      limitThrottleCurrent();
+    }
+    loopTimer.mark(LoopStage.MODULE_FEED);
+
+    writeModules();
+    loopTimer.mark(LoopStage.CAN_WRITE);
+  }
+
+  private void readThrottleVelocities(){
+    wheelVelocities[0] = frontLeftModule.getThrottleVelocity();
+    wheelVelocities[1] = frontRightModule.getThrottleVelocity();
+    wheelVelocities[2] = rearLeftModule.getThrottleVelocity();
+    wheelVelocities[3] = rearRightModule.getThrottleVelocity();
+  }
+
+  /**
+   * Cuts the prepared throttle setpoint of every module whose wheel spins faster than the ground under it, so it
+   * grips again. Runs before the power budget, which then budgets the setpoints that are left.
+   */
+  private void limitWheelSlip(){
+    //Percent mode setpoints are fractions of full speed
+    double scale = SwerveConfig.SELECTED_THROTTLE_TYPE == ThrottleType.VelocityMode ? 1 : SwerveConfig.MAX_LINEAR_SPEED;
+    readSlipInputs(0, frontLeftModule, scale);
+    readSlipInputs(1, frontRightModule, scale);
+    readSlipInputs(2, rearLeftModule, scale);
+    readSlipInputs(3, rearRightModule, scale);
+    traction.calculate(wheelCommands, wheelVelocities, moduleAzimuths, gyroHeading, controlPeriod);
+    frontLeftModule.scaleThrottle(traction.getScale(0));
+    frontRightModule.scaleThrottle(traction.getScale(1));
+    rearLeftModule.scaleThrottle(traction.getScale(2));
+    rearRightModule.scaleThrottle(traction.getScale(3));
+  }
+
+  private void readSlipInputs(int index, SwerveModule module, double scale){
+    wheelCommands[index] = module.getSignedThrottleSetpoint() * scale;
+    moduleAzimuths[index] = module.getAbsoluteAzimuth();
+  }
+
+  /**
+   * Scales the prepared throttle setpoints of every module by the same factor when the current they are predicted
+   * to draw is over the budget. Scaling after prepare() is the same as scaling the normalized wheel speeds, since
+   * prepare() only multiplies them by the turn scaling.
+   */
+  private void limitThrottleCurrent(){
+    //Percent mode setpoints are already fractions of full speed
+    double scale = SwerveConfig.SELECTED_THROTTLE_TYPE == ThrottleType.VelocityMode ? SwerveConfig.MAX_LINEAR_SPEED : 1;
+    readPowerInputs(0, frontLeftModule, scale);
+    readPowerInputs(1, frontRightModule, scale);
+    readPowerInputs(2, rearLeftModule, scale);
+    readPowerInputs(3, rearRightModule, scale);
+    double limit = powerBudget.calculate(commandedSpds, measuredSpds, throttleCurrents, batteryVoltage.getAsDouble(),
+        clock.getAsDouble());
+    if(limit < 1){
+      frontLeftModule.scaleThrottle(limit);
+      frontRightModule.scaleThrottle(limit);
+      rearLeftModule.scaleThrottle(limit);
+      rearRightModule.scaleThrottle(limit);
+    }
+  }
+
+  private void readPowerInputs(int index, SwerveModule module, double scale){
+    commandedSpds[index] = module.getSignedThrottleSetpoint() / scale;
+    measuredSpds[index] = wheelVelocities[index] / SwerveConfig.MAX_LINEAR_SPEED;
+    throttleCurrents[index] = module.getThrottleCurrent();
+  }
+
+  /**
+   * Stops every throttle and holds every azimuth where it was last set
+   */
+  protected void stopModules(){
+    frontLeftModule.hold();
+    frontRightModule.hold();
+    rearLeftModule.hold();
+    rearRightModule.hold();
+    writeModules();
+  }
+
+  /**
+   * Sends the setpoints every module has prepared. The module servos write them when they are running, otherwise
+   * the CAN thread does when threaded control is running, otherwise they are written right away.
+   */
+  private void writeModules(){
+    if(isThreaded() && !servosRunning){
+      controlThreads.publishSetpoints();
+    }else if(isThreaded()){
+      long inputNanos = controlThreads.getInputNanos();
+      long controlStartNanos = controlThreads.getControlStartNanos();
+      frontLeftModule.write(inputNanos, controlStartNanos);
+      frontRightModule.write(inputNanos, controlStartNanos);
+      rearLeftModule.write(inputNanos, controlStartNanos);
+      rearRightModule.write(inputNanos, controlStartNanos);
+    }else{
+      frontLeftModule.write();
+      frontRightModule.write();
+      rearLeftModule.write();
+      rearRightModule.write();
+    }
   }
 
 }
@@ -0,0 +1,106 @@
+package frc.systems.dirtyswerve.lowerlevel;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+import frc.util.PID_Config;
+
+/**
+ * Holds the heading of the robot while it translates without a rotation command, so uneven wheels and scrub do not
+ * slowly yaw it. When the rotation command drops to zero the controller waits for the robot to stop turning, then
+ * captures the heading and corrects towards it with a PID loop. Any rotation command passes straight through and
+ * releases the hold, and standing still recaptures it, so the driver never fights an old heading.
+ *
+ * Gains are read from a PID_Config every loop, so gains retuned in the calibration store apply right away, in
+ * (degrees/second) per degree like the trajectory heading gain. The integral only builds up within iZone degrees of
+ * the target and while the output is not saturated, and the derivative acts on the measured yaw rate, so capturing a
+ * heading never kicks the output.
+ */
+public class HeadingController{
+
+  private final PID_Config gains;
+
+  private boolean holding;
+  private double target;
+  private double integral;
+  private double lastHeading = Double.NaN;
+  private double yawRate;
+
+  /**
+   * Creates a controller that is not holding any heading
+   * @param gains PID gains, followed as they are retuned, kF is not used. Call load() on them first to use the gains
+   *     in the calibration store.
+   */
+  public HeadingController(PID_Config gains){
+    this.gains = gains;
+  }
+
+  /**
+   * Calculates the rotation command for this loop
+   * @param translating True if the robot is commanded to translate
+   * @param rotation Rotation command from the driver, from -1.0 (CCW) to 1.0 (CW)
+   * @param heading Current heading in degrees, positive counter-clockwise
+   * @param dt Time since the last call in seconds
+   * @return Returns the rotation command to drive with, from -1.0 (CCW) to 1.0 (CW)
+   */
+  public double calculate(boolean translating, double rotation, double heading, double dt){
+    yawRate = Double.isNaN(lastHeading) || dt <= 0 ? 0 : Math.IEEEremainder(heading - lastHeading, 360.0) / dt;
+    lastHeading = heading;
+
+    if(rotation != 0 || !translating){
+      release();
+      return rotation;
+    }
+    if(!holding){
+      if(Math.abs(yawRate) > SwerveConfig.HEADING_HOLD_CAPTURE_RATE){
+        return 0;
+      }
+      holding = true;
+      target = heading;
+    }
+
+    double error = Math.IEEEremainder(target - heading, 360.0);
+    double angularVelocity = gains.getP() * error + gains.getI() * integral - gains.getD() * yawRate;
+    double limited = Math.max(-SwerveConfig.HEADING_HOLD_MAX_RATE,
+        Math.min(SwerveConfig.HEADING_HOLD_MAX_RATE, angularVelocity));
+
+    //Conditional integration: stop integrating outside the zone or while saturated in the direction of the error
+    if(Math.abs(error) < gains.getIntegralZone() && (limited == angularVelocity || limited * error < 0)){
+      integral += error * dt;
+    }
+
+    //Drive rotation is positive clockwise, and a full rotation command turns the robot at MAX_ANGULAR_SPEED
+    return -limited / SwerveConfig.MAX_ANGULAR_SPEED;
+  }
+
+  /**
+   * Stops holding a heading and clears the integral. The heading is captured again the next time the robot
+   * translates without a rotation command.
+   */
+  public void release(){
+    holding = false;
+    integral = 0;
+  }
+
+  /**
+   * Determines if a heading has been captured and is being held
+   * @return Returns true while holding
+   */
+  public boolean isHolding(){
+    return holding;
+  }
+
+  /**
+   * Fetches the heading being held
+   * @return Returns the target heading in degrees, positive counter-clockwise, only meaningful while holding
+   */
+  public double getTarget(){
+    return target;
+  }
+
+  /**
+   * Fetches the yaw rate measured in the last call to calculate()
+   * @return Returns the yaw rate in degrees/second, positive counter-clockwise
+   */
+  public double getYawRate(){
+    return yawRate;
+  }
+}
@@ -0,0 +1,216 @@
+package frc.systems.dirtyswerve.lowerlevel;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.function.Consumer;
+
+import edu.wpi.first.wpilibj.DriverStation;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+
+/**
+ * Keeps the battery current drawn by the throttles under a budget by scaling every module's throttle setpoint by
+ * the same factor, so the robot still drives in the commanded direction, only slower to get there.
+ *
+ * Each throttle is modelled as a DC motor that is given the commanded speed as its output: it draws
+ * THROTTLE_STALL_CURRENT times the difference between commanded and measured speed from its controller, and the
+ * controller draws that times the output from the battery, which is nothing while the wheel slows down. Currents the
+ * model does not explain, such as pushing against another robot, are learned from the measured motor currents and
+ * added to the prediction. The budget is derated as the battery sags towards brownout.
+ *
+ * Every stretch of loops that needed limiting is recorded as one event, reported to the event sink when it ends and
+ * kept for dumpEvents(). The sink is the driver station unless something else is set, such as off the robot. Only
+ * call calculate() from one thread.
+ */
+public class PowerBudget{
+
+  private static final int BISECTION_STEPS = 16;
+  private static final String EVENT_HEADER = "start_s,duration_s,min_scale,peak_predicted_a,peak_measured_a,"
+      + "min_voltage_v,budget_a";
+
+  //Owned by the calculating thread
+  private double trim;
+  private final double[] lastOutputs = new double[4];
+  private double lastPredicted;
+  private boolean limiting;
+  private double eventStart, eventMinScale, eventPeakPredicted, eventPeakMeasured, eventMinVoltage, eventBudget;
+
+  //Finished events, written by the calculating thread
+  private final double[][] events = new double[7][SwerveConfig.POWER_EVENT_CAPACITY];
+  private volatile int eventCount;
+
+  private volatile double scale = 1, predictedCurrent, measuredCurrent, budget;
+
+  private Consumer<String> eventSink = message -> DriverStation.reportWarning(message, false);
+
+  /**
+   * Calculates the factor every throttle setpoint should be multiplied by this loop
+   * @param commanded Signed throttle setpoint of all four modules as a fraction of full speed
+   * @param measured Signed measured speed of every module as a fraction of full speed, in the same direction
+   * @param currents Measured output current of every throttle motor in amps
+   * @param voltage Battery voltage in volts
+   * @param timestamp Current time in seconds, used to record events
+   * @return Returns the scale from SwerveConfig.POWER_MIN_SCALE to 1.0, 1.0 if nothing needs to be limited
+   */
+  public double calculate(double[] commanded, double[] measured, double[] currents, double voltage,
+      double timestamp){
+    //Battery current the modules drew last loop, compared with what was predicted for it
+    double drawn = 0;
+    double motorCurrent = 0;
+    for(int i = 0; i < currents.length; i++){
+      drawn += Math.min(1, Math.abs(lastOutputs[i])) * currents[i];
+      motorCurrent += currents[i];
+    }
+    trim += (Math.max(0, drawn - lastPredicted) - trim) * SwerveConfig.POWER_TRIM_FILTER;
+
+    double derate = (voltage - SwerveConfig.POWER_DERATE_END_VOLTAGE)
+        / (SwerveConfig.POWER_DERATE_START_VOLTAGE - SwerveConfig.POWER_DERATE_END_VOLTAGE);
+    double available = SwerveConfig.THROTTLE_CURRENT_BUDGET * Math.max(SwerveConfig.POWER_MIN_BUDGET_FRACTION,
+        Math.min(1, derate));
+
+    //Predicted current only grows with the scale, so the largest scale within the budget is found by bisection
+    double unlimited = predict(commanded, measured, 1);
+    double result = 1;
+    if(unlimited > available){
+      double low = 0, high = 1;
+      for(int step = 0; step < BISECTION_STEPS; step++){
+        double middle = (low + high) / 2;
+        if(predict(commanded, measured, middle) > available){
+          high = middle;
+        }else{
+          low = middle;
+        }
+      }
+      result = Math.max(SwerveConfig.POWER_MIN_SCALE, low);
+    }
+
+    for(int i = 0; i < commanded.length; i++){
+      lastOutputs[i] = commanded[i] * result;
+    }
+    lastPredicted = predict(commanded, measured, result) - trim;
+    record(result < 1, timestamp, result, unlimited, motorCurrent, voltage, available);
+
+    scale = result;
+    predictedCurrent = unlimited;
+    measuredCurrent = motorCurrent;
+    budget = available;
+    return result;
+  }
+
+  /**
+   * Reports finished limiting events somewhere else than the driver station, such as a simulation's console
+   * @param eventSink Receives a one line description of every event when it ends
+   */
+  public void setEventSink(Consumer<String> eventSink){
+    this.eventSink = eventSink;
+  }
+
+  /**
+   * Fetches the scale from the last calculation
+   * @return Returns the scale, 1.0 if nothing was limited
+   */
+  public double getScale(){
+    return scale;
+  }
+
+  /**
+   * Fetches the battery current predicted for the unlimited setpoints in the last calculation
+   * @return Returns the predicted current in amps
+   */
+  public double getPredictedCurrent(){
+    return predictedCurrent;
+  }
+
+  /**
+   * Fetches the sum of the throttle motor currents read in the last calculation
+   * @return Returns the measured current in amps
+   */
+  public double getMeasuredCurrent(){
+    return measuredCurrent;
+  }
+
+  /**
+   * Fetches the budget after derating for battery voltage in the last calculation
+   * @return Returns the budget in amps
+   */
+  public double getBudget(){
+    return budget;
+  }
+
+  /**
+   * Fetches how many limiting events have finished since the budget was created
+   * @return Returns the number of events
+   */
+  public int getEventCount(){
+    return eventCount;
+  }
+
+  /**
+   * Writes the latest SwerveConfig.POWER_EVENT_CAPACITY limiting events to a CSV file, one per line
+   * @param file File to write
+   */
+  public void dumpEvents(File file){
+    try(PrintWriter out = new PrintWriter(file)){
+      out.println(EVENT_HEADER);
+      int count = eventCount;
+      int capacity = SwerveConfig.POWER_EVENT_CAPACITY;
+      for(int i = Math.max(0, count - capacity); i < count; i++){
+        int index = i % capacity;
+        StringBuilder line = new StringBuilder();
+        for(int column = 0; column < events.length; column++){
+          if(column > 0){
+            line.append(',');
+          }
+          line.append(events[column][index]);
+        }
+        out.println(line);
+      }
+    }catch(IOException ex){
+      ex.printStackTrace();
+    }
+  }
+
+  private double predict(double[] commanded, double[] measured, double scale){
+    double current = trim;
+    for(int i = 0; i < commanded.length; i++){
+      double output = Math.max(-1, Math.min(1, commanded[i] * scale));
+      current += SwerveConfig.THROTTLE_STALL_CURRENT * Math.max(0, output * (output - measured[i]));
+    }
+    return current;
+  }
+
+  private void record(boolean limited, double timestamp, double scale, double predicted, double measured,
+      double voltage, double available){
+    if(limited){
+      if(!limiting){
+        limiting = true;
+        eventStart = timestamp;
+        eventMinScale = scale;
+        eventPeakPredicted = predicted;
+        eventPeakMeasured = measured;
+        eventMinVoltage = voltage;
+        eventBudget = available;
+      }
+      eventMinScale = Math.min(eventMinScale, scale);
+      eventPeakPredicted = Math.max(eventPeakPredicted, predicted);
+      eventPeakMeasured = Math.max(eventPeakMeasured, measured);
+      eventMinVoltage = Math.min(eventMinVoltage, voltage);
+      eventBudget = Math.min(eventBudget, available);
+    }else if(limiting){
+      limiting = false;
+      int index = eventCount % SwerveConfig.POWER_EVENT_CAPACITY;
+      events[0][index] = eventStart;
+      events[1][index] = timestamp - eventStart;
+      events[2][index] = eventMinScale;
+      events[3][index] = eventPeakPredicted;
+      events[4][index] = eventPeakMeasured;
+      events[5][index] = eventMinVoltage;
+      events[6][index] = eventBudget;
+      eventCount = eventCount + 1;
+      eventSink.accept(String.format("Swerve throttles limited to %.0f%% for %.2f s, predicted %.0f A "
+          + "against %.0f A at %.1f V", 100 * eventMinScale, timestamp - eventStart, eventPeakPredicted,
+          eventBudget, eventMinVoltage));
+    }
+  }
+}
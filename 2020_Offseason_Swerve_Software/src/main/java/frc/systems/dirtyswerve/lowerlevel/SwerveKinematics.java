@@ -0,0 +1,156 @@
+package frc.systems.dirtyswerve.lowerlevel;
+
+import frc.util.FastMath;
+
+public class SwerveKinematics{
+
+  private final double relativeLength;
+  private final double relativeWidth;
+  private final double halfDiagonal;
+  private final boolean fastMath;
+
+  private final double[] trajVars = new double[4];
+  private final double[] rateSpeeds = new double[4];
+
+  /**
+   * Inverse kinematics for a four module swerve drive based on Ether's Chief Delphi post
+   * ( "https://www.chiefdelphi.com/media/papers/2426" ). The chassis geometry is only calculated once here
+   * and every calculation writes into arrays owned by the caller so that nothing is allocated each loop.
+   *
+   * All arrays are numbered 0-3 from front to back, with even numbers on the left side when
+   * facing forward.
+   * @param chassisLength Length of the chassis measured between wheel contact points (any unit)
+   * @param chassisWidth Width of the chassis measured between wheel contact points (same unit as length)
+   */
+  public SwerveKinematics(double chassisLength, double chassisWidth){
+    this(chassisLength, chassisWidth, false);
+  }
+
+  /**
+   * Inverse kinematics for a four module swerve drive, see SwerveKinematics(double, double).
+   * @param chassisLength Length of the chassis measured between wheel contact points (any unit)
+   * @param chassisWidth Width of the chassis measured between wheel contact points (same unit as length)
+   * @param fastMath True to calculate speeds and azimuths with FastMath instead of java.lang.Math
+   */
+  public SwerveKinematics(double chassisLength, double chassisWidth, boolean fastMath){
+    double radius = Math.hypot(chassisLength, chassisWidth);
+    relativeLength = chassisLength/radius;
+    relativeWidth = chassisWidth/radius;
+    halfDiagonal = radius/2;
+    this.fastMath = fastMath;
+  }
+
+  /**
+   * Calculates normalized wheel speeds and wheel azimuths for all four modules.
+   * @param forward Net Y-axis movement, from -1.0 (reverse) to 1.0 (forward)
+   * @param strafe Net X-axis movement, from -1.0 (reverse) to 1.0 (forward)
+   * @param azimuth Absolute robot rotation from -1.0 CCW to 1.0 CW
+   * @param speeds Array of 4 that the wheel speeds are written into
+   * @param azms Array of 4 that the wheel azimuths in degrees are written into
+   */
+  public void calculate(double forward, double strafe, double azimuth, double[] speeds, double[] azms){
+    calcTrajVars(forward, strafe, azimuth, trajVars);
+    calcWheelSpds(trajVars, speeds);
+    calcWheelAzms(trajVars, azms);
+  }
+
+  /**
+   * Calculates the variables used to generate speeds and azimuths as an array of 4. Based off of
+   * the letter (a,b,c,d) variables described in Ether's Chief Delphi Post.
+   * @param forward Net Y-axis movement, from -1.0 (reverse) to 1.0 (forward)
+   * @param strafe Net X-axis movement, from -1.0 (reverse) to 1.0 (forward)
+   * @param azimuth Absolute robot rotation from -1.0 CCW to 1.0 CW
+   * @param vars Array of 4 that the variables are written into
+   */
+  public void calcTrajVars(double forward, double strafe, double azimuth, double[] vars){
+    vars[0] = strafe - azimuth * relativeLength;
+    vars[1] = strafe + azimuth * relativeLength;
+    vars[2] = forward - azimuth * relativeWidth;
+    vars[3] = forward + azimuth * relativeWidth;
+  }
+
+  /**
+   * Calculates normalized wheel speeds based on precalculated variables
+   * @param trajVars Precalculated variable dependecies
+   * @param speeds Array of 4 that the wheel speeds are written into
+   */
+  public void calcWheelSpds(double[] trajVars, double[] speeds){
+    if(fastMath){
+      speeds[0] = FastMath.hypot(trajVars[1], trajVars[3]);
+      speeds[1] = FastMath.hypot(trajVars[1], trajVars[2]);
+      speeds[2] = FastMath.hypot(trajVars[0], trajVars[3]);
+      speeds[3] = FastMath.hypot(trajVars[0], trajVars[2]);
+    }else{
+      speeds[0] = Math.hypot(trajVars[1], trajVars[3]);
+      speeds[1] = Math.hypot(trajVars[1], trajVars[2]);
+      speeds[2] = Math.hypot(trajVars[0], trajVars[3]);
+      speeds[3] = Math.hypot(trajVars[0], trajVars[2]);
+    }
+
+    normalizeSpds(speeds);
+  }
+
+  /**
+   * Calculates wheel azimuths in degrees based on precalculated variables
+   * @param trajVars Precalculated variable dependecies
+   * @param azms Array of 4 that the wheel azimuths are written into
+   */
+  public void calcWheelAzms(double[] trajVars, double[] azms){
+    if(fastMath){
+      azms[0] = FastMath.atan2(trajVars[1], trajVars[3]) * 180 / Math.PI;
+      azms[1] = FastMath.atan2(trajVars[1], trajVars[2]) * 180 / Math.PI;
+      azms[2] = FastMath.atan2(trajVars[0], trajVars[3]) * 180 / Math.PI;
+      azms[3] = FastMath.atan2(trajVars[0], trajVars[2]) * 180 / Math.PI;
+    }else{
+      azms[0] = Math.atan2(trajVars[1], trajVars[3]) * 180 / Math.PI;
+      azms[1] = Math.atan2(trajVars[1], trajVars[2]) * 180 / Math.PI;
+      azms[2] = Math.atan2(trajVars[0], trajVars[3]) * 180 / Math.PI;
+      azms[3] = Math.atan2(trajVars[0], trajVars[2]) * 180 / Math.PI;
+    }
+  }
+
+  /**
+   * Calculates how fast the chassis turns for a command once the wheel speeds have been normalized.
+   * @param forward Net Y-axis movement, from -1.0 (reverse) to 1.0 (forward)
+   * @param strafe Net X-axis movement, from -1.0 (reverse) to 1.0 (forward)
+   * @param azimuth Absolute robot rotation from -1.0 CCW to 1.0 CW
+   * @param maxWheelSpeed Speed of a wheel at full output, in the chassis length unit per second
+   * @return Returns the rotation rate in radians/second, positive clockwise
+   */
+  public double calcRotationRate(double forward, double strafe, double azimuth, double maxWheelSpeed){
+    calcTrajVars(forward, strafe, azimuth, trajVars);
+    rateSpeeds[0] = hypot(trajVars[1], trajVars[3]);
+    rateSpeeds[1] = hypot(trajVars[1], trajVars[2]);
+    rateSpeeds[2] = hypot(trajVars[0], trajVars[3]);
+    rateSpeeds[3] = hypot(trajVars[0], trajVars[2]);
+    double scale = Math.max(1.0, getMaxSpeed(rateSpeeds));
+    return azimuth / scale * maxWheelSpeed / halfDiagonal;
+  }
+
+  private double hypot(double x, double y){
+    return fastMath ? FastMath.hypot(x, y) : Math.hypot(x, y);
+  }
+
+  /**
+   * Scales down all speed factors in place to a range of 0-1.
+   * @param speeds Wheel speeds to be scaled
+   */
+  public static void normalizeSpds(double[] speeds){
+    final double maxWheelSpeed = getMaxSpeed(speeds);
+
+    if (maxWheelSpeed > 1.0) {
+      for (int i = 0; i < 4; i++) {
+        speeds[i] /= maxWheelSpeed;
+      }
+    }
+  }
+
+  /**
+   * Finds the fastest of the four wheel speeds
+   * @param speeds Wheel speeds
+   * @return Largest wheel speed
+   */
+  public static double getMaxSpeed(double[] speeds){
+    return Math.max(Math.max(speeds[0], speeds[1]), Math.max(speeds[2], speeds[3]));
+  }
+}
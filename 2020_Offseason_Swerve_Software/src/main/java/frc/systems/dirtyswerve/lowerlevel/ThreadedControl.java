@@ -0,0 +1,238 @@
+package frc.systems.dirtyswerve.lowerlevel;
+
+import java.util.concurrent.locks.LockSupport;
+
+import edu.wpi.first.wpilibj.Notifier;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+import frc.systems.dirtyswerve.lowerlevel.module.SwerveModule;
+import frc.util.LoopTimer;
+import frc.util.SnapshotBuffer;
+
+/**
+ * Runs a swerve drive on two threads of its own. The control thread reads the latest command from the main thread,
+ * updates odometry and runs the kinematics. The CAN thread waits for the setpoints the control thread publishes and
+ * writes them to the modules, so slow CAN calls never hold up the control loop or the main thread. The threads hand
+ * data to each other through SnapshotBuffers, so nothing locks or allocates once they are running.
+ *
+ * The time from a command being published to the modules being written is recorded in the latency timer. While the
+ * module servos are running they write the modules instead and record the latency themselves, see
+ * ModuleServo.getLatencyTimer(), and the CAN thread stays idle.
+ */
+public class ThreadedControl{
+
+  /**
+   * Stages between a command being published and the modules being written, timed by the latency timer
+   */
+  public enum LatencyStage{
+    INPUT_WAIT,
+    CONTROL,
+    HANDOFF,
+    CAN_WRITE
+  }
+
+  private static final int FORWARD = 0, STRAFE = 1, AZIMUTH = 2;
+  private static final int INPUT_TIME = 0, CONTROL_START = 1, CONTROL_END = 2;
+  private static final int VALUES_PER_MODULE = 3;
+  private static final long CAN_IDLE_NANOS = 50_000_000;
+
+  private final DirtySwerveLowerLevel drive;
+  private final SwerveModule[] modules;
+  private final long commandTimeoutNanos;
+
+  //Written by the main thread, read by the control thread
+  private final SnapshotBuffer commands = new SnapshotBuffer(3, 1);
+  //Written by the control thread, read by the CAN thread
+  private final SnapshotBuffer setpoints = new SnapshotBuffer(4 * VALUES_PER_MODULE, 3);
+
+  //Owned by the control thread
+  private final double[] command = new double[3];
+  private final long[] commandStamps = new long[1];
+  private long lastCommandSequence;
+  private long inputNanos, controlStartNanos;
+  private boolean stopped;
+
+  //Owned by the CAN thread
+  private final double[] setpointValues = new double[4 * VALUES_PER_MODULE];
+  private final long[] setpointStamps = new long[3];
+  private long lastSetpointSequence;
+  private final LoopTimer<LatencyStage> latencyTimer = new LoopTimer<>(LatencyStage.class,
+      SwerveConfig.LOOP_TIMER_SAMPLES);
+
+  private Notifier controlNotifier;
+  private Thread canThread;
+  private volatile boolean running;
+
+  /**
+   * Creates the threads for a drivetrain without starting them
+   * @param drive Drivetrain to run
+   * @param modules Modules of the drivetrain, numbered like the kinematics
+   */
+  public ThreadedControl(DirtySwerveLowerLevel drive, SwerveModule[] modules){
+    this.drive = drive;
+    this.modules = modules;
+    this.commandTimeoutNanos = (long)(SwerveConfig.COMMAND_TIMEOUT * 1e9);
+  }
+
+  /**
+   * Starts the control and CAN threads
+   * @param period Time between control loops in seconds
+   */
+  public void start(double period){
+    if(running){
+      return;
+    }
+    running = true;
+
+    canThread = new Thread(this::canLoop, "SwerveCAN");
+    canThread.setDaemon(true);
+    canThread.setPriority(Thread.MAX_PRIORITY);
+    canThread.start();
+
+    if(controlNotifier == null){
+      controlNotifier = new Notifier(this::controlCycle);
+    }
+    controlNotifier.startPeriodic(period);
+  }
+
+  /**
+   * Stops both threads, waiting for the CAN thread to finish its last write
+   */
+  public void stop(){
+    if(!running){
+      return;
+    }
+    running = false;
+    controlNotifier.stop();
+    LockSupport.unpark(canThread);
+    try{
+      canThread.join(1000);
+    }catch(InterruptedException ex){
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Determines if the threads are running
+   * @return Returns true between start() and stop()
+   */
+  public boolean isRunning(){
+    return running;
+  }
+
+  /**
+   * Hands a drive command to the control thread, which uses it from its next loop. Only call from one thread.
+   * @param forward Y-axis movement, from -1.0 (reverse) to 1.0 (forward)
+   * @param strafe X-axis movement, from -1.0 (left) to 1.0 (right)
+   * @param azimuth robot rotation, from -1.0 (CCW) to 1.0 (CW)
+   */
+  public void publishCommand(double forward, double strafe, double azimuth){
+    commands.beginWrite();
+    commands.putValue(FORWARD, forward);
+    commands.putValue(STRAFE, strafe);
+    commands.putValue(AZIMUTH, azimuth);
+    commands.putStamp(INPUT_TIME, System.nanoTime());
+    commands.endWrite();
+  }
+
+  /**
+   * Fetches the timer that records the latency from a command being published to the modules being written. Only
+   * commands that are new when the control thread reads them are recorded, so it stops changing once commands
+   * stop arriving.
+   * @return Returns the latency timer, with the whole loop being the end to end latency
+   */
+  public LoopTimer<LatencyStage> getLatencyTimer(){
+    return latencyTimer;
+  }
+
+  /**
+   * Fetches when the input used by the current control loop was published. Only call from the control thread.
+   * @return Returns System.nanoTime() of the input, or 0 if this loop's input is not new
+   */
+  long getInputNanos(){
+    return inputNanos;
+  }
+
+  /**
+   * Fetches when the current control loop started. Only call from the control thread.
+   * @return Returns System.nanoTime() at the start of the loop
+   */
+  long getControlStartNanos(){
+    return controlStartNanos;
+  }
+
+  /**
+   * Runs one loop of the control thread. Odometry is updated every loop, even before the first command. Commands
+   * older than SwerveConfig.COMMAND_TIMEOUT stop the throttles once, after which only odometry is updated until a new
+   * command arrives.
+   */
+  private void controlCycle(){
+    controlStartNanos = System.nanoTime();
+    long sequence = commands.read(command, commandStamps);
+
+    //Odometry integrates from the start, so the robot being pushed or placed before the first command is not lost
+    drive.getOdometry().update();
+    if(sequence == 0){
+      return;
+    }
+
+    inputNanos = sequence != lastCommandSequence ? commandStamps[INPUT_TIME] : 0;
+    lastCommandSequence = sequence;
+
+    if(controlStartNanos - commandStamps[INPUT_TIME] > commandTimeoutNanos){
+      if(!stopped){
+        stopped = true;
+        drive.stopModules();
+      }
+      return;
+    }
+    stopped = false;
+    drive.runControlLoop(command[FORWARD], command[STRAFE], command[AZIMUTH]);
+  }
+
+  /**
+   * Publishes the setpoints every module has calculated with prepare() to the CAN thread. Called by the drivetrain
+   * on the control thread in place of writing the modules.
+   */
+  void publishSetpoints(){
+    setpoints.beginWrite();
+    for(int i = 0; i < modules.length; i++){
+      int index = i * VALUES_PER_MODULE;
+      setpoints.putValue(index, modules[i].getAzimuthSetpoint());
+      setpoints.putValue(index + 1, modules[i].getAzimuthFeedforward());
+      setpoints.putValue(index + 2, modules[i].getSignedThrottleSetpoint());
+    }
+    setpoints.putStamp(INPUT_TIME, inputNanos);
+    setpoints.putStamp(CONTROL_START, controlStartNanos);
+    setpoints.putStamp(CONTROL_END, System.nanoTime());
+    setpoints.endWrite();
+
+    LockSupport.unpark(canThread);
+  }
+
+  private void canLoop(){
+    while(running){
+      long sequence = setpoints.read(setpointValues, setpointStamps);
+      if(sequence == lastSetpointSequence){
+        LockSupport.parkNanos(CAN_IDLE_NANOS);
+        continue;
+      }
+      lastSetpointSequence = sequence;
+      long pickupNanos = System.nanoTime();
+
+      for(int i = 0; i < modules.length; i++){
+        int index = i * VALUES_PER_MODULE;
+        modules[i].write(setpointValues[index], setpointValues[index + 1], setpointValues[index + 2]);
+      }
+
+      if(setpointStamps[INPUT_TIME] != 0){
+        latencyTimer.start(setpointStamps[INPUT_TIME]);
+        latencyTimer.mark(LatencyStage.INPUT_WAIT, setpointStamps[CONTROL_START]);
+        latencyTimer.mark(LatencyStage.CONTROL, setpointStamps[CONTROL_END]);
+        latencyTimer.mark(LatencyStage.HANDOFF, pickupNanos);
+        latencyTimer.mark(LatencyStage.CAN_WRITE);
+        latencyTimer.end();
+      }
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package frc.systems.dirtyswerve.lowerlevel;
+
+import java.util.Arrays;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+
+/**
+ * Detects wheels spinning out and cuts their throttle until they grip again.
+ *
+ * The gyro gives the rotation of the robot, so taking the rotation out of each wheel's measured velocity leaves the
+ * translation each wheel says the robot has. The median of the four ignores a single slipping wheel, and the
+ * estimate may not change faster than the carpet can accelerate the robot, which catches all four spinning at once
+ * on a launch. Each wheel's speed is compared with the speed its ground contact is predicted to have from this
+ * estimate, and a wheel spinning faster than that by more than the slip allowance is slipping.
+ *
+ * Once a wheel slips its setpoint is capped at the ground speed plus the slip allowance, plus the lead the throttle
+ * loop needs to accelerate the wheel as fast as the ground can, and never below TRACTION_MIN_SCALE of the command. The
+ * cap rises with the ground speed as the robot speeds up, so the wheel keeps pushing as hard as the carpet allows, and
+ * is lifted once the command falls under it. Only the wheel that slips is capped, so the others keep pushing. Only call
+ * calculate() from one thread.
+ */
+public class TractionControl{
+
+  //Module positions from the center of the robot, numbered like the kinematics (X forward, Y right)
+  private static final double[] MODULE_X = {SwerveConfig.CHASSIS_LENGTH / 2, SwerveConfig.CHASSIS_LENGTH / 2,
+      -SwerveConfig.CHASSIS_LENGTH / 2, -SwerveConfig.CHASSIS_LENGTH / 2};
+  private static final double[] MODULE_Y = {-SwerveConfig.CHASSIS_WIDTH / 2, SwerveConfig.CHASSIS_WIDTH / 2,
+      -SwerveConfig.CHASSIS_WIDTH / 2, SwerveConfig.CHASSIS_WIDTH / 2};
+
+  private final double[] impliedForward = new double[4];
+  private final double[] impliedStrafe = new double[4];
+  private final double[] sorted = new double[4];
+  private final double[] slip = new double[4];
+  private final boolean[] slipping = new boolean[4];
+  private final boolean[] capped = new boolean[4];
+  private final double[] scales = {1, 1, 1, 1};
+  private volatile int slipMask;
+
+  private double groundForward, groundStrafe;
+  private double lastHeading = Double.NaN;
+
+  /**
+   * Calculates the factor every module's throttle setpoint should be multiplied by this loop
+   * @param commanded Signed throttle setpoint of each module in inches/second, in the direction the wheel will spin
+   * @param measured Signed measured speed of each wheel in inches/second, in the same direction
+   * @param azimuths Measured azimuth of each module in degrees
+   * @param heading Current heading in degrees, positive counter-clockwise
+   * @param dt Time since the last call in seconds
+   */
+  public void calculate(double[] commanded, double[] measured, double[] azimuths, double heading, double dt){
+    double yawRate = Double.isNaN(lastHeading) || dt <= 0 ? 0
+        : Math.IEEEremainder(heading - lastHeading, 360.0) / dt;
+    lastHeading = heading;
+    double rotation = -Math.toRadians(yawRate); //Radians/second, positive clockwise like the kinematics
+
+    for(int i = 0; i < 4; i++){
+      double angle = Math.toRadians(azimuths[i]);
+      impliedForward[i] = measured[i] * Math.cos(angle) + rotation * MODULE_Y[i];
+      impliedStrafe[i] = measured[i] * Math.sin(angle) - rotation * MODULE_X[i];
+    }
+
+    //The ground velocity is fixed on the field, so it turns the other way in the robot frame as the robot rotates
+    double turn = rotation * dt;
+    double turnedForward = groundForward * Math.cos(turn) + groundStrafe * Math.sin(turn);
+    groundStrafe = -groundForward * Math.sin(turn) + groundStrafe * Math.cos(turn);
+    groundForward = turnedForward;
+
+    //It follows the median wheel, but only as fast as traction can accelerate the robot
+    double forward = median(impliedForward);
+    double strafe = median(impliedStrafe);
+    double change = Math.hypot(forward - groundForward, strafe - groundStrafe);
+    double limit = SwerveConfig.TRACTION_MAX_ACCEL * dt;
+    if(change > limit){
+      forward = groundForward + (forward - groundForward) * limit / change;
+      strafe = groundStrafe + (strafe - groundStrafe) * limit / change;
+    }
+    groundForward = forward;
+    groundStrafe = strafe;
+
+    int mask = 0;
+    for(int i = 0; i < 4; i++){
+      double angle = Math.toRadians(azimuths[i]);
+      double ground = (groundForward - rotation * MODULE_Y[i]) * Math.cos(angle)
+          + (groundStrafe + rotation * MODULE_X[i]) * Math.sin(angle);
+      double allowance = SwerveConfig.TRACTION_SLIP_SPEED + SwerveConfig.TRACTION_SLIP_RATIO * Math.abs(ground);
+      slip[i] = measured[i] - ground;
+      slipping[i] = measured[i] * slip[i] > 0 && Math.abs(slip[i]) > allowance;
+
+      double lead = SwerveConfig.TRACTION_MAX_ACCEL * SwerveConfig.TRACTION_RESPONSE_TIME;
+      double cap = (Math.abs(ground) + allowance + lead) / Math.abs(commanded[i]);
+      capped[i] = (capped[i] || slipping[i]) && cap < 1;
+      scales[i] = capped[i] ? Math.max(SwerveConfig.TRACTION_MIN_SCALE, cap) : 1;
+      if(slipping[i]){
+        mask |= 1 << i;
+      }
+    }
+    slipMask = mask;
+  }
+
+  /**
+   * Fetches the factor a module's throttle setpoint should be multiplied by
+   * @param index Module number 0-3, numbered like the kinematics
+   * @return Returns the scale from SwerveConfig.TRACTION_MIN_SCALE to 1.0, 1.0 if the wheel is not capped
+   */
+  public double getScale(int index){
+    return scales[index];
+  }
+
+  /**
+   * Determines if a wheel was slipping in the last calculation
+   * @param index Module number 0-3, numbered like the kinematics
+   * @return Returns true if the wheel spun faster than its ground contact by more than the slip allowance
+   */
+  public boolean isSlipping(int index){
+    return slipping[index];
+  }
+
+  /**
+   * Fetches which wheels were slipping in the last calculation. Safe to call from any thread.
+   * @return Returns a bit for every slipping module, bit 0 for module 0
+   */
+  public int getSlipMask(){
+    return slipMask;
+  }
+
+  /**
+   * Fetches how much faster a wheel spun than its ground contact in the last calculation
+   * @param index Module number 0-3, numbered like the kinematics
+   * @return Returns the slip in inches/second, in the direction the wheel spins
+   */
+  public double getSlip(int index){
+    return slip[index];
+  }
+
+  /**
+   * Fetches the estimated speed the robot translates over the ground
+   * @return Returns the speed in inches/second
+   */
+  public double getGroundSpeed(){
+    return Math.hypot(groundForward, groundStrafe);
+  }
+
+  /**
+   * Forgets the ground velocity and restores full throttle, such as after the robot was moved by hand
+   */
+  public void reset(){
+    groundForward = 0;
+    groundStrafe = 0;
+    lastHeading = Double.NaN;
+    for(int i = 0; i < 4; i++){
+      scales[i] = 1;
+      slipping[i] = false;
+      capped[i] = false;
+      slip[i] = 0;
+    }
+    slipMask = 0;
+  }
+
+  private double median(double[] values){
+    System.arraycopy(values, 0, sorted, 0, 4);
+    Arrays.sort(sorted);
+    return (sorted[1] + sorted[2]) / 2;
+  }
+}
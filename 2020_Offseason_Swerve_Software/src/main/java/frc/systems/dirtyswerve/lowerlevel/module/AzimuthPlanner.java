@@ -0,0 +1,96 @@
+package frc.systems.dirtyswerve.lowerlevel.module;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig.MathMode;
+import frc.util.FastMath;
+
+/**
+ * Plans how a module reaches a target azimuth in continuous (unwrapped) encoder space. A module can point its wheel
+ * at the target or 180 degrees away from it with the throttle reversed, and each of those can be reached by turning
+ * either way. The planner takes the smallest of those turns, but only flips the throttle direction if the last flip
+ * was at least minReversalCycles plans ago so a target hovering near 90 degrees doesn't make the wheel chatter.
+ *
+ * The throttle is scaled by the cosine of the turn that remains, so a wheel that is still turning only drives in
+ * proportion to how well it points the right way, and not at all while it is more than 90 degrees off.
+ */
+public class AzimuthPlanner{
+
+    private final int minReversalCycles;
+
+    private boolean reversed;
+    private int cyclesSinceReversal;
+    private int reversals;
+
+    private double setpoint;
+    private double throttleScale = 1;
+
+    /**
+     * Creates a planner for one module
+     * @param minReversalCycles Fewest calls to plan() between two throttle reversals
+     */
+    public AzimuthPlanner(int minReversalCycles){
+        this.minReversalCycles = minReversalCycles;
+        this.cyclesSinceReversal = minReversalCycles;
+    }
+
+    /**
+     * Plans the azimuth setpoint for this cycle. Results are read with getSetpoint(), isReversed() and
+     * getThrottleScale().
+     * @param currentAzimuth Current azimuth in degrees, unwrapped so it includes every full rotation
+     * @param targetAzimuth Direction the module should drive in degrees, any angle
+     */
+    public void plan(double currentAzimuth, double targetAzimuth){
+        if(cyclesSinceReversal < minReversalCycles){
+            cyclesSinceReversal++;
+        }
+
+        double forwardTurn = Math.IEEEremainder(targetAzimuth - currentAzimuth, 360);
+        double reverseTurn = Math.IEEEremainder(targetAzimuth + 180 - currentAzimuth, 360);
+
+        boolean shouldReverse = Math.abs(reverseTurn) < Math.abs(forwardTurn);
+        if(shouldReverse != reversed && cyclesSinceReversal >= minReversalCycles){
+            reversed = shouldReverse;
+            cyclesSinceReversal = 0;
+            reversals++;
+        }
+
+        double turn = reversed ? reverseTurn : forwardTurn;
+        setpoint = currentAzimuth + turn;
+
+        double radians = Math.toRadians(turn);
+        double cos = SwerveConfig.SELECTED_MATH_MODE == MathMode.FAST ? FastMath.cos(radians) : Math.cos(radians);
+        throttleScale = Math.max(0, cos);
+    }
+
+    /**
+     * Fetches the planned azimuth setpoint
+     * @return Returns the setpoint in degrees in the same continuous space as the current azimuth
+     */
+    public double getSetpoint(){
+        return setpoint;
+    }
+
+    /**
+     * Determines if the throttle should be reversed because the wheel points away from the target
+     * @return Returns true if the throttle should be reversed
+     */
+    public boolean isReversed(){
+        return reversed;
+    }
+
+    /**
+     * Fetches the factor the throttle should be multiplied by while the wheel is still turning
+     * @return Returns the scale from 0 to 1
+     */
+    public double getThrottleScale(){
+        return throttleScale;
+    }
+
+    /**
+     * Fetches how many times the throttle direction has been flipped
+     * @return Returns the number of reversals
+     */
+    public int getReversals(){
+        return reversals;
+    }
+}
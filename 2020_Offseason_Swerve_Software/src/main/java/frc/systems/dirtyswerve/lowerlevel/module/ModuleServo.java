@@ -0,0 +1,230 @@
+package frc.systems.dirtyswerve.lowerlevel.module;
+
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+import frc.systems.dirtyswerve.lowerlevel.ThreadedControl.LatencyStage;
+import frc.util.LoopTimer;
+import frc.util.SnapshotBuffer;
+
+/**
+ * Writes one module's setpoints on its own Notifier, faster than the loop that calculates them. Every tick moves
+ * linearly from the setpoints written when the latest command arrived towards that command, finishing one command
+ * interval later, so the azimuth and throttle step smoothly instead of jumping once per control loop. Commands are
+ * handed over through a SnapshotBuffer so the servo never locks or allocates.
+ *
+ * If a tick runs more than a period late, or the write takes longer than a period, the servo counts an overrun and
+ * halves its rate by skipping ticks, down to SwerveConfig.SERVO_MAX_DECIMATION. After SERVO_RECOVERY_TICKS ticks
+ * without an overrun it doubles its rate again.
+ *
+ * Commands from the control threads carry the time their input was published, and the servo records the latency
+ * from that input to the first write of the command in its latency timer, with the same stages as
+ * ThreadedControl.getLatencyTimer().
+ */
+public class ModuleServo{
+
+    /**
+     * Parts of a servo tick, timed by the servo timer. JITTER is how late the tick started compared to one period
+     * after the last tick, which can be negative.
+     */
+    public enum ServoStage{
+        JITTER,
+        WRITE
+    }
+
+    private static final int AZIMUTH = 0, FEEDFORWARD = 1, THROTTLE = 2;
+    private static final int COMMAND_TIME = 0, INPUT_TIME = 1, CONTROL_START = 2;
+
+    private final SwerveModule module;
+    private final long periodNanos;
+    private final long maxIntervalNanos;
+
+    //Written by the control loop, read by the servo
+    private final SnapshotBuffer commands = new SnapshotBuffer(3, 3);
+
+    //Owned by the servo
+    private final double[] command = new double[3];
+    private final long[] commandStamps = new long[3];
+    private long lastSequence;
+    private long segmentStart, segmentNanos;
+    private double fromAzimuth, fromThrottle;
+    private double azimuth, throttle;
+    private long lastTick;
+    private int decimation = 1, skipTicks, cleanTicks;
+    private final LoopTimer<ServoStage> servoTimer = new LoopTimer<>(ServoStage.class, SwerveConfig.LOOP_TIMER_SAMPLES);
+    private final LoopTimer<LatencyStage> latencyTimer = new LoopTimer<>(LatencyStage.class,
+        SwerveConfig.LOOP_TIMER_SAMPLES);
+
+    private volatile long overruns;
+    private volatile int publishedDecimation = 1;
+
+    private Notifier notifier;
+    private volatile boolean running;
+
+    /**
+     * Creates a servo for a module without starting it
+     * @param module Module the servo writes
+     * @param period Time between servo ticks in seconds
+     */
+    public ModuleServo(SwerveModule module, double period){
+        this.module = module;
+        this.periodNanos = (long)(period * 1e9);
+        this.maxIntervalNanos = (long)(SwerveConfig.COMMAND_TIMEOUT * 1e9);
+    }
+
+    /**
+     * Starts the servo Notifier
+     */
+    public void start(){
+        if(notifier == null){
+            notifier = new Notifier(this::tick);
+        }
+        running = true;
+        notifier.startPeriodic(periodNanos / 1e9);
+    }
+
+    /**
+     * Stops the servo Notifier. Setpoints are written by the module directly again.
+     */
+    public void stop(){
+        running = false;
+        if(notifier != null){
+            notifier.stop();
+        }
+    }
+
+    /**
+     * Determines if the servo is running
+     * @return Returns true between start() and stop()
+     */
+    public boolean isRunning(){
+        return running;
+    }
+
+    /**
+     * Hands new setpoints to the servo. Only call from one thread.
+     * @param azimuthSetpoint azimuth setpoint in degrees including rotation overrun
+     * @param feedforward azimuth feedforward in percent output
+     * @param throttleSetpoint throttle setpoint with the reversal applied
+     */
+    public void command(double azimuthSetpoint, double feedforward, double throttleSetpoint){
+        command(azimuthSetpoint, feedforward, throttleSetpoint, 0, 0);
+    }
+
+    /**
+     * Hands new setpoints to the servo along with when the input they were calculated from was published, so the
+     * latency to the first write is recorded. Only call from one thread.
+     * @param azimuthSetpoint azimuth setpoint in degrees including rotation overrun
+     * @param feedforward azimuth feedforward in percent output
+     * @param throttleSetpoint throttle setpoint with the reversal applied
+     * @param inputNanos System.nanoTime() when the input was published, or 0 if the input is not new
+     * @param controlStartNanos System.nanoTime() when the control loop started calculating the setpoints
+     */
+    public void command(double azimuthSetpoint, double feedforward, double throttleSetpoint, long inputNanos,
+            long controlStartNanos){
+        commands.beginWrite();
+        commands.putValue(AZIMUTH, azimuthSetpoint);
+        commands.putValue(FEEDFORWARD, feedforward);
+        commands.putValue(THROTTLE, throttleSetpoint);
+        commands.putStamp(COMMAND_TIME, System.nanoTime());
+        commands.putStamp(INPUT_TIME, inputNanos);
+        commands.putStamp(CONTROL_START, controlStartNanos);
+        commands.endWrite();
+    }
+
+    /**
+     * Fetches the timer that records the jitter and write time of every tick
+     * @return Returns the servo timer
+     */
+    public LoopTimer<ServoStage> getServoTimer(){
+        return servoTimer;
+    }
+
+    /**
+     * Fetches the timer that records the latency from an input being published to the servo writing the first
+     * setpoints calculated from it. The control stage ends when the command was handed to the servo, and the
+     * handoff stage when the servo picked it up.
+     * @return Returns the latency timer, with the whole loop being the end to end latency
+     */
+    public LoopTimer<LatencyStage> getLatencyTimer(){
+        return latencyTimer;
+    }
+
+    /**
+     * Fetches how many ticks have overrun since the servo was created
+     * @return Returns the number of overruns
+     */
+    public long getOverruns(){
+        return overruns;
+    }
+
+    /**
+     * Fetches how many periods currently pass between writes, 1 unless the servo has been overrunning
+     * @return Returns the current decimation
+     */
+    public int getDecimation(){
+        return publishedDecimation;
+    }
+
+    private void tick(){
+        long now = System.nanoTime();
+        long expected = lastTick == 0 ? now : lastTick + periodNanos;
+        lastTick = now;
+        if(skipTicks > 0){
+            skipTicks--;
+            return;
+        }
+
+        long sequence = commands.read(command, commandStamps);
+        if(sequence == 0){
+            return;
+        }
+        servoTimer.start(expected);
+        servoTimer.mark(ServoStage.JITTER, now);
+
+        boolean newCommand = sequence != lastSequence;
+        if(newCommand){
+            //Interpolate over the time since the last command, unless it has been so long the old one is stale
+            long interval = commandStamps[COMMAND_TIME] - segmentStart;
+            segmentNanos = lastSequence == 0 || interval > maxIntervalNanos ? 0 : Math.max(interval, periodNanos);
+            segmentStart = commandStamps[COMMAND_TIME];
+            fromAzimuth = lastSequence == 0 ? command[AZIMUTH] : azimuth;
+            fromThrottle = lastSequence == 0 ? command[THROTTLE] : throttle;
+            lastSequence = sequence;
+        }
+
+        double fraction = segmentNanos == 0 ? 1 : Math.min(1, (double)(now - segmentStart) / segmentNanos);
+        azimuth = fromAzimuth + (command[AZIMUTH] - fromAzimuth) * fraction;
+        throttle = fromThrottle + (command[THROTTLE] - fromThrottle) * fraction;
+        module.write(azimuth, command[FEEDFORWARD], throttle);
+
+        servoTimer.mark(ServoStage.WRITE);
+        servoTimer.end();
+        if(newCommand && commandStamps[INPUT_TIME] != 0){
+            latencyTimer.start(commandStamps[INPUT_TIME]);
+            latencyTimer.mark(LatencyStage.INPUT_WAIT, commandStamps[CONTROL_START]);
+            latencyTimer.mark(LatencyStage.CONTROL, commandStamps[COMMAND_TIME]);
+            latencyTimer.mark(LatencyStage.HANDOFF, now);
+            latencyTimer.mark(LatencyStage.CAN_WRITE);
+            latencyTimer.end();
+        }
+        checkOverrun(now - expected, System.nanoTime() - now);
+    }
+
+    private void checkOverrun(long lateNanos, long writeNanos){
+        if(lateNanos > periodNanos || writeNanos > periodNanos){
+            overruns++;
+            cleanTicks = 0;
+            if(decimation < SwerveConfig.SERVO_MAX_DECIMATION){
+                decimation *= 2;
+                DriverStation.reportWarning("Swerve servo overran, writing every " + decimation + " periods", false);
+            }
+        }else if(decimation > 1 && ++cleanTicks >= SwerveConfig.SERVO_RECOVERY_TICKS){
+            decimation /= 2;
+            cleanTicks = 0;
+        }
+        publishedDecimation = decimation;
+        skipTicks = decimation - 1;
+    }
+}
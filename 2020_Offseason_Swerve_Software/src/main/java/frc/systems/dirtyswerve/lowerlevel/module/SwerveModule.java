@@ -2,20 +2,33 @@ package frc.systems.dirtyswerve.lowerlevel.module;
 
 import com.revrobotics.ControlType;
 
+import frc.hardware.AzimuthMotor;
+import frc.hardware.ThrottleMotor;
 import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
-import frc.systems.dirtyswerve.toplevel.config.SwerveConfig.ThrottleType;;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig.ThrottleType;
+import frc.util.StatusFrameManager;
 
 public class SwerveModule extends SwerveModuleLowerLevel{
 
+    private final AzimuthPlanner planner = new AzimuthPlanner(SwerveConfig.MIN_REVERSAL_CYCLES);
+    private ModuleServo servo;
+
+    private double azimuthSetpoint; //Degrees with overrun applied
+    private double azimuthFeedforward;
+    private double throttleSetpoint;
+    private boolean prepared;
+
+    private double azimuthFeedforwardGain = Double.NaN; //NaN follows the kF of SwerveConfig.AZIMUTH_PID
+
     /**
      * Creates a new swerve module with it's two motor controllers. Controls both azimuth (rotation) and steer
      * of a module. 
      * 
-     * Instantiates each motor controller, assigning PID Loops, and configures sensor settings. Also accesses a 
-     * file on the file system to get the absolute encoder offset from. If no such file exists, assumes the current 
-     * position is straight and creates a new file with the allocated offset.
+     * Instantiates each motor controller, assigning PID Loops, and configures sensor settings. Also restores the
+     * azimuth offset from the calibration store. If no offset is stored, assumes the current position is straight
+     * and saves it as the offset.
      * 
-     * @param ModuleName Assign a Name to Each Module - This determines the File Name on the File System
+     * @param ModuleName Assign a Name to Each Module - This determines the key in the calibration store
      * @param throttleID Assosciated CAN ID for the Motor Controller that controls the throttle
      * @param azimuthID Assosciated CAN ID for the Motor Controller that controls the azimuth
      */
@@ -23,6 +36,31 @@ public class SwerveModule extends SwerveModuleLowerLevel{
         super(ModuleName,throttleID,azimuthID);
     }
 
+    /**
+     * Creates a new swerve module like SwerveModule(String, int, int), with status frame periods assigned by a frame
+     * manager shared with the rest of the drivetrain
+     * 
+     * @param ModuleName Assign a Name to Each Module - This determines the key in the calibration store
+     * @param throttleID Assosciated CAN ID for the Motor Controller that controls the throttle
+     * @param azimuthID Assosciated CAN ID for the Motor Controller that controls the azimuth
+     * @param frames Records the status frames of both motor controllers for the bus load estimate
+     */
+    public SwerveModule(String ModuleName,int throttleID, int azimuthID, StatusFrameManager frames){
+        super(ModuleName,throttleID,azimuthID,frames);
+    }
+
+    /**
+     * Creates a swerve module around motor controllers that already exist, such as simulated ones. The azimuth
+     * offset is left at 0 and the calibration store is not touched.
+     * 
+     * @param ModuleName Assign a Name to Each Module - This determines the key in the calibration store
+     * @param throttleMotor Motor controller that controls the throttle
+     * @param azimuthMotor Motor controller that controls the azimuth
+     */
+    public SwerveModule(String ModuleName, ThrottleMotor throttleMotor, AzimuthMotor azimuthMotor){
+        super(ModuleName, throttleMotor, azimuthMotor);
+    }
+
     /**
      * Sets the velocity of the throttle motor in inches/second
      * @param velocity Desired velocity in inches/second
@@ -31,7 +69,12 @@ public class SwerveModule extends SwerveModuleLowerLevel{
         if(invertThrottle){
             velocity*=-1;
         }
-       throttleMotor.setPIDReference(velocity/SwerveConfig.THOTTLE_TICKS_PER_INCH,ControlType.kVelocity);
+        sendThrottleVelocity(velocity);
+    }
+
+    private void sendThrottleVelocity(double velocity){
+        //The SparkMax velocity loop runs in motor rotations per minute
+        throttleMotor.setPIDReference(velocity*SwerveConfig.THOTTLE_TICKS_PER_INCH*60,ControlType.kVelocity);
     }
 
     /**
@@ -46,32 +89,199 @@ public class SwerveModule extends SwerveModuleLowerLevel{
     }
 
     /**
-     * Processes a target azimuth to determine the shortest possible path to that angle. Accounts for the fact
-     * that a 180 degree offset is the same as long as throttle velocity is inverted. If the target Azimuth is out
-     * of the -180-180 range it is scaled to fit so don't worry about gyro and other offsets.
+     * Turns the module towards a target azimuth by the shortest path, see AzimuthPlanner. The throttle direction is
+     * reversed when pointing the wheel the opposite way is the shorter turn. Any angle can be given so don't worry
+     * about gyro and other offsets.
      * 
      * @param targetAzimuth Any angle at which the azimuth of the motor should be set to in degrees
      */
     public void setAzimuth(double targetAzimuth){
-        targetAzimuth = Math.IEEEremainder(targetAzimuth,360);
-        
-        double finalAzimuth = determinePreferredAzimuth(targetAzimuth);
+        setRawAzimuth(calcAzimuthSetpoint(targetAzimuth));
+    }
 
-        setRawAzimuth(finalAzimuth+getDegreeOverrun());
+    /**
+     * Plans the azimuth setpoint for a target azimuth using the shortest path, see setAzimuth().
+     * 
+     * @param targetAzimuth Any angle at which the azimuth of the motor should be set to in degrees
+     * @return Returns the azimuth setpoint in degrees including rotation overrun
+     */
+    private double calcAzimuthSetpoint(double targetAzimuth){
+        planner.plan(getRelativeAzimuth(), targetAzimuth);
+        invertThrottle = planner.isReversed();
+        return planner.getSetpoint();
     }
 
     /**
-     * Sets all aspects of the module including the azimuth and throttle with respect to the selected mode.
+     * Fetches the planner that chooses this module's azimuth path
+     * @return Returns the azimuth planner
+     */
+    public AzimuthPlanner getAzimuthPlanner(){
+        return planner;
+    }
+
+    /**
+     * Calculates the setpoints for the module without sending them to the motor controllers. Call write() to send
+     * them. Splitting the two lets every module be calculated before any CAN traffic is sent. The throttle is scaled
+     * down while the wheel is still turning towards the azimuth, see AzimuthPlanner.
      * @param azimuth desired angle for the module in degrees
      * @param throttle any value of the throttle (-1.0 to 1.0 for open-loop output mode / any value for closed-loop velocity mode)
      */
-    public void set(double azimuth,double throttle){
-        setAzimuth(azimuth);
+    public void prepare(double azimuth,double throttle){
+        prepare(azimuth, throttle, 0);
+    }
+
+    /**
+     * Calculates the setpoints for the module like prepare(double, double), with a feedforward for an azimuth that
+     * is turning at a known rate.
+     * @param azimuth desired angle for the module in degrees
+     * @param throttle any value of the throttle (-1.0 to 1.0 for open-loop output mode / any value for closed-loop velocity mode)
+     * @param azimuthRate rate the desired angle is changing at in degrees/second
+     */
+    public void prepare(double azimuth,double throttle,double azimuthRate){
+        azimuthSetpoint = calcAzimuthSetpoint(azimuth);
+        azimuthFeedforward = azimuthRate * (Double.isNaN(azimuthFeedforwardGain) ? SwerveConfig.AZIMUTH_PID.getF()
+            : azimuthFeedforwardGain);
+        throttleSetpoint = throttle * planner.getThrottleScale();
+        prepared = true;
+    }
+
+    /**
+     * Scales the throttle setpoint calculated by prepare() before it is written, such as to limit current
+     * @param scale Factor the throttle setpoint is multiplied by
+     */
+    public void scaleThrottle(double scale){
+        throttleSetpoint *= scale;
+    }
+
+    /**
+     * Calculates setpoints that stop the throttle and keep the azimuth where it was last set, or where it is now if
+     * it has never been set. Call write() to send them.
+     */
+    public void hold(){
+        if(!prepared){
+            azimuthSetpoint = getRelativeAzimuth();
+            prepared = true;
+        }
+        azimuthFeedforward = 0;
+        throttleSetpoint = 0;
+    }
+
+    /**
+     * Sends the setpoints calculated by prepare() to the azimuth and throttle motor controllers with respect to the
+     * selected mode. While the servo is running they are handed to it instead, see startServo().
+     */
+    public void write(){
+        write(0, 0);
+    }
+
+    /**
+     * Sends the setpoints calculated by prepare() like write(), passing the time of the input they were calculated
+     * from to the servo so it can record the latency, see ModuleServo.getLatencyTimer()
+     * @param inputNanos System.nanoTime() when the input was published, or 0 if the input is not new
+     * @param controlStartNanos System.nanoTime() when the control loop started calculating the setpoints
+     */
+    public void write(long inputNanos, long controlStartNanos){
+        if(servo != null && servo.isRunning()){
+            servo.command(azimuthSetpoint, azimuthFeedforward, getSignedThrottleSetpoint(), inputNanos,
+                controlStartNanos);
+        }else{
+            write(azimuthSetpoint, azimuthFeedforward, getSignedThrottleSetpoint());
+        }
+    }
+
+    /**
+     * Sends setpoints that were calculated by prepare() earlier, possibly on another thread. Only touches the motor
+     * controllers, so it can run on a different thread than prepare().
+     * @param azimuth azimuth setpoint in degrees including rotation overrun, see getAzimuthSetpoint()
+     * @param feedforward azimuth feedforward in percent output, see getAzimuthFeedforward()
+     * @param throttle throttle setpoint with the reversal applied, see getSignedThrottleSetpoint()
+     */
+    public void write(double azimuth,double feedforward,double throttle){
+        setRawAzimuth(azimuth, feedforward);
 
         if(SwerveConfig.SELECTED_THROTTLE_TYPE == ThrottleType.VelocityMode){
-            setThrottleVelocity(throttle);
+            sendThrottleVelocity(throttle);
         }else{
-            setThrottleOutput(throttle);
+            throttleMotor.set(throttle);
         }
     }
+
+    /**
+     * Starts writing this module from its own servo loop, which interpolates between the setpoints given to write()
+     * @param period Time between servo ticks in seconds, only used the first time the servo is started
+     */
+    public void startServo(double period){
+        if(servo == null){
+            servo = new ModuleServo(this, period);
+        }
+        servo.start();
+    }
+
+    /**
+     * Stops the servo loop, after which write() sends setpoints directly again
+     */
+    public void stopServo(){
+        if(servo != null){
+            servo.stop();
+        }
+    }
+
+    /**
+     * Fetches the servo loop of this module
+     * @return Returns the servo, or null if it was never started
+     */
+    public ModuleServo getServo(){
+        return servo;
+    }
+
+    /**
+     * Fetches the last azimuth setpoint calculated by prepare()
+     * @return Returns the azimuth setpoint in degrees including rotation overrun
+     */
+    public double getAzimuthSetpoint(){
+        return azimuthSetpoint;
+    }
+
+    /**
+     * Fetches the last azimuth feedforward calculated by prepare()
+     * @return Returns the feedforward in percent output
+     */
+    public double getAzimuthFeedforward(){
+        return azimuthFeedforward;
+    }
+
+    /**
+     * Overrides the azimuth feedforward gain, which otherwise follows the kF of SwerveConfig.AZIMUTH_PID as it is
+     * retuned
+     * @param gain Feedforward in percent output per degree/second of azimuth rotation, or NaN to follow kF again
+     */
+    public void setAzimuthFeedforwardGain(double gain){
+        azimuthFeedforwardGain = gain;
+    }
+
+    /**
+     * Fetches the last throttle setpoint calculated by prepare()
+     * @return Returns the throttle setpoint after turn scaling, before inversion
+     */
+    public double getThrottleSetpoint(){
+        return throttleSetpoint;
+    }
+
+    /**
+     * Fetches the last throttle setpoint calculated by prepare() in the direction the wheel will spin
+     * @return Returns the throttle setpoint after turn scaling and reversal
+     */
+    public double getSignedThrottleSetpoint(){
+        return invertThrottle ? -throttleSetpoint : throttleSetpoint;
+    }
+
+    /**
+     * Sets all aspects of the module including the azimuth and throttle with respect to the selected mode.
+     * @param azimuth desired angle for the module in degrees
+     * @param throttle any value of the throttle (-1.0 to 1.0 for open-loop output mode / any value for closed-loop velocity mode)
+     */
+    public void set(double azimuth,double throttle){
+        prepare(azimuth, throttle);
+        write();
+    }
 }
\ No newline at end of file
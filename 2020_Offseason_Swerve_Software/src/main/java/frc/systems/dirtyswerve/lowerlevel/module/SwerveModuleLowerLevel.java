@@ -2,81 +2,256 @@ package frc.systems.dirtyswerve.lowerlevel.module;
 
 import com.ctre.phoenix.motorcontrol.FeedbackDevice;
 import com.ctre.phoenix.motorcontrol.NeutralMode;
-import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
 import com.revrobotics.CANSparkMaxLowLevel.MotorType;
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
+import frc.hardware.AzimuthMotor;
+import frc.hardware.ThrottleMotor;
 import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
-import frc.util.FileUtil;
-import java.io.File;
 import frc.util.BbSparkMax;
-import com.ctre.phoenix.motorcontrol.ControlMode;
+import frc.util.BbTalonSRX;
+import frc.util.CalibrationStore;
+import frc.util.CalibrationStore.LoadStatus;
+import frc.util.StatusFrameManager;
+import edu.wpi.first.wpilibj.DriverStation;
 
 public class SwerveModuleLowerLevel{
 
-    public BbSparkMax throttleMotor;
+    public ThrottleMotor throttleMotor;
 
-    public WPI_TalonSRX azimuthMotor;
+    public AzimuthMotor azimuthMotor;
 
     public double azimuthOffset; //Offset in Degrees
-    public File offsetFile;
+    private final String moduleName;
+    private final String offsetKey;
 
     public boolean invertThrottle;
 
+    private double rawAzimuth; //Sensor snapshot in Degrees
+    private int busReads;
+    private int snapshotReads;
+
     /**
      * Creates a new swerve module with it's two motor controllers. Controls both azimuth (rotation) and steer
      * of a module. 
      * 
-     * Instantiates each motor controller, assigning PID Loops, and configures sensor settings.
+     * Instantiates each motor controller, assigning PID Loops, and configures sensor settings. Also restores the
+     * azimuth offset from the calibration store.
      * 
-     * @param ModuleName Assign a Name to Each Module - This determines the File Name on the File System
+     * @param ModuleName Assign a Name to Each Module - This determines the key in the calibration store
      * @param throttleID Assosciated CAN ID for the Motor Controller that controls the throttle
      * @param azimuthID Assosciated CAN ID for the Motor Controller that controls the azimuth
      */
     public SwerveModuleLowerLevel(String ModuleName,int throttleID, int azimuthID){
-        throttleMotor = new BbSparkMax(throttleID, MotorType.kBrushless);
+        this(ModuleName, throttleID, azimuthID, new StatusFrameManager(ModuleName));
+    }
+
+    /**
+     * Creates a new swerve module like SwerveModuleLowerLevel(String, int, int), with status frame periods assigned
+     * by a frame manager shared with the rest of the drivetrain
+     * 
+     * @param ModuleName Assign a Name to Each Module - This determines the key in the calibration store
+     * @param throttleID Assosciated CAN ID for the Motor Controller that controls the throttle
+     * @param azimuthID Assosciated CAN ID for the Motor Controller that controls the azimuth
+     * @param frames Records the status frames of both motor controllers for the bus load estimate
+     */
+    public SwerveModuleLowerLevel(String ModuleName,int throttleID, int azimuthID, StatusFrameManager frames){
+        this(ModuleName, createThrottleMotor(ModuleName, throttleID, frames),
+            createAzimuthMotor(ModuleName, azimuthID, frames));
+        readOffset();
+    }
+
+    /**
+     * Creates a swerve module around motor controllers that already exist, such as simulated ones. The azimuth
+     * offset is left at 0 and the calibration store is not touched.
+     * 
+     * @param ModuleName Assign a Name to Each Module - This determines the key in the calibration store
+     * @param throttleMotor Motor controller that controls the throttle
+     * @param azimuthMotor Motor controller that controls the azimuth
+     */
+    public SwerveModuleLowerLevel(String ModuleName, ThrottleMotor throttleMotor, AzimuthMotor azimuthMotor){
+        moduleName = ModuleName;
+        offsetKey = ModuleName + ".AzimuthOffset";
+
+        this.throttleMotor = throttleMotor;
+        this.azimuthMotor = azimuthMotor;
+
+        sampleSensors();
+    }
+
+    /**
+     * Instantiates and configures the SparkMax that controls the throttle
+     * @param moduleName Name of the module for the frame report
+     * @param throttleID Assosciated CAN ID for the Motor Controller that controls the throttle
+     * @param frames Assigns the status frame periods
+     * @return Returns the configured motor controller
+     */
+    private static BbSparkMax createThrottleMotor(String moduleName, int throttleID, StatusFrameManager frames){
+        BbSparkMax throttleMotor = new BbSparkMax(throttleID, MotorType.kBrushless);
         throttleMotor.setEncPosition(0);
         SwerveConfig.THROTTLE_PID.assign(throttleMotor);
         throttleMotor.setOpenLoopRampRate(1.0);
-        
-        azimuthMotor = new WPI_TalonSRX(azimuthID);
-        SwerveConfig.AZIMUTH_PID.assign(0, azimuthMotor);
+        throttleMotor.getWriteFilter().configure(SwerveConfig.THROTTLE_WRITE_EPSILON, SwerveConfig.KEEP_ALIVE_CYCLES);
+
+        //Position feeds odometry. Velocity and output current feed the power budget and traction control every loop
+        //when either is enabled, otherwise velocity is only logged. Nothing reads the applied output.
+        String device = moduleName + " Throttle";
+        int velocityPeriod = StatusFrameManager.UNUSED_PERIOD;
+        if(SwerveConfig.POWER_BUDGET_ENABLED || SwerveConfig.TRACTION_CONTROL_ENABLED){
+            velocityPeriod = SwerveConfig.FEEDBACK_FRAME_PERIOD;
+        }else if(SwerveConfig.TELEMETRY_ENABLED){
+            velocityPeriod = SwerveConfig.VELOCITY_FRAME_PERIOD;
+        }
+        frames.assign(device, throttleMotor, PeriodicFrame.kStatus0, StatusFrameManager.UNUSED_PERIOD);
+        frames.assign(device, throttleMotor, PeriodicFrame.kStatus1, velocityPeriod);
+        frames.assign(device, throttleMotor, PeriodicFrame.kStatus2, SwerveConfig.FEEDBACK_FRAME_PERIOD);
+        frames.addControlFrame(device, 10, SwerveConfig.CONTROL_FRAME_PERIOD);
+        return throttleMotor;
+    }
+
+    /**
+     * Instantiates and configures the Talon that controls the azimuth
+     * @param moduleName Name of the module for the frame report
+     * @param azimuthID Assosciated CAN ID for the Motor Controller that controls the azimuth
+     * @param frames Assigns the status frame periods
+     * @return Returns the configured motor controller
+     */
+    private static BbTalonSRX createAzimuthMotor(String moduleName, int azimuthID, StatusFrameManager frames){
+        BbTalonSRX azimuthMotor = new BbTalonSRX(azimuthID);
+        azimuthMotor.getWriteFilter().configure(SwerveConfig.AZIMUTH_WRITE_EPSILON, SwerveConfig.KEEP_ALIVE_CYCLES);
+        //AZIMUTH_PID kF is the arbitrary feedforward gain, in a position loop the Talon would scale F by the target
+        SwerveConfig.AZIMUTH_PID.assign(0, azimuthMotor, false);
+        azimuthMotor.config_kF(0, 0);
         azimuthMotor.configSelectedFeedbackSensor(FeedbackDevice.CTRE_MagEncoder_Absolute);
         azimuthMotor.configFeedbackNotContinuous(false,0);
         azimuthMotor.setNeutralMode(NeutralMode.Brake);
         azimuthMotor.configNeutralDeadband(0.04);   
+
+        //The selected sensor position is read every cycle, the position loop runs on the Talon so nothing else is
+        String device = moduleName + " Azimuth";
+        frames.assign(device, azimuthMotor, StatusFrameEnhanced.Status_1_General, 10);
+        frames.assign(device, azimuthMotor, StatusFrameEnhanced.Status_2_Feedback0, SwerveConfig.FEEDBACK_FRAME_PERIOD);
+        frames.assign(device, azimuthMotor, StatusFrameEnhanced.Status_3_Quadrature, StatusFrameManager.UNUSED_PERIOD);
+        frames.assign(device, azimuthMotor, StatusFrameEnhanced.Status_4_AinTempVbat, StatusFrameManager.UNUSED_PERIOD);
+        frames.assign(device, azimuthMotor, StatusFrameEnhanced.Status_8_PulseWidth, StatusFrameManager.UNUSED_PERIOD);
+        frames.assign(device, azimuthMotor, StatusFrameEnhanced.Status_10_Targets, StatusFrameManager.UNUSED_PERIOD);
+        frames.assign(device, azimuthMotor, StatusFrameEnhanced.Status_12_Feedback1, StatusFrameManager.UNUSED_PERIOD);
+        frames.assign(device, azimuthMotor, StatusFrameEnhanced.Status_13_Base_PIDF0, StatusFrameManager.UNUSED_PERIOD);
+        frames.assign(device, azimuthMotor, StatusFrameEnhanced.Status_14_Turn_PIDF1, StatusFrameManager.UNUSED_PERIOD);
+        frames.addControlFrame(device, 10, SwerveConfig.CONTROL_FRAME_PERIOD);
+        return azimuthMotor;
+    }
+
+    /**
+     * Reads the azimuth encoder over CAN once and stores it as the snapshot for this cycle. Every azimuth getter
+     * uses this snapshot, so this should be called once at the start of each cycle before the module is set.
+     */
+    public void sampleSensors(){
+        rawAzimuth = azimuthMotor.getPosition()/SwerveConfig.AZIMUTH_TICKS_PER_DEGREE;
+        busReads++;
+    }
+
+    /**
+     * Reads the distance the throttle wheel has travelled directly from the motor controller. Unlike the azimuth
+     * getters this does not use the snapshot so it is safe to call from the odometry thread.
+     * @return Total throttle distance in inches
+     */
+    public double getThrottleDistance(){
+        return throttleMotor.getEncPosition()/SwerveConfig.THOTTLE_TICKS_PER_INCH;
     }
 
     /**
-     * Creates a File Stream according to the name of the module and if a file by that name exists reads the value, if 
-     * not it creates the file and the absolute azimuth is assumed to be 0. 
-     * @param ModuleName The name of the swerve module
+     * Reads the velocity of the throttle wheel from the motor controller
+     * @return Throttle velocity in inches/second
      */
-    public void readOffset(String ModuleName){
-        offsetFile = new File("/home/lvuser/"+ModuleName+"_AzimuthOffset.txt");
-        if(offsetFile.isFile()){
-            azimuthOffset = (double)FileUtil.readObjectFromFile(azimuthOffset,offsetFile);
+    public double getThrottleVelocity(){
+        return throttleMotor.getEncVelocity()/60/SwerveConfig.THOTTLE_TICKS_PER_INCH;
+    }
+
+    /**
+     * Reads the current of the throttle motor from the motor controller
+     * @return Throttle output current in amps
+     */
+    public double getThrottleCurrent(){
+        return throttleMotor.getOutputCurrent();
+    }
+
+    /**
+     * Reads the azimuth with the offset applied directly from the motor controller in the -180 to 180 range.
+     * Unlike the azimuth getters this does not use the snapshot so it is safe to call from the odometry thread.
+     * @return Measured azimuth in degrees
+     */
+    public double getMeasuredAzimuth(){
+        double azimuth = azimuthMotor.getPosition()/SwerveConfig.AZIMUTH_TICKS_PER_DEGREE;
+        return Math.IEEEremainder(azimuth + azimuthOffset, 360);
+    }
+
+    /**
+     * Gets how many azimuth reads were served from the snapshot instead of polling the motor controller since
+     * the counters were last reset
+     * @return Number of CAN reads saved
+     */
+    public int getSavedReads(){
+        return snapshotReads - busReads;
+    }
+
+    /**
+     * Resets the bus read and snapshot read counters
+     */
+    public void resetReadCounters(){
+        busReads = 0;
+        snapshotReads = 0;
+    }
+
+    /**
+     * Reads the azimuth offset of this module from the calibration store. If no offset has been stored yet, the
+     * current position is assumed to be straight and saved as the offset. If the calibration file is corrupt the
+     * offset falls back to 0 and nothing is saved, so the modules must be recalibrated.
+     */
+    public void readOffset(){
+        CalibrationStore store = CalibrationStore.getDefault();
+        if(store.contains(offsetKey)){
+            azimuthOffset = store.get(offsetKey, 0);
+        }else if(store.load() == LoadStatus.CORRUPT){
+            azimuthOffset = 0;
+            DriverStation.reportError(moduleName + " azimuth offset unavailable, using 0 until recalibrated", false);
         }else{
+            DriverStation.reportWarning(moduleName + " has no stored azimuth offset, assuming it is straight", false);
             resetOffset();
         }
     }
 
     /**
-     * Gets the current position of the swerve module in degrees and writes this number to a file as the offset
+     * Gets the current position of the swerve module in degrees and saves this number to the calibration store as
+     * the offset. The file is written in the background so this does not block the control loop.
      */
     public void resetOffset(){
-        azimuthOffset = -azimuthMotor.getSelectedSensorPosition()/SwerveConfig.AZIMUTH_TICKS_PER_DEGREE;
-        FileUtil.writeObjectToFile(offsetFile, azimuthOffset);
+        sampleSensors();
+        azimuthOffset = -getRawAzimuth();
+        CalibrationStore.getDefault().put(offsetKey, azimuthOffset);
     }
 
     /**
-     * Returns the sensor value in degrees
+     * Returns the sensor value in degrees from the snapshot taken by sampleSensors()
      * @return Sensor value in degrees
      */
     public double getRawAzimuth(){
-        return azimuthMotor.getSelectedSensorPosition()/SwerveConfig.AZIMUTH_TICKS_PER_DEGREE;
+        snapshotReads++;
+        return rawAzimuth;
     }
 
     /**
-     * Polls the azimuth motor controller for the position in degrees with the offset applied
+     * Fetches the azimuth from the last snapshot with the offset and rotation overrun applied, in the same frame as
+     * the azimuth setpoint. Unlike getRelativeAzimuth() this is not counted as a snapshot read, so logging it does
+     * not change the saved-read count.
+     * @return Returns the azimuth in degrees
+     */
+    public double getSnapshotAzimuth(){
+        return rawAzimuth + azimuthOffset;
+    }
+
+    /**
+     * Gets the position of the azimuth in degrees with the offset applied
      * @return azimuth in degrees
      */
     public double getRelativeAzimuth(){
@@ -111,52 +286,17 @@ public class SwerveModuleLowerLevel{
      * @param azimuth target azimuth in degrees
      */
     public void setRawAzimuth(double azimuth){
-        azimuthMotor.set(ControlMode.Position,(azimuth+azimuthOffset)*SwerveConfig.AZIMUTH_TICKS_PER_DEGREE);
-    }
-
-    /**
-     * Distinguishes between the two possible azimuths in a rotation that are 180 degree offsets of each other
-     * and determines which azimuth is closer to the current position. Also inverts the direction of the throttle
-     * if the secondary azimuth is chosen. Returns the value of the closer azimuth.
-     * 
-     * @param targetAzimuth The target azimuth from 0 to 360 degrees
-     * @param currentAzimuth The current azimuth from 0 to 360 degrees
-     * @return Returns an equivalent azimuth that is the closest to the current azimuth
-     */
-    public double determinePreferredAzimuth(double targetAzimuth){
-        double primaryAzimuth = targetAzimuth;
-        double secondaryAzimuth = getSecondaryAzimuth(primaryAzimuth);
-        double currentAzimuth = this.getAbsoluteAzimuth();
-        
-        if(Math.abs(primaryAzimuth - currentAzimuth)<Math.abs(secondaryAzimuth-currentAzimuth)){
-            invertThrottle = false;
-            return primaryAzimuth;
-        }else{
-            invertThrottle = true;
-            return secondaryAzimuth;
-        }
+        azimuthMotor.setPosition((azimuth-azimuthOffset)*SwerveConfig.AZIMUTH_TICKS_PER_DEGREE);
     }
 
     /**
-     * Creates a secondary azimuth possibility that is a 180 degree offset from the primary based on if the current
-     * azimuth is less than or greater than the primary azimuth.
+     * Converts a degree setpoint for azimuth into raw units like setRawAzimuth(double), and adds an arbitrary
+     * feedforward to the azimuth's position loop
      * 
-     * Note: Secondary Azimuth may exceed -180 to 180 range.
-     * 
-     * @param primaryAzimuth The original target azimuth from 0 to 360 degrees
-     * @param currentAzimuth The current azimuth from 0 to 360 degrees
-     * @return
+     * @param azimuth target azimuth in degrees
+     * @param feedforward feedforward in percent output
      */
-    public double getSecondaryAzimuth(double primaryAzimuth){
-        double secondaryAzimuth;
-        double currentAzimuth = getAbsoluteAzimuth();
-
-        if(primaryAzimuth<currentAzimuth){
-            secondaryAzimuth = primaryAzimuth-180;
-        }else{
-            secondaryAzimuth = primaryAzimuth +180;
-        }
-
-        return secondaryAzimuth;
+    public void setRawAzimuth(double azimuth, double feedforward){
+        azimuthMotor.setPosition((azimuth-azimuthOffset)*SwerveConfig.AZIMUTH_TICKS_PER_DEGREE, feedforward);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,28 @@
+package frc.systems.dirtyswerve.lowerlevel.odometry;
+
+/**
+ * Provides the raw sensor values that odometry is calculated from. Implemented by the drivetrain on the robot and
+ * by simulated modules off the robot.
+ */
+public interface OdometrySource{
+
+    /**
+     * Reads the distance travelled and measured azimuth of all four modules, numbered 0-3 from front to back
+     * with even numbers on the left side.
+     * @param distances Array of 4 that the total throttle distances in inches are written into
+     * @param azimuths Array of 4 that the module azimuths in degrees are written into
+     */
+    void readModules(double[] distances, double[] azimuths);
+
+    /**
+     * Reads which wheels are slipping, so odometry can leave them out while the others grip
+     * @return Returns a bit for every slipping module, bit 0 for module 0, or 0 if none are known to slip
+     */
+    int readSlipMask();
+
+    /**
+     * Reads the heading of the robot
+     * @return Returns the heading in degrees, positive counter-clockwise
+     */
+    double readHeading();
+}
@@ -0,0 +1,52 @@
+package frc.systems.dirtyswerve.lowerlevel.odometry;
+
+/**
+ * Position and heading of the robot on the field. X is positive towards the front of the field, Y is positive to
+ * the right, and heading is in degrees, positive counter-clockwise.
+ */
+public class Pose{
+    private double x, y, heading;
+
+    public Pose(){
+    }
+
+    public Pose(double x, double y, double heading){
+        set(x, y, heading);
+    }
+
+    /**
+     * Overwrites every value of the pose
+     * @param x Field X position in inches
+     * @param y Field Y position in inches
+     * @param heading Heading in degrees
+     */
+    public void set(double x, double y, double heading){
+        this.x = x;
+        this.y = y;
+        this.heading = heading;
+    }
+
+    /**
+     * Fetches the field X position
+     * @return Returns X in inches
+     */
+    public double getX(){
+        return x;
+    }
+
+    /**
+     * Fetches the field Y position
+     * @return Returns Y in inches
+     */
+    public double getY(){
+        return y;
+    }
+
+    /**
+     * Fetches the heading
+     * @return Returns the heading in degrees
+     */
+    public double getHeading(){
+        return heading;
+    }
+}
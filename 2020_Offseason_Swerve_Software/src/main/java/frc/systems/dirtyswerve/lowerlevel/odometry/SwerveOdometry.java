@@ -0,0 +1,188 @@
+package frc.systems.dirtyswerve.lowerlevel.odometry;
+
+import java.lang.invoke.VarHandle;
+
+import edu.wpi.first.wpilibj.Notifier;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+
+/**
+ * Tracks the position of the robot by combining the throttle distance and azimuth of each module with the gyro heading.
+ * Wheels the source reports as slipping are left out while at least one other wheel grips, with the rotation the gyro
+ * measured taken out of every wheel first so the remaining wheels still average to the translation of the robot.
+ * Updates can run on their own Notifier faster than the robot loop. The latest pose is published with a sequence
+ * counter so any thread can read it without locking and without seeing a half written pose.
+ */
+public class SwerveOdometry{
+
+    //Module positions from the center of the robot, numbered like the kinematics (X forward, Y right)
+    private static final double[] MODULE_X = {SwerveConfig.CHASSIS_LENGTH / 2, SwerveConfig.CHASSIS_LENGTH / 2,
+        -SwerveConfig.CHASSIS_LENGTH / 2, -SwerveConfig.CHASSIS_LENGTH / 2};
+    private static final double[] MODULE_Y = {-SwerveConfig.CHASSIS_WIDTH / 2, SwerveConfig.CHASSIS_WIDTH / 2,
+        -SwerveConfig.CHASSIS_WIDTH / 2, SwerveConfig.CHASSIS_WIDTH / 2};
+
+    private final OdometrySource source;
+    private Notifier notifier;
+
+    private final double[] distances = new double[4];
+    private final double[] azimuths = new double[4];
+    private final double[] lastDistances = new double[4];
+    private double lastHeading;
+    private boolean initialized;
+
+    private double x, y;
+
+    private volatile boolean resetRequested;
+    private volatile double resetX, resetY;
+
+    //Odd while the pose is being written
+    private volatile long sequence;
+    private double publishedX, publishedY, publishedHeading;
+
+    /**
+     * Creates an odometry tracker that starts at the origin
+     * @param source Provides module and gyro readings
+     */
+    public SwerveOdometry(OdometrySource source){
+        this.source = source;
+    }
+
+    /**
+     * Starts updating odometry on a separate thread
+     * @param period Time between updates in seconds
+     */
+    public void start(double period){
+        if(notifier == null){
+            notifier = new Notifier(this::update);
+        }
+        notifier.startPeriodic(period);
+    }
+
+    /**
+     * Stops the odometry thread
+     */
+    public void stop(){
+        if(notifier != null){
+            notifier.stop();
+        }
+    }
+
+    /**
+     * Reads the source and integrates the module movement since the last update
+     */
+    public void update(){
+        source.readModules(distances, azimuths);
+        update(source.readHeading(), distances, azimuths, source.readSlipMask());
+    }
+
+    /**
+     * Integrates the module movement since the last update. Module displacements are averaged in the robot frame and
+     * rotated onto the field using the heading halfway through the update.
+     * @param heading Robot heading in degrees, positive counter-clockwise
+     * @param moduleDistances Total throttle distance of each module in inches
+     * @param moduleAzimuths Azimuth of each module in degrees
+     */
+    public void update(double heading, double[] moduleDistances, double[] moduleAzimuths){
+        update(heading, moduleDistances, moduleAzimuths, 0);
+    }
+
+    /**
+     * Integrates the module movement since the last update, leaving out slipping wheels while any wheel grips
+     * @param heading Robot heading in degrees, positive counter-clockwise
+     * @param moduleDistances Total throttle distance of each module in inches
+     * @param moduleAzimuths Azimuth of each module in degrees
+     * @param slipMask Bit for every slipping module, bit 0 for module 0
+     */
+    public void update(double heading, double[] moduleDistances, double[] moduleAzimuths, int slipMask){
+        double headingRad = Math.toRadians(heading);
+
+        if(resetRequested){
+            x = resetX;
+            y = resetY;
+            lastHeading = headingRad; //The heading may have been reset with the position
+            resetRequested = false;
+        }
+
+        if(!initialized){
+            System.arraycopy(moduleDistances, 0, lastDistances, 0, 4);
+            lastHeading = headingRad;
+            initialized = true;
+            publish(heading);
+            return;
+        }
+
+        if(slipMask == 0xF){
+            slipMask = 0;
+        }
+        double turn = Math.IEEEremainder(headingRad - lastHeading, 2 * Math.PI);
+        double forward = 0;
+        double strafe = 0;
+        int used = 0;
+        for(int i = 0; i < 4; i++){
+            double delta = moduleDistances[i] - lastDistances[i];
+            lastDistances[i] = moduleDistances[i];
+            if((slipMask & (1 << i)) != 0){
+                continue;
+            }
+            //Turning counter-clockwise moves a wheel by turn * (Y, -X), which cancels out when all four are used
+            double azimuth = Math.toRadians(moduleAzimuths[i]);
+            forward += delta * Math.cos(azimuth) - turn * MODULE_Y[i];
+            strafe += delta * Math.sin(azimuth) + turn * MODULE_X[i];
+            used++;
+        }
+        forward /= used;
+        strafe /= used;
+
+        double midHeading = lastHeading + turn / 2;
+        double cos = Math.cos(midHeading);
+        double sin = Math.sin(midHeading);
+        x += forward * cos + strafe * sin;
+        y += -forward * sin + strafe * cos;
+        lastHeading = headingRad;
+
+        publish(heading);
+    }
+
+    /**
+     * Moves the pose to a new position. Applied at the start of the next update, which also takes the heading it is
+     * given as the new starting heading.
+     * @param x New field X position in inches
+     * @param y New field Y position in inches
+     */
+    public void resetPosition(double x, double y){
+        resetX = x;
+        resetY = y;
+        resetRequested = true;
+    }
+
+    private void publish(double heading){
+        long seq = sequence;
+        sequence = seq + 1;
+        VarHandle.storeStoreFence();
+        publishedX = x;
+        publishedY = y;
+        publishedHeading = heading;
+        sequence = seq + 2;
+    }
+
+    /**
+     * Copies the most recently published pose without locking or allocating
+     * @param pose Pose that the latest values are written into
+     */
+    public void getPose(Pose pose){
+        while(true){
+            long seq = sequence;
+            if((seq & 1) == 0){
+                double px = publishedX;
+                double py = publishedY;
+                double ph = publishedHeading;
+                VarHandle.loadLoadFence();
+                if(seq == sequence){
+                    pose.set(px, py, ph);
+                    return;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
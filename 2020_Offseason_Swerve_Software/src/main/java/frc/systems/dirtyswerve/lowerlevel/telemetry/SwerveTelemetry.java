@@ -0,0 +1,117 @@
+package frc.systems.dirtyswerve.lowerlevel.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import frc.util.BinaryLogger;
+
+/**
+ * Records the commanded and measured state of every swerve module plus the gyro heading once per loop into a
+ * binary log. Use SwerveTelemetryDecoder to convert a log to CSV.
+ *
+ * Record layout (80 bytes, big endian):
+ * long timestamp (us), float gyro heading (deg), int throttle inverted flags (bit n is module n), then for each of
+ * the four modules: float commanded azimuth (deg), measured azimuth (deg), commanded throttle, measured throttle
+ * velocity (in/s)
+ *
+ * Both azimuths are continuous (not wrapped to -180 to 180) with the module offset applied, so they can be compared
+ * directly. Version 1 logs wrapped the measured azimuth.
+ */
+public class SwerveTelemetry{
+
+    public static final int MAGIC = 0x42425357; //"BBSW"
+    public static final int VERSION = 2;
+    public static final int RECORD_SIZE = 80;
+
+    static final int TIMESTAMP = 0;
+    static final int HEADING = 8;
+    static final int INVERTED = 12;
+    static final int MODULES = 16;
+    static final int MODULE_SIZE = 16;
+    static final int COMMANDED_AZIMUTH = 0;
+    static final int MEASURED_AZIMUTH = 4;
+    static final int COMMANDED_THROTTLE = 8;
+    static final int MEASURED_VELOCITY = 12;
+
+    private final BinaryLogger logger;
+    private int record = -1;
+
+    /**
+     * Opens a new telemetry log
+     * @param file File to write
+     * @param capacity Number of loops that can be buffered before records are dropped
+     * @param drainPeriod Time between batches written to the file in seconds
+     * @throws IOException If the file can't be opened
+     */
+    public SwerveTelemetry(File file, int capacity, double drainPeriod) throws IOException{
+        logger = new BinaryLogger(file, MAGIC, VERSION, RECORD_SIZE, capacity, drainPeriod);
+    }
+
+    /**
+     * Starts a new record. If the buffer is full the record is dropped and the following calls do nothing.
+     * @param timestamp Time of the loop in microseconds
+     * @param heading Gyro heading in degrees
+     */
+    public void begin(long timestamp, double heading){
+        record = logger.beginRecord();
+        if(record < 0){
+            return;
+        }
+        ByteBuffer buffer = logger.getBuffer();
+        buffer.putLong(record + TIMESTAMP, timestamp);
+        buffer.putFloat(record + HEADING, (float)heading);
+        buffer.putInt(record + INVERTED, 0);
+    }
+
+    /**
+     * Adds the state of one module to the current record
+     * @param module Module number, 0-3 from front to back with even numbers on the left
+     * @param commandedAzimuth Azimuth sent to the module in degrees
+     * @param measuredAzimuth Azimuth read from the encoder in degrees
+     * @param commandedThrottle Throttle sent to the module
+     * @param measuredVelocity Throttle velocity read from the encoder in inches/second
+     * @param inverted Whether the module is driving its throttle in reverse
+     */
+    public void module(int module, double commandedAzimuth, double measuredAzimuth, double commandedThrottle,
+            double measuredVelocity, boolean inverted){
+        if(record < 0){
+            return;
+        }
+        ByteBuffer buffer = logger.getBuffer();
+        int offset = record + MODULES + module * MODULE_SIZE;
+        buffer.putFloat(offset + COMMANDED_AZIMUTH, (float)commandedAzimuth);
+        buffer.putFloat(offset + MEASURED_AZIMUTH, (float)measuredAzimuth);
+        buffer.putFloat(offset + COMMANDED_THROTTLE, (float)commandedThrottle);
+        buffer.putFloat(offset + MEASURED_VELOCITY, (float)measuredVelocity);
+        if(inverted){
+            buffer.putInt(record + INVERTED, buffer.getInt(record + INVERTED) | (1 << module));
+        }
+    }
+
+    /**
+     * Finishes the current record and hands it to the background writer
+     */
+    public void commit(){
+        if(record < 0){
+            return;
+        }
+        logger.commit();
+        record = -1;
+    }
+
+    /**
+     * Fetches the number of records dropped because the log could not keep up
+     * @return Returns the number of dropped records
+     */
+    public long getDroppedRecords(){
+        return logger.getDroppedRecords();
+    }
+
+    /**
+     * Writes every remaining record and closes the log
+     */
+    public void close(){
+        logger.close();
+    }
+}
@@ -0,0 +1,81 @@
+package frc.systems.dirtyswerve.lowerlevel.telemetry;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+
+import frc.util.BinaryLogger;
+
+/**
+ * Converts a swerve telemetry log into CSV. Meant to be run off the robot after a match:
+ * gradlew decodeTelemetry -Plog=path/to/Telemetry.bin
+ */
+public final class SwerveTelemetryDecoder{
+
+    private static final String[] MODULE_NAMES = {"FrontLeft", "FrontRight", "RearLeft", "RearRight"};
+
+    private SwerveTelemetryDecoder(){
+    }
+
+    public static void main(String... args) throws IOException{
+        if(args.length < 1){
+            System.err.println("Usage: SwerveTelemetryDecoder <log.bin> [output.csv]");
+            System.exit(1);
+        }
+        File input = new File(args[0]);
+        File output = new File(args.length > 1 ? args[1] : args[0].replaceFirst("\\.bin$", "") + ".csv");
+        int records = decode(input, output);
+        System.out.println("Wrote " + records + " records to " + output);
+    }
+
+    /**
+     * Converts a telemetry log into CSV
+     * @param input Binary telemetry log
+     * @param output CSV file to write
+     * @return Returns the number of records converted
+     * @throws IOException If the log can't be read or is not a swerve telemetry log
+     */
+    public static int decode(File input, File output) throws IOException{
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(input.toPath()));
+        if(buffer.remaining() < BinaryLogger.HEADER_SIZE || buffer.getInt(0) != SwerveTelemetry.MAGIC){
+            throw new IOException(input + " is not a swerve telemetry log");
+        }
+        if(buffer.getInt(4) != SwerveTelemetry.VERSION || buffer.getInt(8) != SwerveTelemetry.RECORD_SIZE){
+            throw new IOException(input + " has an unsupported version or record size");
+        }
+
+        int records = (buffer.capacity() - BinaryLogger.HEADER_SIZE) / SwerveTelemetry.RECORD_SIZE;
+        try(PrintWriter out = new PrintWriter(output)){
+            StringBuilder header = new StringBuilder("timestamp_us,heading");
+            for(String name : MODULE_NAMES){
+                header.append(',').append(name).append("_commandedAzimuth")
+                    .append(',').append(name).append("_measuredAzimuth")
+                    .append(',').append(name).append("_commandedThrottle")
+                    .append(',').append(name).append("_measuredVelocity")
+                    .append(',').append(name).append("_inverted");
+            }
+            out.println(header);
+
+            for(int i = 0; i < records; i++){
+                int record = BinaryLogger.HEADER_SIZE + i * SwerveTelemetry.RECORD_SIZE;
+                int inverted = buffer.getInt(record + SwerveTelemetry.INVERTED);
+
+                StringBuilder line = new StringBuilder();
+                line.append(buffer.getLong(record + SwerveTelemetry.TIMESTAMP))
+                    .append(',').append(buffer.getFloat(record + SwerveTelemetry.HEADING));
+                for(int module = 0; module < MODULE_NAMES.length; module++){
+                    int offset = record + SwerveTelemetry.MODULES + module * SwerveTelemetry.MODULE_SIZE;
+                    line.append(',').append(buffer.getFloat(offset + SwerveTelemetry.COMMANDED_AZIMUTH))
+                        .append(',').append(buffer.getFloat(offset + SwerveTelemetry.MEASURED_AZIMUTH))
+                        .append(',').append(buffer.getFloat(offset + SwerveTelemetry.COMMANDED_THROTTLE))
+                        .append(',').append(buffer.getFloat(offset + SwerveTelemetry.MEASURED_VELOCITY))
+                        .append(',').append((inverted >> module) & 1);
+                }
+                out.println(line);
+            }
+        }
+        return records;
+    }
+}
@@ -0,0 +1,123 @@
+package frc.systems.dirtyswerve.lowerlevel.trajectory;
+
+import frc.systems.dirtyswerve.lowerlevel.odometry.Pose;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+import frc.systems.dirtyswerve.toplevel.config.SwerveTuning;
+import frc.util.Trajectory;
+
+/**
+ * Follows a precomputed trajectory by feeding forward the sampled velocities and correcting position and heading
+ * error against odometry with proportional feedback. Outputs are field-oriented drive commands in the same -1.0 to
+ * 1.0 range that DirtySwerve.drive() takes.
+ */
+public class TrajectoryFollower{
+
+    private SwerveTuning tuning = SwerveTuning.DEFAULT;
+    private Trajectory trajectory;
+    private double startTime;
+    private int index;
+
+    private double forward, strafe, rotation;
+
+    /**
+     * Starts following a trajectory from its first sample
+     * @param trajectory Trajectory to follow
+     * @param timestamp Current time in seconds
+     */
+    public void start(Trajectory trajectory, double timestamp){
+        this.trajectory = trajectory;
+        this.startTime = timestamp;
+        this.index = 0;
+    }
+
+    /**
+     * Sets the feedback gains used by calculate()
+     * @param tuning Tuning that holds the gains
+     */
+    public void setTuning(SwerveTuning tuning){
+        this.tuning = tuning;
+    }
+
+    /**
+     * Determines if the trajectory is finished or was never started
+     * @param timestamp Current time in seconds
+     * @return Returns true if there is nothing left to follow
+     */
+    public boolean isFinished(double timestamp){
+        return trajectory == null || trajectory.length() == 0 || timestamp - startTime >= trajectory.getDuration();
+    }
+
+    /**
+     * Calculates the drive command for this cycle. The results are read with getForward(), getStrafe() and
+     * getRotation().
+     * @param timestamp Current time in seconds
+     * @param pose Current pose of the robot from odometry
+     */
+    public void calculate(double timestamp, Pose pose){
+        if(isFinished(timestamp)){
+            forward = 0;
+            strafe = 0;
+            rotation = 0;
+            return;
+        }
+
+        double time = timestamp - startTime;
+        while(index < trajectory.length() - 2 && trajectory.getTime(index + 1) <= time){
+            index++;
+        }
+
+        //Linearly interpolate between the two samples surrounding the current time
+        int next = Math.min(index + 1, trajectory.length() - 1);
+        double span = trajectory.getTime(next) - trajectory.getTime(index);
+        double t = span > 0 ? Math.min(Math.max((time - trajectory.getTime(index)) / span, 0), 1) : 0;
+
+        double x = lerp(trajectory.getX(index), trajectory.getX(next), t);
+        double y = lerp(trajectory.getY(index), trajectory.getY(next), t);
+        double heading = trajectory.getHeading(index)
+            + Math.IEEEremainder(trajectory.getHeading(next) - trajectory.getHeading(index), 360) * t;
+        double xVelocity = lerp(trajectory.getXVelocity(index), trajectory.getXVelocity(next), t);
+        double yVelocity = lerp(trajectory.getYVelocity(index), trajectory.getYVelocity(next), t);
+        double angularVelocity = lerp(trajectory.getAngularVelocity(index), trajectory.getAngularVelocity(next), t);
+
+        xVelocity += tuning.getTranslationP() * (x - pose.getX());
+        yVelocity += tuning.getTranslationP() * (y - pose.getY());
+        angularVelocity += tuning.getHeadingP() * Math.IEEEremainder(heading - pose.getHeading(), 360);
+
+        forward = clamp(xVelocity / SwerveConfig.MAX_LINEAR_SPEED);
+        strafe = clamp(yVelocity / SwerveConfig.MAX_LINEAR_SPEED);
+        //Drive rotation is positive clockwise
+        rotation = clamp(-angularVelocity / SwerveConfig.MAX_ANGULAR_SPEED);
+    }
+
+    /**
+     * Fetches the field-oriented forward command from the last calculation
+     * @return Returns forward from -1.0 to 1.0
+     */
+    public double getForward(){
+        return forward;
+    }
+
+    /**
+     * Fetches the field-oriented strafe command from the last calculation
+     * @return Returns strafe from -1.0 to 1.0
+     */
+    public double getStrafe(){
+        return strafe;
+    }
+
+    /**
+     * Fetches the rotation command from the last calculation
+     * @return Returns rotation from -1.0 (CCW) to 1.0 (CW)
+     */
+    public double getRotation(){
+        return rotation;
+    }
+
+    private static double lerp(double a, double b, double t){
+        return a + (b - a) * t;
+    }
+
+    private static double clamp(double value){
+        return Math.max(-1.0, Math.min(1.0, value));
+    }
+}
@@ -5,12 +5,34 @@
 package frc.systems.dirtyswerve.toplevel;
 
 import edu.wpi.first.wpilibj.Joystick;
+import edu.wpi.first.wpilibj.Timer;
+import frc.hardware.Gyro;
 import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
-import frc.systems.dirtyswerve.toplevel.config.SwerveConfig.DriveMode;
+import frc.systems.dirtyswerve.toplevel.config.SwerveTuning;
 import frc.systems.dirtyswerve.lowerlevel.DirtySwerveLowerLevel;
+import frc.systems.dirtyswerve.lowerlevel.module.SwerveModule;
+import frc.systems.dirtyswerve.lowerlevel.odometry.Pose;
+import frc.systems.dirtyswerve.lowerlevel.trajectory.TrajectoryFollower;
+import frc.util.Trajectory;
+import frc.util.input.Deadband;
+import frc.util.input.Expo;
+import frc.util.input.InputPipeline;
+import frc.util.input.JerkLimit;
+import frc.util.input.SlewLimit;
 
 public class DirtySwerve extends DirtySwerveLowerLevel{
 
+  private final TrajectoryFollower follower = new TrajectoryFollower();
+  private final Pose pose = new Pose();
+
+  private final InputPipeline xInput = createTranslationInput();
+  private final InputPipeline yInput = createTranslationInput();
+  private final InputPipeline rotationInput = new InputPipeline(
+      new Deadband(SwerveConfig.ROTATION_DEADBAND),
+      new Expo(SwerveConfig.INPUT_EXPO, SwerveConfig.INPUT_EXPO_DEGREE),
+      new SlewLimit(SwerveConfig.ROTATION_RISE_RATE, SwerveConfig.ROTATION_FALL_RATE),
+      new JerkLimit(SwerveConfig.ROTATION_JERK, SwerveConfig.ROTATION_RISE_RATE, SwerveConfig.ROTATION_FALL_RATE));
+
   /**
    * This is the central file to run the swerve drive. Developed based on the inverse kinematic equations developed
    * from a Chief Delphi post authored by Ether ( "https://www.chiefdelphi.com/media/papers/2426" )
@@ -22,6 +44,25 @@ public class DirtySwerve extends DirtySwerveLowerLevel{
     super();
   }
 
+  /**
+   * Creates the swerve drive around a gyro and modules that already exist, such as simulated ones.
+   * @param gyro Gyro that measures the heading of the robot
+   * @param frontLeft Front left module
+   * @param frontRight Front right module
+   * @param rearLeft Rear left module
+   * @param rearRight Rear right module
+   */
+  public DirtySwerve(Gyro gyro, SwerveModule frontLeft, SwerveModule frontRight, SwerveModule rearLeft,
+      SwerveModule rearRight){
+    super(gyro, frontLeft, frontRight, rearLeft, rearRight);
+  }
+
+  @Override
+  public void setTuning(SwerveTuning tuning){
+    super.setTuning(tuning);
+    follower.setTuning(tuning);
+  }
+
   /**
    * Assumes all the azimuths of the modules are 0. Should only need to be calibrated if the encoder is moved.
    */
@@ -38,40 +79,99 @@ public class DirtySwerve extends DirtySwerveLowerLevel{
    * @param rotationJoy This joystick controls the rotation of the robot.
    */
   public void teleopControl(Joystick movementJoy, Joystick rotationJoy){
+    teleopControl(movementJoy.getX(), movementJoy.getY(), rotationJoy.getTwist());
+  }
 
-    double x = SwerveConfig.DISPLACEMENT_FACTOR * powerInput( movementJoy.getX() , 2);
-    double y = SwerveConfig.DISPLACEMENT_FACTOR * powerInput( movementJoy.getY() , 2);
-    double t =+ 0.5*powerInput(rotationJoy.getTwist(),2);
+  /**
+   * Runs swerve drive from raw controller axes, so it can be driven without joysticks. Every axis is shaped by its
+   * own input pipeline, called once per SwerveConfig.INPUT_PERIOD. Twist inside the rotation deadband is no
+   * rotation at all, so heading hold can take over.
+   * @param movementX X axis of the movement joystick
+   * @param movementY Y axis of the movement joystick
+   * @param rotationTwist Twist axis of the rotation joystick
+   */
+  public void teleopControl(double movementX, double movementY, double rotationTwist){
+    double x = SwerveConfig.DISPLACEMENT_FACTOR * xInput.calculate(movementX, SwerveConfig.INPUT_PERIOD);
+    double y = SwerveConfig.DISPLACEMENT_FACTOR * yInput.calculate(movementY, SwerveConfig.INPUT_PERIOD);
+    double t =+ 0.5*rotationInput.calculate(rotationTwist, SwerveConfig.INPUT_PERIOD);
     t = Math.IEEEremainder(t, 2);
 
     drive(y, x, t);
   }
 
   /**
-   * Drive the robot in given field-relative direction and with given rotation.
-   *
-   * @param forward Y-axis movement, from -1.0 (reverse) to 1.0 (forward)
-   * @param strafe X-axis movement, from -1.0 (left) to 1.0 (right)
-   * @param azimuth robot rotation, from -1.0 (CCW) to 1.0 (CW)
+   * Clears the slew and jerk limits so teleop starts from a standstill, such as after the robot was disabled
    */
-  public void drive(double forward, double strafe, double azimuth) {
-    double angle=0;
+  public void resetInputs(){
+    xInput.reset(0);
+    yInput.reset(0);
+    rotationInput.reset(0);
+  }
 
-    if (gyro != null && SwerveConfig.SELECTED_DRIVE_MODE == DriveMode.FIELD_ORIENTED) {
-      angle = gyro.getFusedHeading();
-      angle = Math.IEEEremainder(angle, 360.0);
-    }
+  private static InputPipeline createTranslationInput(){
+    return new InputPipeline(
+        new Deadband(SwerveConfig.TRANSLATION_DEADBAND),
+        new Expo(SwerveConfig.INPUT_EXPO, SwerveConfig.INPUT_EXPO_DEGREE),
+        new SlewLimit(SwerveConfig.TRANSLATION_RISE_RATE, SwerveConfig.TRANSLATION_FALL_RATE),
+        new JerkLimit(SwerveConfig.TRANSLATION_JERK, SwerveConfig.TRANSLATION_RISE_RATE,
+            SwerveConfig.TRANSLATION_FALL_RATE));
+  }
 
-    angle = Math.toRadians(angle);
-    strafe = -forward * Math.sin(angle) + strafe * Math.cos(angle);
-    forward = forward * Math.cos(angle) + strafe * Math.sin(angle);
+  /**
+   * Starts following a trajectory. Odometry and the heading are moved to the first sample so the path starts
+   * wherever the robot is placed, facing the way the trajectory starts.
+   * @param trajectory Precomputed trajectory to follow
+   */
+  public void startTrajectory(Trajectory trajectory){
+    startTrajectory(trajectory, Timer.getFPGATimestamp());
+  }
 
-    double[] trajVars = calcTrajVars(forward, strafe, azimuth);
+  /**
+   * Starts following a trajectory at a given time, see startTrajectory(Trajectory).
+   * @param trajectory Precomputed trajectory to follow
+   * @param timestamp Current time in seconds
+   */
+  public void startTrajectory(Trajectory trajectory, double timestamp){
+    if(trajectory.length() > 0){
+      resetHeading(trajectory.getHeading(0));
+      odometry.resetPosition(trajectory.getX(0), trajectory.getY(0));
+    }
+    follower.start(trajectory, timestamp);
+  }
 
-    double[] spds = calcWheelSpds(trajVars);
+  /**
+   * Drives along the trajectory given to startTrajectory(). Should be called every cycle during autonomous.
+   * @return Returns true once the trajectory is finished
+   */
+  public boolean followTrajectory(){
+    return followTrajectory(Timer.getFPGATimestamp());
+  }
 
-    double[] azms = calcWheelAzms(trajVars);
+  /**
+   * Drives along the trajectory given to startTrajectory() at a given time, see followTrajectory().
+   * @param timestamp Current time in seconds, on the same clock given to startTrajectory()
+   * @return Returns true once the trajectory is finished
+   */
+  public boolean followTrajectory(double timestamp){
+    odometry.getPose(pose);
+    follower.calculate(timestamp, pose);
+    drive(follower.getForward(), follower.getStrafe(), follower.getRotation());
+    return follower.isFinished(timestamp);
+  }
 
-    feedModules(spds, azms);
+  /**
+   * Drive the robot in given field-relative direction and with given rotation. While the control threads are running
+   * the command is handed to the control thread and this returns immediately.
+   *
+   * @param forward Y-axis movement, from -1.0 (reverse) to 1.0 (forward)
+   * @param strafe X-axis movement, from -1.0 (left) to 1.0 (right)
+   * @param azimuth robot rotation, from -1.0 (CCW) to 1.0 (CW)
+   */
+  public void drive(double forward, double strafe, double azimuth) {
+    if (isThreaded()) {
+      controlThreads.publishCommand(forward, strafe, azimuth);
+    }else{
+      runControlLoop(forward, strafe, azimuth);
+    }
   }
 }
\ No newline at end of file
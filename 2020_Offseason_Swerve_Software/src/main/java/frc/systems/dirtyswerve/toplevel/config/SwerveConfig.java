@@ -22,6 +22,13 @@ public final class SwerveConfig{
      */
     public static final DriveMode SELECTED_DRIVE_MODE = DriveMode.FIELD_ORIENTED;
     public static final ThrottleType SELECTED_THROTTLE_TYPE = ThrottleType.VelocityMode;
+    public static final MathMode SELECTED_MATH_MODE = MathMode.FAST;
+    public static final KinematicsMode SELECTED_KINEMATICS_MODE = KinematicsMode.FIRST_ORDER;
+
+    /**
+     * Largest Wheel Azimuth Error Allowed from Fast Math (Degrees, checked by SwerveKinematicsTest)
+     */
+    public static final double FAST_MATH_AZIMUTH_TOLERANCE = 0.01;
 
     /**
      * CAN IDs for Swerve Motor Controllers and Sensors
@@ -42,10 +49,39 @@ public final class SwerveConfig{
     public static final int REAR_LEFT_AZIMUTH_ID = 34;
 
     /**
-     * PID Values for swerve
+     * PID Values for swerve (Defaults until gains are stored in the calibration file under these names, changes to
+     * the file are applied while the robot runs)
+     * The azimuth kF is not a Talon position loop F, it is the arbitrary feedforward in percent output per
+     * degree/second of module rotation used by SECOND_ORDER kinematics
+     */
+    public static final PID_Config AZIMUTH_PID = new PID_Config("AzimuthPID", 0, 0, 0, 0, 0);
+    public static final PID_Config THROTTLE_PID = new PID_Config("ThrottlePID", 0, 0, 0, 0, 0);
+
+    /**
+     * Teleop Input Shaping (Stick deadband and expo curve, then slew limits in output/second while speeding up and
+     * slowing down, and a jerk limit in output/second^2) and the period teleopControl() is called at (Seconds)
+     */
+    public static final double INPUT_PERIOD = 0.02;
+    public static final double TRANSLATION_DEADBAND = 0.05;
+    public static final double ROTATION_DEADBAND = 0.05; //Twist inside this is no rotation command, see heading hold
+    public static final double INPUT_EXPO = 1.0;
+    public static final int INPUT_EXPO_DEGREE = 2;
+    public static final double TRANSLATION_RISE_RATE = 3.0;
+    public static final double TRANSLATION_FALL_RATE = 6.0;
+    public static final double TRANSLATION_JERK = 30.0;
+    public static final double ROTATION_RISE_RATE = 4.0;
+    public static final double ROTATION_FALL_RATE = 8.0;
+    public static final double ROTATION_JERK = 40.0;
+
+    /**
+     * Heading Hold (Gains in (degrees/second) per degree and iZone in degrees, stored as HeadingPID. The heading is
+     * captured once the robot turns slower than HEADING_HOLD_CAPTURE_RATE and corrected at up to
+     * HEADING_HOLD_MAX_RATE) (Degrees/Second)
      */
-    public static final PID_Config AZIMUTH_PID = new PID_Config(0, 0, 0, 0, 0);
-    public static final PID_Config THROTTLE_PID = new PID_Config(0, 0, 0, 0, 0);
+    public static final boolean HEADING_HOLD_ENABLED = false;
+    public static final PID_Config HEADING_PID = new PID_Config("HeadingPID", 4.0, 2.0, 0.1, 0, 5);
+    public static final double HEADING_HOLD_CAPTURE_RATE = 10;
+    public static final double HEADING_HOLD_MAX_RATE = 90;
 
     /**
      * Gear Ratios (After the encoder)
@@ -54,6 +90,116 @@ public final class SwerveConfig{
     public static final int AZIMUTH_TICKS_PER_DEGREE = 10;
     public static final int THOTTLE_TICKS_PER_INCH = 50;
 
+    /**
+     * CAN Write Filtering (Setpoints within epsilon of the last sent value are skipped until the keep-alive)
+     */
+    public static final double AZIMUTH_WRITE_EPSILON = 0.5; //Encoder ticks
+    public static final double THROTTLE_WRITE_EPSILON = 0.001;
+    public static final int KEEP_ALIVE_CYCLES = 10;
+
+    /**
+     * Control Loop Period without Threaded Control and Fastest Module Rotation Fed Forward (Seconds, Degrees/Second)
+     */
+    public static final double CONTROL_PERIOD = 0.02;
+    public static final double MAX_AZIMUTH_RATE = 720;
+
+    /**
+     * Threaded Control (Control thread period, and how old a command can get before the modules are stopped) (Seconds)
+     */
+    public static final boolean THREADED_CONTROL = false;
+    public static final double CONTROL_THREAD_PERIOD = 0.01;
+    public static final double COMMAND_TIMEOUT = 0.1;
+
+    /**
+     * Module Servo Loops (Setpoints are interpolated and written every SERVO_PERIOD seconds, overrunning servos skip
+     * up to SERVO_MAX_DECIMATION - 1 ticks and speed back up after SERVO_RECOVERY_TICKS ticks on time)
+     */
+    public static final boolean SERVO_ENABLED = false;
+    public static final double SERVO_PERIOD = 0.005;
+    public static final int SERVO_MAX_DECIMATION = 4;
+    public static final int SERVO_RECOVERY_TICKS = 200;
+
+    /**
+     * Throttle Power Budget (Amps and Volts, the battery current predicted for the throttles is kept under the budget
+     * by scaling every throttle setpoint down to at least POWER_MIN_SCALE. The budget is derated linearly to
+     * POWER_MIN_BUDGET_FRACTION as the battery sags from POWER_DERATE_START_VOLTAGE to POWER_DERATE_END_VOLTAGE)
+     */
+    public static final boolean POWER_BUDGET_ENABLED = false;
+    public static final double THROTTLE_STALL_CURRENT = 105; //One motor at full output from standstill
+    public static final double THROTTLE_CURRENT_BUDGET = 160;
+    public static final double POWER_DERATE_START_VOLTAGE = 9.0;
+    public static final double POWER_DERATE_END_VOLTAGE = 7.0;
+    public static final double POWER_MIN_BUDGET_FRACTION = 0.25;
+    public static final double POWER_MIN_SCALE = 0.2;
+    public static final double POWER_TRIM_FILTER = 0.2; //Fraction of unexplained current learned per loop
+    public static final int POWER_EVENT_CAPACITY = 256;
+
+    /**
+     * Traction Control (Inches/Second, a wheel slips when it spins faster than its ground contact by more than
+     * TRACTION_SLIP_SPEED plus TRACTION_SLIP_RATIO of the ground speed, and the ground speed estimate changes at most
+     * TRACTION_MAX_ACCEL inches/second^2. Slipping throttles are capped to no less than TRACTION_MIN_SCALE, leading the
+     * ground by as much as the throttle loop lags in TRACTION_RESPONSE_TIME seconds)
+     */
+    public static final boolean TRACTION_CONTROL_ENABLED = false;
+    public static final double TRACTION_MAX_ACCEL = 450; //About 1.15 g, what the tread can push on carpet
+    public static final double TRACTION_SLIP_SPEED = 8;
+    public static final double TRACTION_SLIP_RATIO = 0.05;
+    public static final double TRACTION_MIN_SCALE = 0.1;
+    public static final double TRACTION_RESPONSE_TIME = 0.08;
+
+    /**
+     * Azimuth Planning (Fewest control loops between two throttle reversals of a module)
+     */
+    public static final int MIN_REVERSAL_CYCLES = 10;
+
+    /**
+     * Odometry Update Period (Seconds)
+     */
+    public static final double ODOMETRY_PERIOD = 0.005;
+
+    /**
+     * Gyro Sampling (Seconds, the heading is read in the background and extrapolated by the yaw rate measured over
+     * GYRO_RATE_WINDOW for the age of the sample plus GYRO_LATENCY)
+     */
+    public static final boolean GYRO_SAMPLER_ENABLED = false;
+    public static final double GYRO_SAMPLE_PERIOD = 0.005;
+    public static final double GYRO_LATENCY = 0.01;
+    public static final double GYRO_RATE_WINDOW = 0.04;
+
+    /**
+     * Status Frame Periods (Milliseconds, position and heading are sent as often as odometry reads them, throttle
+     * velocity and current as often as the power budget and traction control read them, and frames nothing reads
+     * are slowed to StatusFrameManager.UNUSED_PERIOD)
+     */
+    public static final int FEEDBACK_FRAME_PERIOD = (int)Math.round(1000 * (THREADED_CONTROL ? CONTROL_THREAD_PERIOD
+        : ODOMETRY_PERIOD));
+    public static final int VELOCITY_FRAME_PERIOD = 20; //Throttle velocity for telemetry, if nothing else reads it
+    public static final int CONTROL_FRAME_PERIOD = 10;
+
+    /**
+     * Number of Loops Kept for Loop Timing Statistics
+     */
+    public static final int LOOP_TIMER_SAMPLES = 1024;
+
+    /**
+     * Telemetry Logging (Module state is recorded every loop to /home/lvuser)
+     */
+    public static final boolean TELEMETRY_ENABLED = true;
+    public static final int TELEMETRY_BUFFER_RECORDS = 512;
+    public static final double TELEMETRY_DRAIN_PERIOD = 0.1; //Seconds
+    public static final int TELEMETRY_MAX_LOGS = 20; //Oldest logs are deleted when a new one is opened
+
+    /**
+     * Trajectory Following (Speeds at full drive output and proportional gains for odometry error, a full rotation
+     * command spins every wheel at MAX_LINEAR_SPEED around the half diagonal of the chassis)
+     */
+    public static final double MAX_LINEAR_SPEED = 150; //Inches/Second
+    public static final double MAX_ANGULAR_SPEED = Math.toDegrees(MAX_LINEAR_SPEED
+        / (Math.hypot(CHASSIS_LENGTH, CHASSIS_WIDTH) / 2)); //Degrees/Second
+    public static final double TRAJECTORY_TRANSLATION_P = 2.0; //(Inches/Second) per Inch
+    public static final double TRAJECTORY_HEADING_P = 3.0; //(Degrees/Second) per Degree
+    public static final String AUTONOMOUS_TRAJECTORY = "Autonomous.traj";
+
     /**
      * Methods of Robot Control
      */
@@ -71,7 +217,23 @@ public final class SwerveConfig{
     }
 
     /**
-     * Minimum Throttle Output (Porportion of Joystick Control)
+     * Swerve Kinematics (SECOND_ORDER leads the heading by half a loop and feeds forward module rotation)
+     */
+    public enum KinematicsMode{
+        FIRST_ORDER,
+        SECOND_ORDER
+    }
+
+    /**
+     * Trigonometry used in the drive loop (FAST uses frc.util.FastMath, see it for error bounds)
+     */
+    public enum MathMode{
+        STANDARD,
+        FAST
+    }
+
+    /**
+     * Minimum Throttle Output (Porportion of Joystick Control, below it the throttles stop and azimuths hold)
      */
     public static final double MIN_THROTTLE = 0.05;
 }
\ No newline at end of file
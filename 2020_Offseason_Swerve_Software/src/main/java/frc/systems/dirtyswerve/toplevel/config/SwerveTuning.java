@@ -0,0 +1,59 @@
+package frc.systems.dirtyswerve.toplevel.config;
+
+/**
+ * The SwerveConfig values that are tuned rather than measured, gathered into one object so a drivetrain can run
+ * with values other than the constants. Simulations use this to try many variants side by side in one process.
+ */
+public final class SwerveTuning{
+
+    /**
+     * Tuning taken from the SwerveConfig constants, used unless another tuning is set
+     */
+    public static final SwerveTuning DEFAULT = new SwerveTuning(SwerveConfig.TRAJECTORY_TRANSLATION_P,
+        SwerveConfig.TRAJECTORY_HEADING_P, SwerveConfig.MIN_THROTTLE);
+
+    private final double translationP;
+    private final double headingP;
+    private final double minThrottle;
+
+    /**
+     * Creates a tuning variant
+     * @param translationP Trajectory position gain in (inches/second) per inch, see TRAJECTORY_TRANSLATION_P
+     * @param headingP Trajectory heading gain in (degrees/second) per degree, see TRAJECTORY_HEADING_P
+     * @param minThrottle Wheel speed below which modules are not updated, see MIN_THROTTLE
+     */
+    public SwerveTuning(double translationP, double headingP, double minThrottle){
+        this.translationP = translationP;
+        this.headingP = headingP;
+        this.minThrottle = minThrottle;
+    }
+
+    /**
+     * Fetches the trajectory position gain
+     * @return Returns the gain in (inches/second) per inch
+     */
+    public double getTranslationP(){
+        return translationP;
+    }
+
+    /**
+     * Fetches the trajectory heading gain
+     * @return Returns the gain in (degrees/second) per degree
+     */
+    public double getHeadingP(){
+        return headingP;
+    }
+
+    /**
+     * Fetches the wheel speed below which modules are not updated
+     * @return Returns the minimum throttle as a proportion of full speed
+     */
+    public double getMinThrottle(){
+        return minThrottle;
+    }
+
+    @Override
+    public String toString(){
+        return "translationP=" + translationP + " headingP=" + headingP + " minThrottle=" + minThrottle;
+    }
+}
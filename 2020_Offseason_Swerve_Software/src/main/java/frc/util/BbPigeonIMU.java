@@ -0,0 +1,15 @@
+package frc.util;
+
+import com.ctre.phoenix.sensors.PigeonIMU;
+
+import frc.hardware.Gyro;
+
+/**
+ * Benzene Bot representation for CTRE Pigeon IMU
+ */
+public class BbPigeonIMU extends PigeonIMU implements Gyro {
+
+    public BbPigeonIMU(int deviceNumber) {
+        super(deviceNumber);
+    }
+}
@@ -1,29 +1,75 @@
 package frc.util;
 
+import com.revrobotics.CANEncoder;
 import com.revrobotics.CANPIDController;
 import com.revrobotics.CANSparkMax;
 import com.revrobotics.CANSparkMaxLowLevel;
 import com.revrobotics.ControlType;
 
+import frc.hardware.ThrottleMotor;
+
 /**
  * Benzene Bot representation for Rev SPARK MAX
  */
-public class BbSparkMax extends CANSparkMax {
+public class BbSparkMax extends CANSparkMax implements ThrottleMotor {
 
     private CANPIDController pidController;
+    private CANEncoder encoder;
+    private final CANWriteFilter writeFilter = new CANWriteFilter();
 
     public BbSparkMax(int deviceId, CANSparkMaxLowLevel.MotorType type) {
         super(deviceId, type);
         pidController = getPIDController();
+        encoder = getEncoder();
     }
     /**
-     * Set PID to be activated
+     * Set PID to be activated. The write is skipped if the same reference was already sent recently.
      *
      * @param value value of unit depending on control type
      * @param ctrl Control Type (Position, Velocity etc.)
      */
     public void setPIDReference(double value, ControlType ctrl){
-        pidController.setReference(value, ctrl);
+        if(writeFilter.shouldSend(ctrl, value)){
+            pidController.setReference(value, ctrl);
+        }
+    }
+
+    /**
+     * Sets the percent output of the motor. The write is skipped if the same output was already sent recently.
+     *
+     * @param speed Percent output from -1.0 to 1.0
+     */
+    @Override
+    public void set(double speed){
+        if(writeFilter.shouldSend(ControlType.kDutyCycle, speed)){
+            super.set(speed);
+        }
+    }
+
+    /**
+     * Gets the position of the built in encoder
+     *
+     * @return Position in encoder units
+     */
+    public double getEncPosition(){
+        return encoder.getPosition();
+    }
+
+    /**
+     * Gets the velocity of the built in encoder
+     *
+     * @return Velocity in encoder units per minute
+     */
+    public double getEncVelocity(){
+        return encoder.getVelocity();
+    }
+
+    /**
+     * Fetches the filter that decides which setpoints are written to the bus
+     * @return Returns the write filter of this motor controller
+     */
+    public CANWriteFilter getWriteFilter(){
+        return writeFilter;
     }
     
 }
@@ -0,0 +1,67 @@
+package frc.util;
+
+import com.ctre.phoenix.motorcontrol.ControlMode;
+import com.ctre.phoenix.motorcontrol.DemandType;
+import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
+
+import frc.hardware.AzimuthMotor;
+import frc.hardware.DriveMotor;
+
+/**
+ * Benzene Bot representation for CTRE Talon SRX
+ */
+public class BbTalonSRX extends WPI_TalonSRX implements AzimuthMotor, DriveMotor {
+
+    private final CANWriteFilter writeFilter = new CANWriteFilter();
+
+    public BbTalonSRX(int deviceNumber) {
+        super(deviceNumber);
+    }
+
+    /**
+     * Sets the output of the motor controller. The write is skipped if the same setpoint was already sent
+     * recently.
+     *
+     * @param mode Control Mode (PercentOutput, Position etc.)
+     * @param value value of unit depending on control mode
+     */
+    @Override
+    public void set(ControlMode mode, double value){
+        if(writeFilter.shouldSend(mode, value)){
+            super.set(mode, value);
+        }
+    }
+
+    @Override
+    public void setPosition(double position){
+        set(ControlMode.Position, position);
+    }
+
+    /**
+     * Sets the closed-loop position target with an arbitrary feedforward. The write is skipped if the same target
+     * and feedforward were already sent recently. Filtered here rather than by overriding the four argument set()
+     * because the two argument set() calls it internally.
+     *
+     * @param position Target in encoder ticks
+     * @param feedforward Feedforward in percent output
+     */
+    @Override
+    public void setPosition(double position, double feedforward){
+        if(writeFilter.shouldSend(ControlMode.Position, position, feedforward)){
+            super.set(ControlMode.Position, position, DemandType.ArbitraryFeedForward, feedforward);
+        }
+    }
+
+    @Override
+    public double getPosition(){
+        return getSelectedSensorPosition();
+    }
+
+    /**
+     * Fetches the filter that decides which setpoints are written to the bus
+     * @return Returns the write filter of this motor controller
+     */
+    public CANWriteFilter getWriteFilter(){
+        return writeFilter;
+    }
+}
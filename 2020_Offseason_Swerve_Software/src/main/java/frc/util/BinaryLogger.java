@@ -0,0 +1,158 @@
+package frc.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only log of fixed-size binary records. One thread (the control loop) writes records into a preallocated
+ * ring buffer and a background thread drains them to the file in batches. The two threads only share a pair of
+ * counters, so writing a record never locks, blocks on the file system or allocates. If the ring fills up because
+ * the file system stalls, new records are dropped and counted instead of blocking the writer.
+ *
+ * File layout (big endian): int magic, int version, int record size in bytes, followed by the records.
+ */
+public class BinaryLogger implements AutoCloseable{
+
+    public static final int HEADER_SIZE = 12;
+
+    private final int recordSize;
+    private final int capacity;
+    private final ByteBuffer ring;
+    private final ByteBuffer drainView;
+
+    private final AtomicLong head = new AtomicLong(); //Next record to be written, owned by the writer
+    private final AtomicLong tail = new AtomicLong(); //Next record to be drained, owned by the drain thread
+    private volatile long droppedRecords;
+
+    private final FileChannel channel;
+    private final Thread drainThread;
+    private final long drainPeriodNanos;
+    private volatile boolean running = true;
+
+    /**
+     * Opens a new log file and starts the drain thread
+     * @param file File to write, replaced if it exists
+     * @param magic Identifies the type of record in the file
+     * @param version Version of the record layout
+     * @param recordSize Size of every record in bytes
+     * @param capacity Number of records the ring buffer holds
+     * @param drainPeriod Time between batches written to the file in seconds
+     * @throws IOException If the file can't be opened
+     */
+    public BinaryLogger(File file, int magic, int version, int recordSize, int capacity, double drainPeriod)
+            throws IOException{
+        this.recordSize = recordSize;
+        this.capacity = capacity;
+        this.ring = ByteBuffer.allocateDirect(recordSize * capacity);
+        this.drainView = ring.duplicate();
+        this.drainPeriodNanos = (long)(drainPeriod * 1e9);
+
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(magic).putInt(version).putInt(recordSize).flip();
+        while(header.hasRemaining()){
+            channel.write(header);
+        }
+
+        drainThread = new Thread(this::drainLoop, "BinaryLogger-" + file.getName());
+        drainThread.setDaemon(true);
+        drainThread.setPriority(Thread.MIN_PRIORITY);
+        drainThread.start();
+    }
+
+    /**
+     * Reserves the next record in the ring buffer. Fill it with absolute puts on getBuffer() starting at the returned
+     * offset, then call commit(). Must only be called from one thread.
+     * @return Returns the byte offset of the record, or -1 if the ring is full and the record was dropped
+     */
+    public int beginRecord(){
+        long next = head.get();
+        if(next - tail.get() >= capacity){
+            droppedRecords++;
+            return -1;
+        }
+        return (int)(next % capacity) * recordSize;
+    }
+
+    /**
+     * Publishes the record reserved by beginRecord() to the drain thread
+     */
+    public void commit(){
+        head.lazySet(head.get() + 1);
+    }
+
+    /**
+     * Fetches the ring buffer that records are written into
+     * @return Returns the ring buffer
+     */
+    public ByteBuffer getBuffer(){
+        return ring;
+    }
+
+    /**
+     * Fetches the number of records dropped because the ring buffer was full
+     * @return Returns the number of dropped records
+     */
+    public long getDroppedRecords(){
+        return droppedRecords;
+    }
+
+    /**
+     * Writes every remaining record and closes the file
+     */
+    @Override
+    public void close(){
+        running = false;
+        LockSupport.unpark(drainThread);
+        try{
+            drainThread.join(1000);
+        }catch(InterruptedException ex){
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop(){
+        try{
+            while(running){
+                drain();
+                LockSupport.parkNanos(drainPeriodNanos);
+            }
+            drain();
+            channel.force(false);
+        }catch(IOException ex){
+            ex.printStackTrace();
+        }finally{
+            try{
+                channel.close();
+            }catch(IOException ex){
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    private void drain() throws IOException{
+        long end = head.get();
+        long start = tail.get();
+        while(start < end){
+            //Write up to the end of the ring, the rest is written on the next pass after wrapping around
+            int first = (int)(start % capacity);
+            int count = (int)Math.min(end - start, capacity - first);
+
+            drainView.clear();
+            drainView.position(first * recordSize);
+            drainView.limit((first + count) * recordSize);
+            while(drainView.hasRemaining()){
+                channel.write(drainView);
+            }
+
+            start += count;
+            tail.lazySet(start);
+        }
+    }
+}
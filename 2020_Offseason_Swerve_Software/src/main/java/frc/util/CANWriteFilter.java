@@ -0,0 +1,123 @@
+package frc.util;
+
+/**
+ * Keeps track of the last setpoint sent to a motor controller so that repeated writes of the same value can be
+ * skipped. A write is still sent every few cycles as a keep-alive even if nothing has changed.
+ */
+public class CANWriteFilter{
+
+    public static final double DEFAULT_EPSILON = 1e-4;
+    public static final int DEFAULT_KEEP_ALIVE_CYCLES = 10;
+
+    private double epsilon;
+    private int keepAliveCycles;
+
+    private Enum<?> lastMode;
+    private double lastValue;
+    private double lastDemand;
+    private int cyclesSinceSend;
+
+    private long sentWrites;
+    private long suppressedWrites;
+
+    /**
+     * Creates a write filter with the default epsilon and keep-alive period
+     */
+    public CANWriteFilter(){
+        this(DEFAULT_EPSILON, DEFAULT_KEEP_ALIVE_CYCLES);
+    }
+
+    /**
+     * Creates a write filter
+     * @param epsilon Largest change in setpoint that is still considered the same value
+     * @param keepAliveCycles Number of suppressed writes in a row before the setpoint is resent anyways
+     */
+    public CANWriteFilter(double epsilon, int keepAliveCycles){
+        configure(epsilon, keepAliveCycles);
+    }
+
+    /**
+     * Changes the epsilon and keep-alive period of the filter
+     * @param epsilon Largest change in setpoint that is still considered the same value
+     * @param keepAliveCycles Number of suppressed writes in a row before the setpoint is resent anyways
+     */
+    public void configure(double epsilon, int keepAliveCycles){
+        this.epsilon = epsilon;
+        this.keepAliveCycles = keepAliveCycles;
+    }
+
+    /**
+     * Determines if a setpoint should be sent to the motor controller and records it as sent if so
+     * @param mode Control mode or control type of the setpoint
+     * @param value Setpoint value
+     * @return Returns true if the setpoint needs to be written to the bus
+     */
+    public boolean shouldSend(Enum<?> mode, double value){
+        return shouldSend(mode, value, 0);
+    }
+
+    /**
+     * Determines if a setpoint with a second demand, such as an arbitrary feedforward, should be sent to the motor
+     * controller and records it as sent if so. The demand is compared against DEFAULT_EPSILON since it is usually
+     * in different units than the setpoint.
+     * @param mode Control mode or control type of the setpoint
+     * @param value Setpoint value
+     * @param demand Second demand sent with the setpoint
+     * @return Returns true if the setpoint needs to be written to the bus
+     */
+    public boolean shouldSend(Enum<?> mode, double value, double demand){
+        if(mode == lastMode && Math.abs(value - lastValue) <= epsilon && Math.abs(demand - lastDemand) <= DEFAULT_EPSILON
+                && cyclesSinceSend < keepAliveCycles){
+            cyclesSinceSend++;
+            suppressedWrites++;
+            return false;
+        }
+
+        lastMode = mode;
+        lastValue = value;
+        lastDemand = demand;
+        cyclesSinceSend = 0;
+        sentWrites++;
+        return true;
+    }
+
+    /**
+     * Forgets the last setpoint so the next write is always sent
+     */
+    public void reset(){
+        lastMode = null;
+    }
+
+    /**
+     * Fetches the number of writes that were sent to the bus
+     * @return Returns the number of sent writes
+     */
+    public long getSentWrites(){
+        return sentWrites;
+    }
+
+    /**
+     * Fetches the number of writes that were skipped because the setpoint did not change
+     * @return Returns the number of suppressed writes
+     */
+    public long getSuppressedWrites(){
+        return suppressedWrites;
+    }
+
+    /**
+     * Fetches the fraction of requested writes that actually went out on the bus
+     * @return Returns a value from 0 to 1, or 1 if nothing has been written yet
+     */
+    public double getBusUtilization(){
+        long total = sentWrites + suppressedWrites;
+        return total == 0 ? 1.0 : (double)sentWrites / total;
+    }
+
+    /**
+     * Resets the sent and suppressed write counters
+     */
+    public void resetCounters(){
+        sentWrites = 0;
+        suppressedWrites = 0;
+    }
+}
@@ -0,0 +1,404 @@
+package frc.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+/**
+ * Stores calibration values such as azimuth offsets in a single file on the roboRIO. Values are cached in memory
+ * after the file is first read. Changes are written on a background thread by writing a temporary file and renaming
+ * it over the old one, so a brownout mid-write never leaves a half written file behind. A file that could not be read
+ * is renamed to a .corrupt file before it is first saved over, so the values it held for other keys are not lost.
+ *
+ * The file can also be changed while the robot runs, for example with this class's main method over SSH. Once
+ * watch() is called the store polls the file and reloads it when something else has written it, then notifies its
+ * listeners so values like PID gains can be applied without a redeploy.
+ *
+ * File layout (big endian): int magic, int version, int entry count, entries of (UTF key, double value), and a
+ * CRC32 of everything before it.
+ */
+public class CalibrationStore{
+
+    public static final File DEFAULT_FILE = new File("/home/lvuser/Calibration.dat");
+
+    private static final int MAGIC = 0x42424341; //"BBCA"
+    private static final int VERSION = 1;
+
+    private static CalibrationStore defaultStore;
+
+    /**
+     * Result of reading the calibration file
+     */
+    public enum LoadStatus{
+        NOT_LOADED,
+        LOADED,
+        MISSING,
+        CORRUPT
+    }
+
+    private final File file;
+    private final Map<String, Double> values = new HashMap<>();
+    private LoadStatus loadStatus = LoadStatus.NOT_LOADED;
+    private String loadError;
+    private boolean corruptFileMoved;
+
+    //Size and modification time of the file when this store last read or wrote it
+    private long knownModified, knownLength;
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    private boolean watching;
+
+    private final AtomicBoolean savePending = new AtomicBoolean();
+    private final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "CalibrationStore");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    /**
+     * Creates a calibration store backed by a file. Nothing is read until a value is first requested.
+     * @param file File the calibration values are kept in
+     */
+    public CalibrationStore(File file){
+        this.file = file;
+    }
+
+    /**
+     * Fetches the calibration store shared by the whole robot
+     * @return Returns the store backed by DEFAULT_FILE
+     */
+    public static synchronized CalibrationStore getDefault(){
+        if(defaultStore == null){
+            defaultStore = new CalibrationStore(DEFAULT_FILE);
+        }
+        return defaultStore;
+    }
+
+    /**
+     * Reads the calibration file into memory if it hasn't been read yet. Calling this once at startup means every
+     * later lookup is served from memory.
+     * @return Returns the result of reading the file
+     */
+    public synchronized LoadStatus load(){
+        ensureLoaded();
+        return loadStatus;
+    }
+
+    /**
+     * Fetches the result of reading the calibration file
+     * @return Returns the load status
+     */
+    public synchronized LoadStatus getLoadStatus(){
+        return loadStatus;
+    }
+
+    /**
+     * Fetches a description of why the calibration file could not be used
+     * @return Returns the error, or null if the file loaded
+     */
+    public synchronized String getLoadError(){
+        return loadError;
+    }
+
+    /**
+     * Fetches the file the values are kept in
+     * @return Returns the calibration file
+     */
+    public File getFile(){
+        return file;
+    }
+
+    /**
+     * Determines if a value has been stored
+     * @param key Name of the value
+     * @return Returns true if the value exists
+     */
+    public synchronized boolean contains(String key){
+        ensureLoaded();
+        return values.containsKey(key);
+    }
+
+    /**
+     * Fetches a stored value
+     * @param key Name of the value
+     * @param defaultValue Value returned if nothing is stored under the key
+     * @return Returns the stored value or the default
+     */
+    public synchronized double get(String key, double defaultValue){
+        ensureLoaded();
+        Double value = values.get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    /**
+     * Stores a value. The cache is updated immediately and the file is written in the background, so this never
+     * waits on the file system.
+     * @param key Name of the value
+     * @param value Value to store
+     */
+    public synchronized void put(String key, double value){
+        ensureLoaded();
+        values.put(key, value);
+
+        if(savePending.compareAndSet(false, true)){
+            writer.execute(this::save);
+        }
+    }
+
+    /**
+     * Starts polling the file for changes made by something other than this store. Polling and reloading run on the
+     * background thread, so the control loop never waits on the file system.
+     * @param period Time between checks in seconds
+     */
+    public synchronized void watch(double period){
+        if(watching){
+            return;
+        }
+        watching = true;
+        long periodMs = (long)(period * 1000);
+        writer.scheduleWithFixedDelay(this::reloadIfChanged, periodMs, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Adds a listener that is run on the background thread every time the file is reloaded with new values
+     * @param listener Runs after a reload
+     */
+    public void addListener(Runnable listener){
+        listeners.add(listener);
+    }
+
+    /**
+     * Reads the file again if something other than this store has written it since it was last read. Values in the
+     * file replace the cached ones. A corrupt file is reported and ignored.
+     * @return Returns true if the file was reloaded
+     */
+    public boolean reloadIfChanged(){
+        long modified, length;
+        synchronized(this){
+            ensureLoaded();
+            modified = file.lastModified();
+            length = file.length();
+            if(savePending.get() || !file.isFile() || (modified == knownModified && length == knownLength)){
+                return false;
+            }
+        }
+
+        Map<String, Double> decoded;
+        try{
+            decoded = decode(Files.readAllBytes(file.toPath()));
+        }catch(IOException ex){
+            System.err.println(file + " changed but could not be read, keeping the old values: " + ex.getMessage());
+            synchronized(this){
+                knownModified = modified;
+                knownLength = length;
+            }
+            return false;
+        }
+
+        synchronized(this){
+            values.clear();
+            values.putAll(decoded);
+            loadStatus = LoadStatus.LOADED;
+            loadError = null;
+            knownModified = modified;
+            knownLength = length;
+        }
+        for(Runnable listener : listeners){
+            listener.run();
+        }
+        return true;
+    }
+
+    /**
+     * Waits for any pending background write to finish
+     * @param timeoutMs Longest time to wait in milliseconds
+     */
+    public void flush(long timeoutMs){
+        try{
+            writer.submit(() -> {}).get(timeoutMs, TimeUnit.MILLISECONDS);
+        }catch(Exception ex){
+            ex.printStackTrace();
+        }
+    }
+
+    private void ensureLoaded(){
+        if(loadStatus != LoadStatus.NOT_LOADED){
+            return;
+        }
+
+        if(!file.isFile()){
+            loadStatus = LoadStatus.MISSING;
+            loadError = file + " does not exist";
+            return;
+        }
+        try{
+            knownModified = file.lastModified();
+            knownLength = file.length();
+            values.putAll(decode(Files.readAllBytes(file.toPath())));
+            loadStatus = LoadStatus.LOADED;
+        }catch(IOException ex){
+            loadStatus = LoadStatus.CORRUPT;
+            loadError = file + " could not be read: " + ex.getMessage();
+        }
+    }
+
+    private void save(){
+        savePending.set(false);
+
+        byte[] data;
+        synchronized(this){
+            data = encode(values);
+        }
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        try(FileChannel channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            channel.write(ByteBuffer.wrap(data));
+            channel.force(true);
+        }catch(IOException ex){
+            ex.printStackTrace();
+            return;
+        }
+        if(!moveCorruptFile()){
+            return;
+        }
+
+        try{
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        }catch(IOException ex){
+            ex.printStackTrace();
+            return;
+        }
+        //Reloads run on this thread too, so this store's own write is never mistaken for an outside change
+        synchronized(this){
+            knownModified = file.lastModified();
+            knownLength = file.length();
+        }
+    }
+
+    /**
+     * Prints or changes the values in a calibration file. A robot watching the file picks up the changes.
+     *
+     * Usage: CalibrationStore file [key=value ...]
+     * @param args The file followed by the values to store
+     */
+    public static void main(String[] args){
+        if(args.length == 0){
+            System.err.println("Usage: CalibrationStore file [key=value ...]");
+            System.exit(1);
+        }
+        CalibrationStore store = new CalibrationStore(new File(args[0]));
+        if(store.load() == LoadStatus.CORRUPT){
+            System.err.println(store.getLoadError());
+            System.exit(1);
+        }
+        for(int i = 1; i < args.length; i++){
+            String[] entry = args[i].split("=", 2);
+            store.put(entry[0].trim(), Double.parseDouble(entry[1].trim()));
+        }
+        store.flush(5000);
+
+        synchronized(store){
+            new TreeMap<>(store.values).forEach((key, value) -> System.out.println(key + " = " + value));
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Renames a file that could not be read out of the way before the first save replaces it, so the values it still
+     * holds for keys that were never stored again can be recovered by hand
+     * @return Returns false if the file is still in the way and must not be replaced
+     */
+    private boolean moveCorruptFile(){
+        synchronized(this){
+            if(loadStatus != LoadStatus.CORRUPT || corruptFileMoved){
+                return true;
+            }
+        }
+        File corruptFile = new File(file.getPath() + ".corrupt");
+        if(corruptFile.exists()){
+            corruptFile = new File(file.getPath() + ".corrupt." + System.currentTimeMillis());
+        }
+        try{
+            if(file.exists()){
+                Files.move(file.toPath(), corruptFile.toPath());
+                System.err.println(file + " could not be read, moved it to " + corruptFile + " before saving");
+            }
+        }catch(IOException ex){
+            System.err.println(file + " could not be read or moved aside, not saving over it: " + ex.getMessage());
+            return false;
+        }
+        synchronized(this){
+            corruptFileMoved = true;
+        }
+        return true;
+    }
+
+    private static byte[] encode(Map<String, Double> values){
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(DataOutputStream out = new DataOutputStream(bytes)){
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(values.size());
+            for(Map.Entry<String, Double> entry : values.entrySet()){
+                out.writeUTF(entry.getKey());
+                out.writeDouble(entry.getValue());
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int)crc.getValue());
+        }catch(IOException ex){
+            //ByteArrayOutputStream never throws
+            throw new IllegalStateException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Map<String, Double> decode(byte[] data) throws IOException{
+        if(data.length < 16){
+            throw new IOException("file is too short");
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        if((int)crc.getValue() != ByteBuffer.wrap(data, data.length - 4, 4).getInt()){
+            throw new IOException("checksum does not match");
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - 4));
+        if(in.readInt() != MAGIC){
+            throw new IOException("not a calibration file");
+        }
+        int version = in.readInt();
+        if(version != VERSION){
+            throw new IOException("unsupported version " + version);
+        }
+
+        Map<String, Double> decoded = new HashMap<>();
+        int count = in.readInt();
+        for(int i = 0; i < count; i++){
+            decoded.put(in.readUTF(), in.readDouble());
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,98 @@
+package frc.util;
+
+/**
+ * Faster replacements for the java.lang.Math functions used in the drive loop. On the roboRIO's ARM core
+ * Math.hypot, Math.atan2, Math.sin and Math.cos are done in software with extra care for extreme inputs that joystick
+ * and gyro values never reach. These trade that care for speed with a bounded error:
+ *
+ * sin, cos - 4096 entry table with linear interpolation, absolute error below 3e-7
+ * atan2 - 9th order polynomial (Abramowitz and Stegun 4.4.49), absolute error below 1.2e-5 radians (0.0007 degrees)
+ * hypot - sqrt(x*x + y*y), relative error below 3e-16 but may overflow for values above 1e154
+ *
+ * Nothing is allocated and the table is built once when the class loads.
+ */
+public final class FastMath{
+
+    private static final int TABLE_SIZE = 4096; //Must be a power of 2
+    private static final int TABLE_MASK = TABLE_SIZE - 1;
+    private static final double INDEX_SCALE = TABLE_SIZE / (2 * Math.PI);
+    private static final double[] SIN_TABLE = new double[TABLE_SIZE + 1];
+
+    private static final double ATAN_A1 = 0.9998660;
+    private static final double ATAN_A3 = -0.3302995;
+    private static final double ATAN_A5 = 0.1801410;
+    private static final double ATAN_A7 = -0.0851330;
+    private static final double ATAN_A9 = 0.0208351;
+
+    static{
+        for(int i = 0; i <= TABLE_SIZE; i++){
+            SIN_TABLE[i] = Math.sin(i / INDEX_SCALE);
+        }
+    }
+
+    private FastMath(){
+    }
+
+    /**
+     * Approximates the sine of an angle
+     * @param radians Angle in radians
+     * @return Returns the sine of the angle
+     */
+    public static double sin(double radians){
+        return lookup(radians * INDEX_SCALE);
+    }
+
+    /**
+     * Approximates the cosine of an angle
+     * @param radians Angle in radians
+     * @return Returns the cosine of the angle
+     */
+    public static double cos(double radians){
+        return lookup(radians * INDEX_SCALE + TABLE_SIZE / 4);
+    }
+
+    /**
+     * Approximates the angle of the point (x, y) from the positive x axis, like Math.atan2()
+     * @param y Y coordinate
+     * @param x X coordinate
+     * @return Returns the angle in radians from -pi to pi
+     */
+    public static double atan2(double y, double x){
+        double absX = Math.abs(x);
+        double absY = Math.abs(y);
+        if(absX == 0 && absY == 0){
+            return 0;
+        }
+
+        //Reduce to an angle from 0 to 45 degrees, where the polynomial is accurate
+        double ratio = Math.min(absX, absY) / Math.max(absX, absY);
+        double squared = ratio * ratio;
+        double angle = ratio * (ATAN_A1 + squared * (ATAN_A3 + squared * (ATAN_A5 + squared * (ATAN_A7
+            + squared * ATAN_A9))));
+
+        if(absY > absX){
+            angle = Math.PI / 2 - angle;
+        }
+        if(x < 0){
+            angle = Math.PI - angle;
+        }
+        return y < 0 ? -angle : angle;
+    }
+
+    /**
+     * Calculates the length of the vector (x, y) without Math.hypot()'s overflow protection
+     * @param x X component
+     * @param y Y component
+     * @return Returns the length of the vector
+     */
+    public static double hypot(double x, double y){
+        return Math.sqrt(x * x + y * y);
+    }
+
+    private static double lookup(double index){
+        double floor = Math.floor(index);
+        int i = (int)((long)floor & TABLE_MASK);
+        double fraction = index - floor;
+        return SIN_TABLE[i] + (SIN_TABLE[i + 1] - SIN_TABLE[i]) * fraction;
+    }
+}
@@ -0,0 +1,177 @@
+package frc.util;
+
+import java.lang.invoke.VarHandle;
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.Notifier;
+
+import frc.hardware.Gyro;
+
+/**
+ * Reads a gyro on a Notifier of its own and caches each heading with the time it was read, so control loops never
+ * wait on the gyro. The yaw rate is measured from the cached headings over at least the rate window, and
+ * getHeading() extrapolates the latest heading with it by the age of the sample plus the gyro's own latency. A gyro
+ * reports where the robot was when its last fusion frame was sent, so without this a spinning robot's heading is
+ * always a few degrees behind and field oriented driving curves away from the commanded direction.
+ *
+ * Only the sampler's thread, or whoever calls sample() when it is not started, may sample. Any thread may read:
+ * every read retries until it sees a whole sample, since doubles can tear on the 32-bit roboRIO.
+ */
+public class GyroSampler{
+
+    private static final int HISTORY = 16;
+
+    private final Gyro gyro;
+    private final DoubleSupplier clock;
+    private final double latency;
+    private final double rateWindow;
+
+    //Owned by the sampling thread
+    private final double[] historyHeadings = new double[HISTORY];
+    private final double[] historyTimes = new double[HISTORY];
+    private int historyCount, historyNext;
+
+    //Published by the sampling thread, odd while being written and 0 until the first sample
+    private volatile long sequence;
+    private double heading, yawRate, sampleTime;
+
+    private Notifier notifier;
+
+    /**
+     * Creates a sampler timed by System.nanoTime() without starting it
+     * @param gyro Gyro to read
+     * @param latency Seconds from the robot turning to the gyro reporting it, added to the age of every sample
+     * @param rateWindow Shortest time in seconds the yaw rate is measured over
+     */
+    public GyroSampler(Gyro gyro, double latency, double rateWindow){
+        this(gyro, () -> System.nanoTime() / 1e9, latency, rateWindow);
+    }
+
+    /**
+     * Creates a sampler without starting it
+     * @param gyro Gyro to read
+     * @param clock Current time in seconds, such as the simulated time
+     * @param latency Seconds from the robot turning to the gyro reporting it, added to the age of every sample
+     * @param rateWindow Shortest time in seconds the yaw rate is measured over
+     */
+    public GyroSampler(Gyro gyro, DoubleSupplier clock, double latency, double rateWindow){
+        this.gyro = gyro;
+        this.clock = clock;
+        this.latency = latency;
+        this.rateWindow = rateWindow;
+    }
+
+    /**
+     * Starts reading the gyro in the background
+     * @param period Time between samples in seconds, no longer than the gyro's fusion status frame
+     */
+    public void start(double period){
+        if(notifier == null){
+            notifier = new Notifier(this::sample);
+        }
+        notifier.startPeriodic(period);
+    }
+
+    /**
+     * Stops reading the gyro. The last sample stays cached.
+     */
+    public void stop(){
+        if(notifier != null){
+            notifier.stop();
+        }
+    }
+
+    /**
+     * Reads the gyro once and publishes the heading, yaw rate and time
+     */
+    public void sample(){
+        double time = clock.getAsDouble();
+        double reading = gyro.getFusedHeading();
+
+        historyHeadings[historyNext] = reading;
+        historyTimes[historyNext] = time;
+        historyNext = (historyNext + 1) % HISTORY;
+        historyCount = Math.min(historyCount + 1, HISTORY);
+
+        //Newest sample at least a window older than this one, or the oldest kept if none are that old yet
+        double rate = 0;
+        for(int age = 1; age < historyCount; age++){
+            int index = (historyNext - 1 - age + HISTORY) % HISTORY;
+            double span = time - historyTimes[index];
+            if(span >= rateWindow || age == historyCount - 1){
+                rate = span > 0 ? Math.IEEEremainder(reading - historyHeadings[index], 360.0) / span : 0;
+                break;
+            }
+        }
+
+        sequence = sequence + 1;
+        VarHandle.storeStoreFence();
+        heading = reading;
+        yawRate = rate;
+        sampleTime = time;
+        sequence = sequence + 1;
+    }
+
+    /**
+     * Fetches the heading extrapolated to the current time
+     * @return Returns the heading in degrees, positive counter-clockwise
+     */
+    public double getHeading(){
+        return getHeading(clock.getAsDouble());
+    }
+
+    /**
+     * Fetches the heading extrapolated to the given time by the measured yaw rate. Reads the gyro directly if
+     * nothing has been sampled yet.
+     * @param time Time in seconds from the sampler's clock
+     * @return Returns the heading in degrees, positive counter-clockwise
+     */
+    public double getHeading(double time){
+        while(true){
+            long seq = sequence;
+            if(seq == 0){
+                return gyro.getFusedHeading();
+            }
+            if((seq & 1) == 0){
+                double cachedHeading = heading, cachedRate = yawRate, cachedTime = sampleTime;
+                VarHandle.loadLoadFence();
+                if(seq == sequence){
+                    return cachedHeading + cachedRate * (time - cachedTime + latency);
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Fetches the yaw rate measured from the latest samples
+     * @return Returns the yaw rate in degrees/second, positive counter-clockwise
+     */
+    public double getYawRate(){
+        while(true){
+            long seq = sequence;
+            double cachedRate = yawRate;
+            VarHandle.loadLoadFence();
+            if((seq & 1) == 0 && seq == sequence){
+                return cachedRate;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Fetches when the latest sample was read
+     * @return Returns the time in seconds from the sampler's clock, or 0 if nothing has been sampled
+     */
+    public double getSampleTime(){
+        while(true){
+            long seq = sequence;
+            double cachedTime = sampleTime;
+            VarHandle.loadLoadFence();
+            if((seq & 1) == 0 && seq == sequence){
+                return cachedTime;
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package frc.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * Measures how long each stage of a periodic loop takes using System.nanoTime(). Durations are kept in a
+ * preallocated ring buffer so recording never allocates. Percentiles and maximums are calculated over the samples
+ * currently in the buffer when they are requested.
+ *
+ * One thread records loops with start(), mark() and end(). Any other thread can read the statistics or dump the
+ * timer while it is recording: the loop in progress has its own slot, so only finished loops are read, and end()
+ * publishes each loop under the timer's lock.
+ *
+ * @param <E> Enum listing the stages of the loop in the order they run
+ */
+public class LoopTimer<E extends Enum<E>>{
+
+    private final E[] stages;
+    private final int capacity;
+
+    //One row per stage plus a final row for the whole loop, in nanoseconds. There is one more slot than capacity so
+    //the loop being recorded never overwrites a loop that can be read.
+    private final long[][] samples;
+    private final long[] scratch;
+    private int position;
+    private int count;
+
+    private boolean running;
+    private long loopStart;
+    private long lastMark;
+
+    /**
+     * Creates a loop timer
+     * @param stageType Enum class listing the stages of the loop
+     * @param capacity Number of loops kept for statistics
+     */
+    public LoopTimer(Class<E> stageType, int capacity){
+        this.stages = stageType.getEnumConstants();
+        this.capacity = capacity;
+        this.samples = new long[stages.length + 1][capacity + 1];
+        this.scratch = new long[capacity];
+    }
+
+    /**
+     * Marks the start of a loop
+     */
+    public void start(){
+        start(System.nanoTime());
+    }
+
+    /**
+     * Marks the start of a loop that began at an earlier time, such as when the stages run on different threads
+     * @param startNanos System.nanoTime() at the start of the loop
+     */
+    public void start(long startNanos){
+        loopStart = startNanos;
+        lastMark = loopStart;
+        running = true;
+        for(int i = 0; i < stages.length; i++){
+            samples[i][position] = 0;
+        }
+    }
+
+    /**
+     * Records the time since the last mark (or the start of the loop) as the duration of a stage. Ignored if the
+     * loop was not started.
+     * @param stage Stage that just finished
+     */
+    public void mark(E stage){
+        mark(stage, System.nanoTime());
+    }
+
+    /**
+     * Records a stage that finished at an earlier time, see mark(E)
+     * @param stage Stage that finished
+     * @param nanos System.nanoTime() when the stage finished
+     */
+    public void mark(E stage, long nanos){
+        if(!running){
+            return;
+        }
+        samples[stage.ordinal()][position] += nanos - lastMark;
+        lastMark = nanos;
+    }
+
+    /**
+     * Marks the end of a loop and records its total duration
+     */
+    public void end(){
+        if(!running){
+            return;
+        }
+        samples[stages.length][position] = System.nanoTime() - loopStart;
+        running = false;
+
+        synchronized(this){
+            position = (position + 1) % (capacity + 1);
+            if(count < capacity){
+                count++;
+            }
+        }
+    }
+
+    /**
+     * Fetches a percentile of a stage's duration over the recorded loops
+     * @param stage Stage to measure, or null for the whole loop
+     * @param percentile Percentile from 0 to 100
+     * @return Returns the duration in microseconds
+     */
+    public synchronized double getPercentile(E stage, double percentile){
+        copyRow(row(stage), scratch);
+        return percentile(scratch, count, percentile);
+    }
+
+    /**
+     * Fetches the longest duration of a stage over the recorded loops
+     * @param stage Stage to measure, or null for the whole loop
+     * @return Returns the duration in microseconds
+     */
+    public synchronized double getMax(E stage){
+        copyRow(row(stage), scratch);
+        return max(scratch, count);
+    }
+
+    /**
+     * Fetches the number of loops currently recorded
+     * @return Returns the number of samples
+     */
+    public synchronized int getCount(){
+        return count;
+    }
+
+    /**
+     * Writes p50, p99 and max of every stage followed by every recorded loop to a CSV file. This allocates and
+     * touches the file system, so it should only be called while disabled. The recorded loops are copied first, so
+     * the recording thread is not held up while the file is written.
+     * @param file File to write
+     */
+    public void dump(File file){
+        long[][] copy;
+        int loops;
+        synchronized(this){
+            loops = count;
+            copy = new long[stages.length + 1][loops];
+            for(int row = 0; row <= stages.length; row++){
+                copyRow(row, copy[row]);
+            }
+        }
+
+        try(PrintWriter out = new PrintWriter(file)){
+            out.println("stage,p50_us,p99_us,max_us");
+            for(int row = 0; row <= stages.length; row++){
+                String name = row < stages.length ? stages[row].name() : "TOTAL";
+                long[] sorted = copy[row].clone();
+                out.println(name + "," + percentile(sorted, loops, 50) + "," + percentile(sorted, loops, 99) + ","
+                    + max(sorted, loops));
+            }
+            out.println();
+
+            StringBuilder header = new StringBuilder();
+            for(E stage : stages){
+                header.append(stage.name()).append("_us,");
+            }
+            out.println(header.append("TOTAL_us"));
+
+            for(int i = 0; i < loops; i++){
+                StringBuilder line = new StringBuilder();
+                for(int row = 0; row <= stages.length; row++){
+                    if(row > 0){
+                        line.append(',');
+                    }
+                    line.append(copy[row][i] / 1000.0);
+                }
+                out.println(line);
+            }
+        }catch(IOException ex){
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Copies the finished loops of one row, oldest first. Must be called while holding the timer's lock.
+     * @param row Stage ordinal, or the number of stages for the whole loop
+     * @param destination Array of at least count elements
+     */
+    private void copyRow(int row, long[] destination){
+        int first = (position - count + capacity + 1) % (capacity + 1);
+        for(int i = 0; i < count; i++){
+            destination[i] = samples[row][(first + i) % (capacity + 1)];
+        }
+    }
+
+    private static double percentile(long[] values, int length, double percentile){
+        if(length == 0){
+            return 0;
+        }
+        Arrays.sort(values, 0, length);
+        int index = (int)Math.ceil(percentile / 100.0 * length) - 1;
+        return values[Math.max(0, Math.min(length - 1, index))] / 1000.0;
+    }
+
+    private static double max(long[] values, int length){
+        long max = 0;
+        for(int i = 0; i < length; i++){
+            max = Math.max(max, values[i]);
+        }
+        return max / 1000.0;
+    }
+
+    private int row(E stage){
+        return stage == null ? stages.length : stage.ordinal();
+    }
+}
@@ -1,17 +1,44 @@
 package frc.util;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
 import com.ctre.phoenix.motorcontrol.can.WPI_TalonSRX;
 import com.ctre.phoenix.motorcontrol.can.WPI_VictorSPX;
+import com.revrobotics.CANPIDController;
 import com.revrobotics.CANSparkMax;
 
 public class PID_Config{
 
-    private double kP, kI, kD, kF;
-    private int iZone; 
+    /**
+     * Seconds between checks of the calibration file for gains changed outside the robot program
+     */
+    public static final double RELOAD_PERIOD = 1.0;
+
+    private static final int P = 0, I = 1, D = 2, F = 3, IZONE = 4;
+    private static final String[] KEYS = {"kP", "kI", "kD", "kF", "iZone"};
+
+    //Every gain change is written by this thread, so retuning never waits on a motor controller
+    private static final ExecutorService pusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "PID_Config");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private final String name;
+    private volatile double kP, kI, kD, kF;
+    private volatile int iZone;
+    private boolean loaded;
+
+    private final List<Binding> bindings = new CopyOnWriteArrayList<>();
 
     /**
-     * This class is used to create a PID configuration that can be applied to both the new SparkMax Controllers as well as 
-     * talon and victor's controllers. 
+     * This class is used to create a PID configuration that can be applied to both the new SparkMax Controllers as well as
+     * talon and victor's controllers.
      * @param kP Assign a P value for the assosciated PID loop
      * @param kI Assign an I value for the assosciated PID loop
      * @param kD Assign a D value for the assosciated PID loop
@@ -19,6 +46,23 @@ public class PID_Config{
      * @param iZone Assign a designated zone of integration for the assosciated PID loop
      */
     public PID_Config(double kP,double kI,double kD,double kF,int iZone){
+        this(null, kP, kI, kD, kF, iZone);
+    }
+
+    /**
+     * Creates a PID configuration whose gains are kept in the calibration store under the given name, so they can be
+     * retuned while the robot runs. The values given here are only used until gains are stored. Stored gains are
+     * read when the configuration is first assigned, and any change to them is pushed to every motor controller the
+     * configuration was assigned to.
+     * @param name Name of the PID loop - This determines the keys in the calibration store
+     * @param kP Assign a P value for the assosciated PID loop
+     * @param kI Assign an I value for the assosciated PID loop
+     * @param kD Assign a D value for the assosciated PID loop
+     * @param kF Assign a F value for the assosciated PID loop
+     * @param iZone Assign a designated zone of integration for the assosciated PID loop
+     */
+    public PID_Config(String name,double kP,double kI,double kD,double kF,int iZone){
+        this.name = name;
         this.kP = kP;
         this.kI = kI;
         this.kD = kD;
@@ -28,7 +72,7 @@ public class PID_Config{
 
     /**
      * Fetches the P Value of the PID Configuration
-     * @return Returns a constant P value
+     * @return Returns the current P value
      */
     public double getP(){
         return this.kP;
@@ -36,7 +80,7 @@ public class PID_Config{
 
     /**
      * Fetches the I Value of the PID Configuration
-     * @return Returns a constant I value
+     * @return Returns the current I value
      */
     public double getI(){
         return this.kI;
@@ -44,7 +88,7 @@ public class PID_Config{
 
     /**
      * Fetches the D Value of the PID Configuration
-     * @return Returns a constant D value
+     * @return Returns the current D value
      */
     public double getD(){
         return this.kD;
@@ -52,7 +96,7 @@ public class PID_Config{
 
     /**
      * Fetches the F Value of the PID Configuration
-     * @return Returns a constant F value
+     * @return Returns the current F value
      */
     public double getF(){
         return this.kF;
@@ -60,12 +104,53 @@ public class PID_Config{
 
     /**
      * Fetches the Integral Zone of the PID Configuration
-     * @return Returns a constant Integral Zone
-     */ 
+     * @return Returns the current Integral Zone
+     */
     public int getIntegralZone(){
         return this.iZone;
     }
 
+    /**
+     * Changes the gains, saves them to the calibration store if the configuration is named, and pushes the ones that
+     * changed to every assigned motor controller in one batch on a background thread
+     * @param kP New P value
+     * @param kI New I value
+     * @param kD New D value
+     * @param kF New F value
+     * @param iZone New Integral Zone
+     */
+    public synchronized void set(double kP,double kI,double kD,double kF,int iZone){
+        load();
+        this.kP = kP;
+        this.kI = kI;
+        this.kD = kD;
+        this.kF = kF;
+        this.iZone = iZone;
+
+        if(name != null){
+            double[] gains = getGains();
+            CalibrationStore store = CalibrationStore.getDefault();
+            for(int gain = P; gain <= IZONE; gain++){
+                if(store.get(key(gain), Double.NaN) != gains[gain]){
+                    store.put(key(gain), gains[gain]);
+                }
+            }
+        }
+        apply();
+    }
+
+    /**
+     * Reads the gains from the calibration store again and pushes the ones that changed. Runs automatically when the
+     * calibration file is changed outside the robot program.
+     */
+    public synchronized void reload(){
+        if(name == null){
+            return;
+        }
+        readStore();
+        apply();
+    }
+
     /**
      * Assigns the PID configuration to a Talon Motor Controller
      * @param motorController Talon SRX motor controller object
@@ -80,11 +165,18 @@ public class PID_Config{
      * @param motorController Talon SRX motor controller object
      */
     public void assign(int pidSlot,WPI_TalonSRX motorController){
-        motorController.config_kP(pidSlot, this.kP);
-        motorController.config_kI(pidSlot, this.kI);
-        motorController.config_kD(pidSlot, this.kD);
-        motorController.config_kF(pidSlot, this.kF);
-        motorController.config_IntegralZone(pidSlot, this.iZone);
+        this.assign(pidSlot, motorController, true);
+    }
+
+    /**
+     * Assigns the PID configuration to a Talon Motor Controller, optionally leaving its F gain alone so kF can be
+     * used for something else, such as an arbitrary feedforward
+     * @param pidSlot Selected PID priority slot (0 is default)
+     * @param motorController Talon SRX motor controller object
+     * @param assignF False to never write kF to the motor controller
+     */
+    public void assign(int pidSlot,WPI_TalonSRX motorController,boolean assignF){
+        bind(createWriter(pidSlot, motorController), assignF);
     }
 
     /**
@@ -101,12 +193,7 @@ public class PID_Config{
      * @param motorController Victor motor controller object
      */
     public void assign(int pidSlot,WPI_VictorSPX motorController){
-        motorController.config_kP(pidSlot, this.kP);
-        motorController.config_kI(pidSlot, this.kI);
-        motorController.config_kD(pidSlot, this.kD);
-        motorController.config_kF(pidSlot, this.kF);
-        motorController.config_IntegralZone(pidSlot, this.iZone);
-
+        bind(createWriter(pidSlot, motorController), true);
     }
 
     /**
@@ -114,11 +201,135 @@ public class PID_Config{
      * @param motorController Spark max motor controller object
      */
     public void assign(CANSparkMax motorController){
-        motorController.getPIDController().setP(this.kP);
-        motorController.getPIDController().setI(this.kI);
-        motorController.getPIDController().setD(this.kD);
-        motorController.getPIDController().setFF(this.kF);
-        motorController.getPIDController().setIZone(this.iZone);
+        CANPIDController pidController = motorController.getPIDController();
+        bind((gain, value) -> {
+            switch(gain){
+                case P:
+                    pidController.setP(value);
+                    break;
+                case I:
+                    pidController.setI(value);
+                    break;
+                case D:
+                    pidController.setD(value);
+                    break;
+                case F:
+                    pidController.setFF(value);
+                    break;
+                default:
+                    pidController.setIZone(value);
+                    break;
+            }
+        }, true);
+    }
+
+    private static GainWriter createWriter(int pidSlot, BaseMotorController motorController){
+        return (gain, value) -> {
+            switch(gain){
+                case P:
+                    motorController.config_kP(pidSlot, value);
+                    break;
+                case I:
+                    motorController.config_kI(pidSlot, value);
+                    break;
+                case D:
+                    motorController.config_kD(pidSlot, value);
+                    break;
+                case F:
+                    motorController.config_kF(pidSlot, value);
+                    break;
+                default:
+                    motorController.config_IntegralZone(pidSlot, (int)value);
+                    break;
+            }
+        };
+    }
+
+    /**
+     * Writes every gain to a new motor controller right away, then keeps it updated when the gains change
+     */
+    private synchronized void bind(GainWriter writer, boolean assignF){
+        load();
+        Binding binding = new Binding(writer, assignF);
+        binding.push(getGains());
+        bindings.add(binding);
+    }
+
+    /**
+     * Reads stored gains the first time the configuration is used and starts following the calibration file. Assigning
+     * the configuration does this, so only loops computed on the roboRIO that just call the getters need to call it.
+     */
+    public synchronized void load(){
+        if(loaded){
+            return;
+        }
+        loaded = true;
+        if(name == null){
+            return;
+        }
+        readStore();
+
+        CalibrationStore store = CalibrationStore.getDefault();
+        store.addListener(this::reload);
+        store.watch(RELOAD_PERIOD);
+    }
+
+    private void readStore(){
+        CalibrationStore store = CalibrationStore.getDefault();
+        this.kP = store.get(key(P), this.kP);
+        this.kI = store.get(key(I), this.kI);
+        this.kD = store.get(key(D), this.kD);
+        this.kF = store.get(key(F), this.kF);
+        this.iZone = (int)store.get(key(IZONE), this.iZone);
     }
 
-}
\ No newline at end of file
+    /**
+     * Pushes the gains that differ from what each motor controller was last given, all in one background task
+     */
+    private void apply(){
+        double[] gains = getGains();
+        pusher.execute(() -> {
+            for(Binding binding : bindings){
+                binding.push(gains);
+            }
+        });
+    }
+
+    private double[] getGains(){
+        return new double[]{this.kP, this.kI, this.kD, this.kF, this.iZone};
+    }
+
+    private String key(int gain){
+        return name + "." + KEYS[gain];
+    }
+
+    /**
+     * Writes one gain to a motor controller
+     */
+    private interface GainWriter{
+        void write(int gain, double value);
+    }
+
+    /**
+     * A motor controller the configuration was assigned to, and the gains it was last given
+     */
+    private static final class Binding{
+        private final GainWriter writer;
+        private final boolean assignF;
+        private final double[] applied = {Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN};
+
+        Binding(GainWriter writer, boolean assignF){
+            this.writer = writer;
+            this.assignF = assignF;
+        }
+
+        void push(double[] gains){
+            for(int gain = P; gain <= IZONE; gain++){
+                if((gain != F || assignF) && gains[gain] != applied[gain]){
+                    writer.write(gain, gains[gain]);
+                    applied[gain] = gains[gain];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package frc.util;
+
+import java.lang.invoke.VarHandle;
+
+/**
+ * Hands a fixed set of values from one thread to any number of others without locking or allocating. The writer
+ * fills in a snapshot between beginWrite() and endWrite(), and readers copy the latest complete snapshot, retrying
+ * if it changed while they were copying. Readers never block the writer, so a slow reader can only miss snapshots.
+ *
+ * Each snapshot holds doubles for values and longs for System.nanoTime() stamps. Only one thread may write.
+ */
+public class SnapshotBuffer{
+
+    private final double[] values;
+    private final long[] stamps;
+
+    //Odd while a snapshot is being written, 0 until the first snapshot is published
+    private volatile long sequence;
+
+    /**
+     * Creates an empty buffer
+     * @param valueCount Number of doubles in each snapshot
+     * @param stampCount Number of longs in each snapshot
+     */
+    public SnapshotBuffer(int valueCount, int stampCount){
+        values = new double[valueCount];
+        stamps = new long[stampCount];
+    }
+
+    /**
+     * Starts writing a new snapshot. Readers retry until endWrite() is called.
+     */
+    public void beginWrite(){
+        sequence = sequence + 1;
+        VarHandle.storeStoreFence();
+    }
+
+    /**
+     * Sets a value of the snapshot being written
+     * @param index Index of the value
+     * @param value New value
+     */
+    public void putValue(int index, double value){
+        values[index] = value;
+    }
+
+    /**
+     * Sets a stamp of the snapshot being written
+     * @param index Index of the stamp
+     * @param stamp New stamp
+     */
+    public void putStamp(int index, long stamp){
+        stamps[index] = stamp;
+    }
+
+    /**
+     * Publishes the snapshot started by beginWrite()
+     */
+    public void endWrite(){
+        sequence = sequence + 1;
+    }
+
+    /**
+     * Copies the latest complete snapshot without locking or allocating
+     * @param valuesOut Array the values are copied into, at least as long as the snapshot's values
+     * @param stampsOut Array the stamps are copied into, at least as long as the snapshot's stamps
+     * @return Returns the sequence number of the snapshot, which changes every time one is published, or 0 if
+     *         nothing has been published yet
+     */
+    public long read(double[] valuesOut, long[] stampsOut){
+        while(true){
+            long seq = sequence;
+            if((seq & 1) == 0){
+                System.arraycopy(values, 0, valuesOut, 0, values.length);
+                System.arraycopy(stamps, 0, stampsOut, 0, stamps.length);
+                VarHandle.loadLoadFence();
+                if(seq == sequence){
+                    return seq;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Fetches the sequence number of the latest complete snapshot without copying it
+     * @return Returns the sequence number, see read()
+     */
+    public long getSequence(){
+        return sequence & ~1L;
+    }
+}
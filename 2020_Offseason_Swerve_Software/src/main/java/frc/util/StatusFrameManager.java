@@ -0,0 +1,193 @@
+package frc.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ctre.phoenix.motorcontrol.StatusFrame;
+import com.ctre.phoenix.motorcontrol.StatusFrameEnhanced;
+import com.ctre.phoenix.motorcontrol.can.BaseMotorController;
+import com.ctre.phoenix.motorcontrol.can.TalonSRX;
+import com.ctre.phoenix.sensors.PigeonIMU;
+import com.ctre.phoenix.sensors.PigeonIMU_StatusFrame;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.CANSparkMaxLowLevel.PeriodicFrame;
+
+/**
+ * Assigns the status frame periods of a drivetrain's CAN devices in one place and estimates the bus load they cause.
+ * Frames carrying signals the drive reads are sent as often as it reads them, and frames nothing reads are slowed
+ * to UNUSED_PERIOD. Every frame is recorded with its vendor default period so the load can be compared before and
+ * after.
+ *
+ * The estimate assumes extended frames with 8 data bytes on a 1 Mbit/s bus, about BITS_PER_FRAME bits each
+ * including bit stuffing. Control frames sent by the motor controllers are counted with addControlFrame().
+ */
+public class StatusFrameManager{
+
+    public static final int UNUSED_PERIOD = 255; //Milliseconds, the slowest period the vendors allow
+    public static final double BUS_BITS_PER_SECOND = 1e6;
+    public static final double BITS_PER_FRAME = 144;
+
+    private final String busName;
+    private final List<String> frames = new ArrayList<>();
+    private final List<int[]> periods = new ArrayList<>(); //Default and assigned period of every frame
+
+    /**
+     * Creates an empty frame plan
+     * @param busName Name of the drivetrain, used in the report
+     */
+    public StatusFrameManager(String busName){
+        this.busName = busName;
+    }
+
+    /**
+     * Sets a status frame period of a Talon SRX
+     * @param device Name of the device for the report
+     * @param talon Motor controller to configure
+     * @param frame Status frame
+     * @param period Period in milliseconds
+     */
+    public void assign(String device, TalonSRX talon, StatusFrameEnhanced frame, int period){
+        talon.setStatusFramePeriod(frame, period);
+        record(device, frame.name(), getDefaultPeriod(frame), period);
+    }
+
+    /**
+     * Sets a status frame period of any CTRE motor controller, such as a Victor SPX
+     * @param device Name of the device for the report
+     * @param controller Motor controller to configure
+     * @param frame Status frame
+     * @param period Period in milliseconds
+     */
+    public void assign(String device, BaseMotorController controller, StatusFrame frame, int period){
+        controller.setStatusFramePeriod(frame, period);
+        record(device, frame.name(), getDefaultPeriod(frame), period);
+    }
+
+    /**
+     * Sets a periodic status frame period of a SPARK MAX
+     * @param device Name of the device for the report
+     * @param sparkMax Motor controller to configure
+     * @param frame Periodic status frame
+     * @param period Period in milliseconds
+     */
+    public void assign(String device, CANSparkMax sparkMax, PeriodicFrame frame, int period){
+        sparkMax.setPeriodicFramePeriod(frame, period);
+        record(device, frame.name(), getDefaultPeriod(frame), period);
+    }
+
+    /**
+     * Sets a status frame period of a Pigeon IMU
+     * @param device Name of the device for the report
+     * @param pigeon Gyro to configure
+     * @param frame Status frame
+     * @param period Period in milliseconds
+     */
+    public void assign(String device, PigeonIMU pigeon, PigeonIMU_StatusFrame frame, int period){
+        pigeon.setStatusFramePeriod(frame, period);
+        record(device, frame.name(), getDefaultPeriod(frame), period);
+    }
+
+    /**
+     * Counts a periodic control frame sent to a device in the load estimate
+     * @param device Name of the device for the report
+     * @param defaultPeriod Period before configuration in milliseconds
+     * @param period Period after configuration in milliseconds
+     */
+    public void addControlFrame(String device, int defaultPeriod, int period){
+        record(device, "Control", defaultPeriod, period);
+    }
+
+    /**
+     * Fetches the estimated bus load with every recorded frame at its vendor default period
+     * @return Returns the fraction of the bus used, from 0 to 1
+     */
+    public double getDefaultLoad(){
+        return getLoad(0);
+    }
+
+    /**
+     * Fetches the estimated bus load with every recorded frame at its assigned period
+     * @return Returns the fraction of the bus used, from 0 to 1
+     */
+    public double getLoad(){
+        return getLoad(1);
+    }
+
+    /**
+     * Fetches a one line summary of the bus load before and after the frames were assigned
+     * @return Returns the summary
+     */
+    public String getSummary(){
+        return String.format("%s CAN frames: %d frames, estimated bus load %.1f%% at vendor defaults, %.1f%% assigned",
+            busName, frames.size(), 100 * getDefaultLoad(), 100 * getLoad());
+    }
+
+    /**
+     * Fetches the summary followed by the default and assigned period of every frame
+     * @return Returns the report, one frame per line
+     */
+    public String getReport(){
+        StringBuilder report = new StringBuilder(getSummary());
+        for(int i = 0; i < frames.size(); i++){
+            report.append(String.format("%n  %-40s %4d ms -> %4d ms", frames.get(i), periods.get(i)[0],
+                periods.get(i)[1]));
+        }
+        return report.toString();
+    }
+
+    private void record(String device, String frame, int defaultPeriod, int period){
+        frames.add(device + " " + frame);
+        periods.add(new int[]{defaultPeriod, period});
+    }
+
+    private double getLoad(int column){
+        double framesPerSecond = 0;
+        for(int[] period : periods){
+            framesPerSecond += 1000.0 / period[column];
+        }
+        return framesPerSecond * BITS_PER_FRAME / BUS_BITS_PER_SECOND;
+    }
+
+    private static int getDefaultPeriod(StatusFrameEnhanced frame){
+        switch(frame){
+            case Status_1_General:
+                return 10;
+            case Status_2_Feedback0:
+                return 20;
+            default:
+                return 160;
+        }
+    }
+
+    private static int getDefaultPeriod(StatusFrame frame){
+        switch(frame){
+            case Status_1_General:
+                return 10;
+            case Status_2_Feedback0:
+                return 20;
+            default:
+                return 160;
+        }
+    }
+
+    private static int getDefaultPeriod(PeriodicFrame frame){
+        switch(frame){
+            case kStatus0:
+                return 10;
+            default:
+                return 20;
+        }
+    }
+
+    private static int getDefaultPeriod(PigeonIMU_StatusFrame frame){
+        switch(frame){
+            case CondStatus_9_SixDeg_YPR:
+            case CondStatus_6_SensorFusion:
+                return 10;
+            case CondStatus_11_GyroAccum:
+                return 20;
+            default:
+                return 100;
+        }
+    }
+}
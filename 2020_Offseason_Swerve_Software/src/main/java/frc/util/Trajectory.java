@@ -0,0 +1,163 @@
+package frc.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A precomputed, time parameterized path that is memory mapped from a binary file. Samples are read straight out
+ * of the mapped file by index so no objects are created per sample.
+ *
+ * File layout (big endian):
+ * Header - int magic, int version, int sample count, int record size in bytes
+ * Records - float time (s), x (in), y (in), heading (deg), x velocity (in/s), y velocity (in/s),
+ * angular velocity (deg/s)
+ *
+ * Every record has the stride given in the header. Records larger than RECORD_SIZE are allowed so fields can be
+ * appended later without breaking this reader. Positions use the same field frame as odometry: X forward, Y right
+ * and heading counter-clockwise.
+ *
+ * Trajectory files are generated at build time from the CSV and JSON files in src/main/paths by the
+ * convertTrajectories Gradle task and deployed to /home/lvuser/deploy.
+ */
+public class Trajectory{
+
+    public static final int MAGIC = 0x42425452; //"BBTR"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 16;
+    public static final int RECORD_SIZE = 28;
+
+    private static final int TIME = 0;
+    private static final int X = 4;
+    private static final int Y = 8;
+    private static final int HEADING = 12;
+    private static final int X_VELOCITY = 16;
+    private static final int Y_VELOCITY = 20;
+    private static final int ANGULAR_VELOCITY = 24;
+
+    private final MappedByteBuffer buffer;
+    private final int length;
+    private final int recordSize;
+
+    private Trajectory(MappedByteBuffer buffer, int length, int recordSize){
+        this.buffer = buffer;
+        this.length = length;
+        this.recordSize = recordSize;
+    }
+
+    /**
+     * Memory maps a trajectory file and checks its header
+     * @param file Binary trajectory file
+     * @return Returns the mapped trajectory
+     * @throws IOException If the file can't be read or is not a valid trajectory
+     */
+    public static Trajectory load(File file) throws IOException{
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if(buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC){
+                throw new IOException(file + " is not a trajectory file");
+            }
+            if(buffer.getInt(4) != VERSION){
+                throw new IOException(file + " has trajectory version " + buffer.getInt(4) + ", expected " + VERSION);
+            }
+
+            int length = buffer.getInt(8);
+            int recordSize = buffer.getInt(12);
+            if(recordSize < RECORD_SIZE){
+                throw new IOException(file + " has records of " + recordSize + " bytes, expected at least " + RECORD_SIZE);
+            }
+            if(length < 0 || buffer.capacity() < HEADER_SIZE + (long)length * recordSize){
+                throw new IOException(file + " is truncated");
+            }
+
+            buffer.load();
+            return new Trajectory(buffer, length, recordSize);
+        }
+    }
+
+    /**
+     * Fetches the number of samples in the trajectory
+     * @return Returns the number of samples
+     */
+    public int length(){
+        return length;
+    }
+
+    /**
+     * Fetches the time of the last sample
+     * @return Returns the duration in seconds
+     */
+    public double getDuration(){
+        return length == 0 ? 0 : getTime(length - 1);
+    }
+
+    /**
+     * Fetches the time of a sample
+     * @param index Sample number
+     * @return Returns the time in seconds
+     */
+    public double getTime(int index){
+        return get(index, TIME);
+    }
+
+    /**
+     * Fetches the field X position of a sample
+     * @param index Sample number
+     * @return Returns the X in inches
+     */
+    public double getX(int index){
+        return get(index, X);
+    }
+
+    /**
+     * Fetches the field Y position of a sample
+     * @param index Sample number
+     * @return Returns the Y in inches
+     */
+    public double getY(int index){
+        return get(index, Y);
+    }
+
+    /**
+     * Fetches the heading of a sample
+     * @param index Sample number
+     * @return Returns the heading in degrees
+     */
+    public double getHeading(int index){
+        return get(index, HEADING);
+    }
+
+    /**
+     * Fetches the field X velocity of a sample
+     * @param index Sample number
+     * @return Returns the X velocity in inches/second
+     */
+    public double getXVelocity(int index){
+        return get(index, X_VELOCITY);
+    }
+
+    /**
+     * Fetches the field Y velocity of a sample
+     * @param index Sample number
+     * @return Returns the Y velocity in inches/second
+     */
+    public double getYVelocity(int index){
+        return get(index, Y_VELOCITY);
+    }
+
+    /**
+     * Fetches the angular velocity of a sample
+     * @param index Sample number
+     * @return Returns the angular velocity in degrees/second, positive counter-clockwise
+     */
+    public double getAngularVelocity(int index){
+        return get(index, ANGULAR_VELOCITY);
+    }
+
+    private double get(int index, int field){
+        return buffer.getFloat(HEADER_SIZE + index * recordSize + field);
+    }
+}
@@ -0,0 +1,30 @@
+package frc.util.input;
+
+/**
+ * Returns exactly 0 for inputs within the deadband and rescales the rest, so the output still starts at 0 at the
+ * edge of the deadband and reaches 1.0 at full input instead of jumping
+ */
+public class Deadband implements InputStage{
+
+    private final double deadband;
+    private final double range;
+
+    /**
+     * Creates a deadband stage
+     * @param deadband Largest input magnitude treated as no input, from 0 to just under 1.0
+     */
+    public Deadband(double deadband){
+        this.deadband = deadband;
+        this.range = 1.0 - deadband;
+    }
+
+    @Override
+    public double calculate(double input, double dt){
+        if(input > deadband){
+            return (input - deadband) / range;
+        }else if(input < -deadband){
+            return (input + deadband) / range;
+        }
+        return 0;
+    }
+}
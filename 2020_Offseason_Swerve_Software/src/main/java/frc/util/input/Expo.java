@@ -0,0 +1,32 @@
+package frc.util.input;
+
+/**
+ * Blends the input with a power curve that keeps its sign, giving fine control near the center of the stick while
+ * still reaching full output. The power is an integer multiplied out, so there is no Math.pow() call per sample.
+ * A weight of 1.0 with degree 2 matches the old powerInput(input, 2).
+ */
+public class Expo implements InputStage{
+
+    private final double weight;
+    private final int degree;
+
+    /**
+     * Creates an expo stage
+     * @param weight How much of the curve is used, from 0 (linear) to 1.0 (the power curve alone)
+     * @param degree Power of the curve, at least 1
+     */
+    public Expo(double weight, int degree){
+        this.weight = weight;
+        this.degree = degree;
+    }
+
+    @Override
+    public double calculate(double input, double dt){
+        double magnitude = Math.abs(input);
+        double curve = input;
+        for(int i = 1; i < degree; i++){
+            curve *= magnitude;
+        }
+        return (1.0 - weight) * input + weight * curve;
+    }
+}
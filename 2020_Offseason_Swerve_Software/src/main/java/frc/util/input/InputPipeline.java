@@ -0,0 +1,48 @@
+package frc.util.input;
+
+/**
+ * Runs a driver input through a fixed chain of InputStages, for example a Deadband, an Expo curve, a SlewLimit and a
+ * JerkLimit in that order. The chain is fixed when the pipeline is created, so calculate() never allocates. A
+ * pipeline is a stage itself and can be nested in another pipeline.
+ *
+ * Stateful stages belong to one input, so every axis needs a pipeline of its own.
+ */
+public class InputPipeline implements InputStage{
+
+    private final InputStage[] stages;
+    private double output;
+
+    /**
+     * Creates a pipeline
+     * @param stages Stages in the order the input passes through them
+     */
+    public InputPipeline(InputStage... stages){
+        this.stages = stages.clone();
+    }
+
+    @Override
+    public double calculate(double input, double dt){
+        double value = input;
+        for(InputStage stage : stages){
+            value = stage.calculate(value, dt);
+        }
+        output = value;
+        return value;
+    }
+
+    @Override
+    public void reset(double value){
+        for(InputStage stage : stages){
+            stage.reset(value);
+        }
+        output = value;
+    }
+
+    /**
+     * Fetches the output of the last calculation
+     * @return Returns the shaped input
+     */
+    public double getOutput(){
+        return output;
+    }
+}
@@ -0,0 +1,23 @@
+package frc.util.input;
+
+/**
+ * One step of shaping a driver input, such as a deadband or a slew limit. Stages are chained with an InputPipeline.
+ * A stage keeps any state in primitive fields, so running it every loop never allocates.
+ */
+public interface InputStage{
+
+    /**
+     * Shapes one input sample
+     * @param input Input from the previous stage, or the raw axis for the first stage
+     * @param dt Time since the last sample in seconds
+     * @return Returns the shaped input
+     */
+    double calculate(double input, double dt);
+
+    /**
+     * Forgets any state so the stage continues from the given output without limiting the jump to it
+     * @param value Output the stage should act as if it had last returned
+     */
+    default void reset(double value){
+    }
+}
@@ -0,0 +1,79 @@
+package frc.util.input;
+
+/**
+ * Limits how fast the rate of change of the output can change, which rounds off the corners a slew limit leaves so
+ * the drivetrain's acceleration builds up and dies away smoothly. The output moves towards the input as fast as the
+ * jerk limit allows while still being able to slow down in time, so it settles on the input without overshooting.
+ *
+ * Rounding off a corner makes the output lag, and catching up would mean moving faster than the slew limit before
+ * it. Give the jerk limit the same rates as the slew limit and it never does.
+ */
+public class JerkLimit implements InputStage{
+
+    private final double jerk;
+    private final double riseRate;
+    private final double fallRate;
+    private double output;
+    private double rate;
+
+    /**
+     * Creates a jerk limit without a rate limit
+     * @param jerk Largest change of the output's rate per second, in output per second squared
+     */
+    public JerkLimit(double jerk){
+        this(jerk, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Creates a jerk limit that also limits the rate
+     * @param jerk Largest change of the output's rate per second, in output per second squared
+     * @param riseRate Largest change per second while the output grows in magnitude
+     * @param fallRate Largest change per second while the output shrinks towards zero
+     */
+    public JerkLimit(double jerk, double riseRate, double fallRate){
+        this.jerk = jerk;
+        this.riseRate = riseRate;
+        this.fallRate = fallRate;
+    }
+
+    @Override
+    public double calculate(double input, double dt){
+        if(dt <= 0){
+            return output;
+        }
+        double error = input - output;
+        double step = jerk * dt;
+        if(Math.abs(error) <= step * dt && Math.abs(error / dt - rate) <= step){
+            //Close enough to land on the input this sample and stop on the next, so a zero input gives exactly zero
+            rate = error / dt;
+            output = input;
+            return output;
+        }
+
+        boolean rising = output == 0 || (error > 0) == (output > 0);
+        double limit = Math.min(rising ? riseRate : fallRate, stoppingRate(Math.abs(error), 0, dt));
+        if(!rising && input != 0 && (input > 0) != (output > 0)){
+            //Crossing zero, where the output starts growing again, must not be faster than the rise rate
+            limit = Math.min(limit, stoppingRate(Math.abs(output), riseRate, dt));
+        }
+
+        rate += Math.max(-step, Math.min(step, Math.copySign(limit, error) - rate));
+        output += rate * dt;
+        return output;
+    }
+
+    @Override
+    public void reset(double value){
+        output = value;
+        rate = 0;
+    }
+
+    /**
+     * Fastest rate that can still be slowed to the final rate within the distance, slowing by jerk * dt every sample
+     * after this one. This sample moves rate * dt and the rest at most (rate^2 - finalRate^2) / (2 * jerk).
+     */
+    private double stoppingRate(double distance, double finalRate, double dt){
+        double jerkStep = jerk * dt;
+        return Math.sqrt(jerkStep * jerkStep + finalRate * finalRate + 2 * jerk * distance) - jerkStep;
+    }
+}
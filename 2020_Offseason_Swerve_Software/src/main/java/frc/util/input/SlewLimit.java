@@ -0,0 +1,51 @@
+package frc.util.input;
+
+/**
+ * Limits how fast the output can change. Moving away from zero is limited to the rise rate and moving towards zero
+ * to the fall rate, so a sudden stick push cannot spike the current or slip the wheels, while letting go of the stick
+ * can still stop the robot quickly.
+ */
+public class SlewLimit implements InputStage{
+
+    private final double riseRate;
+    private final double fallRate;
+    private double output;
+
+    /**
+     * Creates a slew limit with the same rate both ways
+     * @param rate Largest change of the output per second
+     */
+    public SlewLimit(double rate){
+        this(rate, rate);
+    }
+
+    /**
+     * Creates a slew limit
+     * @param riseRate Largest change per second while the output grows in magnitude
+     * @param fallRate Largest change per second while the output shrinks towards zero or changes sign
+     */
+    public SlewLimit(double riseRate, double fallRate){
+        this.riseRate = riseRate;
+        this.fallRate = fallRate;
+    }
+
+    @Override
+    public double calculate(double input, double dt){
+        boolean rising = output >= 0 ? input > output : input < output;
+        double step = (rising ? riseRate : fallRate) * dt;
+        double change = input - output;
+        if(change > step){
+            output += step;
+        }else if(change < -step){
+            output -= step;
+        }else{
+            output = input;
+        }
+        return output;
+    }
+
+    @Override
+    public void reset(double value){
+        output = value;
+    }
+}
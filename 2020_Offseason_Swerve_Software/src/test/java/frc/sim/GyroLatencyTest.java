@@ -0,0 +1,88 @@
+package frc.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import frc.systems.dirtyswerve.toplevel.DirtySwerve;
+import frc.util.GyroSampler;
+
+/**
+ * Drives the simulated swerve straight down the field while it spins, with a gyro that reports the heading some
+ * simulation steps late, and checks how far the path drifts off the line. Read through a GyroSampler the late gyro
+ * must drift about as little as a gyro without latency, and read directly it must drift noticeably further.
+ */
+public class GyroLatencyTest{
+
+    private static final double RUN_TIME = 3.0;
+    private static final int[] LATENCY_STEPS = {1, 2};
+    private static final double[] THROTTLES = {0.5, 1.0};
+    private static final double[] ROTATIONS = {0.25, 0.5, 1.0};
+
+    private static final double COMPENSATED_TOLERANCE = 1.0; //Inches of RMS drift more than a gyro without latency
+    private static final double MIN_LATE_RATIO = 1.25; //Uncompensated RMS drift over compensated RMS drift
+
+    @Test
+    public void compensatedDriftMatchesGyroWithoutLatency(){
+        for(int latency : LATENCY_STEPS){
+            for(double throttle : THROTTLES){
+                for(double rotation : ROTATIONS){
+                    double ideal = run(0, false, throttle, rotation);
+                    double compensated = run(latency, true, throttle, rotation);
+                    assertEquals(describe(latency, throttle, rotation), ideal, compensated, COMPENSATED_TOLERANCE);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void lateGyroReadDirectlyDriftsFurther(){
+        for(int latency : LATENCY_STEPS){
+            for(double throttle : THROTTLES){
+                for(double rotation : ROTATIONS){
+                    double late = run(latency, false, throttle, rotation);
+                    double compensated = run(latency, true, throttle, rotation);
+                    assertTrue(describe(latency, throttle, rotation) + ": late " + late + " compensated "
+                        + compensated, late > MIN_LATE_RATIO * compensated);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drives forward on the field while spinning
+     * @param latencySteps Simulation steps the gyro reports late
+     * @param compensate True to read the gyro through a sampler that compensates for the latency
+     * @param throttle Forward command from 0 to 1.0
+     * @param rotation Rotation command from 0 to 1.0
+     * @return Returns the RMS distance off the line in inches
+     */
+    private static double run(int latencySteps, boolean compensate, double throttle, double rotation){
+        SwerveSimulation sim = new SwerveSimulation();
+        DirtySwerve drive = sim.getDrive();
+        sim.getGyro().setLatencySteps(latencySteps);
+        GyroSampler sampler = null;
+        if(compensate){
+            sampler = new GyroSampler(sim.getGyro(), sim::getTime, latencySteps * SimConfig.TIME_STEP,
+                2 * SimConfig.TIME_STEP);
+            drive.setGyroSampler(sampler);
+        }
+
+        int steps = (int)Math.round(RUN_TIME / SimConfig.TIME_STEP);
+        double sumSquares = 0;
+        for(int i = 0; i < steps; i++){
+            if(sampler != null){
+                sampler.sample();
+            }
+            drive.drive(throttle, 0, rotation);
+            sim.step(SimConfig.TIME_STEP);
+            sumSquares += sim.getY() * sim.getY();
+        }
+        return Math.sqrt(sumSquares / steps);
+    }
+
+    private static String describe(int latencySteps, double throttle, double rotation){
+        return "latency " + latencySteps + " steps, throttle " + throttle + ", rotation " + rotation;
+    }
+}
@@ -0,0 +1,102 @@
+package frc.sim;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import frc.systems.dirtyswerve.toplevel.DirtySwerve;
+
+/**
+ * Translates the simulated swerve without a rotation command while one wheel is slightly oversized, which yaws the
+ * robot like uneven tread wear does, and checks the yaw drift per meter travelled with and without heading hold.
+ * The release cases spin the robot first and then let go of rotation. How far the robot keeps turning over the
+ * settle time after the release is the coast, and drift is measured from the end of the settle time.
+ */
+public class HeadingHoldTest{
+
+    private static final double RUN_TIME = 4.0;
+    private static final double SPIN_TIME = 1.0;
+    private static final double SPIN_ROTATION = 0.5;
+    private static final double SETTLE_TIME = 0.5;
+    private static final double WHEEL_SCALE = 1.03; //Front left wheel
+    private static final double INCHES_PER_METER = 39.37;
+
+    private static final double MIN_FREE_DRIFT = 0.25; //Degrees/meter the oversized wheel must yaw the robot
+    private static final double MAX_HOLD_DRIFT = 0.1; //Degrees/meter
+    private static final double MAX_HOLD_ERROR = 1.0; //Degrees
+    private static final double MAX_EXTRA_COAST = 0.5; //Degrees turned after a release more than without the hold
+
+    private static final String[] NAMES = {"forward", "strafe", "diagonal", "spin+strafe", "spin+forward"};
+    private static final double[][] COMMANDS = {{0.75, 0, 0}, {0, 0.75, 0}, {0.5, 0.5, 0}, {0, 0.75, SPIN_ROTATION},
+        {0.75, 0, SPIN_ROTATION}};
+
+    @Test
+    public void oversizedWheelYawsRobotWithoutHold(){
+        for(int i = 0; i < NAMES.length; i++){
+            double[] free = run(false, COMMANDS[i]);
+            assertTrue(NAMES[i] + " drifted " + free[0] + " deg/m", free[0] > MIN_FREE_DRIFT);
+        }
+    }
+
+    @Test
+    public void holdKeepsHeading(){
+        for(int i = 0; i < NAMES.length; i++){
+            double[] hold = run(true, COMMANDS[i]);
+            assertTrue(NAMES[i] + " drifted " + hold[0] + " deg/m", hold[0] < MAX_HOLD_DRIFT);
+            assertTrue(NAMES[i] + " was off by up to " + hold[1] + " deg", hold[1] < MAX_HOLD_ERROR);
+        }
+    }
+
+    @Test
+    public void releaseDoesNotSnapBack(){
+        for(int i = 0; i < NAMES.length; i++){
+            double[] free = run(false, COMMANDS[i]);
+            double[] hold = run(true, COMMANDS[i]);
+            assertTrue(NAMES[i] + " coasted " + hold[2] + " deg with hold and " + free[2] + " deg without",
+                hold[2] < free[2] + MAX_EXTRA_COAST);
+        }
+    }
+
+    /**
+     * Translates without a rotation command, after spinning first if the command has a rotation
+     * @param headingHold True to hold the heading
+     * @param command Forward, strafe and the rotation used while spinning
+     * @return Returns the heading change in degrees per meter travelled after the settle time, the largest heading
+     *         error in degrees after the settle time, and the degrees turned during the settle time
+     */
+    private static double[] run(boolean headingHold, double[] command){
+        SwerveSimulation sim = new SwerveSimulation();
+        DirtySwerve drive = sim.getDrive();
+        drive.setHeadingHoldEnabled(headingHold);
+        sim.getThrottleMotor(0).setWheelScale(WHEEL_SCALE);
+
+        int spinSteps = command[2] != 0 ? (int)Math.round(SPIN_TIME / SimConfig.TIME_STEP) : 0;
+        for(int i = 0; i < spinSteps; i++){
+            drive.drive(command[0], command[1], command[2]);
+            sim.step(SimConfig.TIME_STEP);
+        }
+
+        double releaseHeading = sim.getHeading();
+        int settleSteps = (int)Math.round(SETTLE_TIME / SimConfig.TIME_STEP);
+        for(int i = 0; i < settleSteps; i++){
+            drive.drive(command[0], command[1], 0);
+            sim.step(SimConfig.TIME_STEP);
+        }
+
+        double startHeading = sim.getHeading();
+        double maxError = 0;
+        double distance = 0;
+        double x = sim.getX(), y = sim.getY();
+        int steps = (int)Math.round(RUN_TIME / SimConfig.TIME_STEP);
+        for(int i = 0; i < steps; i++){
+            drive.drive(command[0], command[1], 0);
+            sim.step(SimConfig.TIME_STEP);
+            distance += Math.hypot(sim.getX() - x, sim.getY() - y);
+            x = sim.getX();
+            y = sim.getY();
+            maxError = Math.max(maxError, Math.abs(sim.getHeading() - startHeading));
+        }
+        double drift = Math.abs(sim.getHeading() - startHeading) / (distance / INCHES_PER_METER);
+        return new double[]{drift, maxError, Math.abs(startHeading - releaseHeading)};
+    }
+}
@@ -0,0 +1,114 @@
+package frc.sim;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import frc.systems.dirtyswerve.toplevel.DirtySwerve;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+
+/**
+ * Drives the simulated swerve through hard transients on a sagging battery with and without the power budget, and
+ * checks the lowest battery voltage, the peak current the throttles drew, how long the battery spent below the
+ * roboRIO brownout voltage and how long the robot took to reach 90% of its final speed.
+ */
+public class PowerBudgetTest{
+
+    private static final double RUN_TIME = 3.0;
+    private static final double SWITCH_TIME = 1.5; //Reversal cases switch to the second command here
+
+    private static final double MIN_VOLTAGE_MARGIN = 1.0; //Volts above brownout with the budget
+    private static final double MAX_CURRENT_OVERSHOOT = 1.1; //Peak current over THROTTLE_CURRENT_BUDGET
+    private static final double MAX_EXTRA_RISE_TIME = 0.1; //Seconds slower to 90% speed than without the budget
+
+    private static final String[] NAMES = {"launch", "reverse", "spin+drive", "strafe-reverse"};
+    private static final double[][] FIRST = {{1, 0, 0}, {1, 0, 0}, {0, 0, 1}, {0, 1, 0}};
+    private static final double[][] SECOND = {{1, 0, 0}, {-1, 0, 0}, {1, 0, 1}, {0, -1, 0}};
+
+    private static final int MIN_VOLTAGE = 0, PEAK_CURRENT = 1, BROWNOUT = 2, RISE_TIME = 3;
+
+    @Test
+    public void reversalsBrownOutWithoutBudget(){
+        double brownout = 0;
+        for(int i = 0; i < NAMES.length; i++){
+            brownout += run(false, FIRST[i], SECOND[i])[BROWNOUT];
+        }
+        assertTrue("Time below brownout without the budget " + brownout, brownout > 0);
+    }
+
+    @Test
+    public void budgetKeepsBatteryAboveBrownout(){
+        for(int i = 0; i < NAMES.length; i++){
+            double[] on = run(true, FIRST[i], SECOND[i]);
+            assertEquals(NAMES[i] + " time below brownout", 0, on[BROWNOUT], 0);
+            assertTrue(NAMES[i] + " sagged to " + on[MIN_VOLTAGE] + " V",
+                on[MIN_VOLTAGE] > SimConfig.BROWNOUT_VOLTAGE + MIN_VOLTAGE_MARGIN);
+        }
+    }
+
+    @Test
+    public void budgetLimitsPeakCurrent(){
+        for(int i = 0; i < NAMES.length; i++){
+            double[] on = run(true, FIRST[i], SECOND[i]);
+            assertTrue(NAMES[i] + " drew " + on[PEAK_CURRENT] + " A",
+                on[PEAK_CURRENT] < MAX_CURRENT_OVERSHOOT * SwerveConfig.THROTTLE_CURRENT_BUDGET);
+        }
+    }
+
+    @Test
+    public void budgetDoesNotSlowAcceleration(){
+        for(int i = 0; i < NAMES.length; i++){
+            double[] off = run(false, FIRST[i], SECOND[i]);
+            double[] on = run(true, FIRST[i], SECOND[i]);
+            assertTrue(NAMES[i] + " reached 90% speed in " + on[RISE_TIME] + " s, " + off[RISE_TIME]
+                + " s without the budget", on[RISE_TIME] <= off[RISE_TIME] + MAX_EXTRA_RISE_TIME);
+        }
+    }
+
+    /**
+     * Drives one command, then another from SWITCH_TIME, from a standstill
+     * @param budget True to limit the throttles with the power budget
+     * @param first Forward, strafe and rotation before the switch
+     * @param second Forward, strafe and rotation after the switch
+     * @return Returns the lowest battery voltage, the peak battery current in amps, the seconds below the brownout
+     *         voltage and the seconds after the last command change to reach 90% of the final speed
+     */
+    private static double[] run(boolean budget, double[] first, double[] second){
+        SwerveSimulation sim = new SwerveSimulation();
+        DirtySwerve drive = sim.getDrive();
+        drive.setHeadingHoldEnabled(false);
+        drive.setPowerBudgetEnabled(budget);
+
+        int steps = (int)Math.round(RUN_TIME / SimConfig.TIME_STEP);
+        int switchStep = (int)Math.round(SWITCH_TIME / SimConfig.TIME_STEP);
+        boolean switches = first[0] != second[0] || first[1] != second[1] || first[2] != second[2];
+        double[] speeds = new double[steps];
+        double minVoltage = SimConfig.BATTERY_VOLTAGE;
+        double peakCurrent = 0;
+        double brownout = 0;
+        for(int i = 0; i < steps; i++){
+            double[] command = i < switchStep ? first : second;
+            drive.drive(command[0], command[1], command[2]);
+            sim.step(SimConfig.TIME_STEP);
+            speeds[i] = sim.getSpeed();
+            minVoltage = Math.min(minVoltage, sim.getBatteryVoltage());
+            peakCurrent = Math.max(peakCurrent, sim.getBatteryCurrent());
+            if(sim.getBatteryVoltage() < SimConfig.BROWNOUT_VOLTAGE){
+                brownout += SimConfig.TIME_STEP;
+            }
+        }
+
+        //Reversals pass through zero, so measure from the change of command to the speed settling again
+        int start = switches ? switchStep : 0;
+        double threshold = 0.9 * speeds[steps - 1];
+        double rise = Double.POSITIVE_INFINITY;
+        for(int i = start; i < steps; i++){
+            if(speeds[i] >= threshold && (!switches || i > start + 1)){
+                rise = (i - start + 1) * SimConfig.TIME_STEP;
+                break;
+            }
+        }
+        return new double[]{minVoltage, peakCurrent, brownout, rise};
+    }
+}
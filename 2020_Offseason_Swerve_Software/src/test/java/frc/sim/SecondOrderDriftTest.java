@@ -0,0 +1,88 @@
+package frc.sim;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import frc.systems.dirtyswerve.toplevel.DirtySwerve;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig.KinematicsMode;
+
+/**
+ * Drives the simulated swerve straight down the field while it spins, and checks how far it drifts off the line
+ * with first order kinematics, second order kinematics, and second order kinematics with azimuth feedforward. The
+ * feedforward gain is matched to the simulated azimuth motor so it shows the best case for a tuned kF.
+ */
+public class SecondOrderDriftTest{
+
+    private static final double RUN_TIME = 3.0;
+    private static final double[] THROTTLES = {0.25, 0.5, 0.75, 1.0};
+    private static final double[] ROTATIONS = {0.25, 0.5};
+
+    private static final double MAX_CASE_RATIO = 0.9; //RMS drift over the RMS drift of the simpler kinematics
+    private static final double MIN_SECOND_ORDER_REDUCTION = 0.15; //Of the total first order RMS drift
+    private static final double MIN_FEEDFORWARD_REDUCTION = 0.5;
+
+    @Test
+    public void secondOrderDriftsLess(){
+        double firstTotal = 0, secondTotal = 0;
+        for(double throttle : THROTTLES){
+            for(double rotation : ROTATIONS){
+                double first = run(KinematicsMode.FIRST_ORDER, 0, throttle, rotation);
+                double second = run(KinematicsMode.SECOND_ORDER, 0, throttle, rotation);
+                assertTrue(describe(throttle, rotation, first, second), second < MAX_CASE_RATIO * first);
+                firstTotal += first;
+                secondTotal += second;
+            }
+        }
+        assertTrue("total " + firstTotal + " -> " + secondTotal,
+            secondTotal < (1 - MIN_SECOND_ORDER_REDUCTION) * firstTotal);
+    }
+
+    @Test
+    public void feedforwardDriftsLessThanSecondOrder(){
+        double firstTotal = 0, feedforwardTotal = 0;
+        for(double throttle : THROTTLES){
+            for(double rotation : ROTATIONS){
+                double first = run(KinematicsMode.FIRST_ORDER, 0, throttle, rotation);
+                double second = run(KinematicsMode.SECOND_ORDER, 0, throttle, rotation);
+                double feedforward = run(KinematicsMode.SECOND_ORDER, 1.0 / SimConfig.AZIMUTH_FREE_SPEED, throttle,
+                    rotation);
+                assertTrue(describe(throttle, rotation, second, feedforward), feedforward < MAX_CASE_RATIO * second);
+                firstTotal += first;
+                feedforwardTotal += feedforward;
+            }
+        }
+        assertTrue("total " + firstTotal + " -> " + feedforwardTotal,
+            feedforwardTotal < (1 - MIN_FEEDFORWARD_REDUCTION) * firstTotal);
+    }
+
+    /**
+     * Drives forward on the field while spinning
+     * @param mode Kinematics to use
+     * @param feedforwardGain Azimuth feedforward gain in percent output per degree/second
+     * @param throttle Forward command from 0 to 1.0
+     * @param rotation Rotation command from 0 to 1.0
+     * @return Returns the RMS distance off the line in inches
+     */
+    private static double run(KinematicsMode mode, double feedforwardGain, double throttle, double rotation){
+        SwerveSimulation sim = new SwerveSimulation();
+        DirtySwerve drive = sim.getDrive();
+        drive.setKinematicsMode(mode);
+        for(int i = 0; i < 4; i++){
+            sim.getModule(i).setAzimuthFeedforwardGain(feedforwardGain);
+        }
+
+        int steps = (int)Math.round(RUN_TIME / SimConfig.TIME_STEP);
+        double sumSquares = 0;
+        for(int i = 0; i < steps; i++){
+            drive.drive(throttle, 0, rotation);
+            sim.step(SimConfig.TIME_STEP);
+            sumSquares += sim.getY() * sim.getY();
+        }
+        return Math.sqrt(sumSquares / steps);
+    }
+
+    private static String describe(double throttle, double rotation, double before, double after){
+        return "throttle " + throttle + ", rotation " + rotation + ": " + before + " -> " + after;
+    }
+}
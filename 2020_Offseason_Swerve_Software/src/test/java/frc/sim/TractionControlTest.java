@@ -0,0 +1,175 @@
+package frc.sim;
+
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import frc.systems.dirtyswerve.lowerlevel.TractionControl;
+import frc.systems.dirtyswerve.lowerlevel.module.SwerveModule;
+import frc.systems.dirtyswerve.lowerlevel.odometry.Pose;
+import frc.systems.dirtyswerve.toplevel.DirtySwerve;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig.ThrottleType;
+import frc.util.StatusFrameManager;
+
+/**
+ * Makes the wheels of the simulated swerve spin out by launching it, reversing at full speed and putting one wheel
+ * on a slick patch, with and without traction control. The side push slides the robot sideways across its wheels,
+ * which must not be mistaken for slip.
+ *
+ * Detection is checked on the runs without traction control, where the wheels are free to slip: a separate
+ * TractionControl is fed the same readings as the drivetrain, and its slip flags are compared with the true slip of
+ * every wheel in the simulation. A wheel slipping by more than twice the slip allowance should be detected and a
+ * wheel slipping by less than GRIP_SLIP should not. Correction is measured as the mean true slip of all wheels, the
+ * distance driven and the odometry error at the end of the run.
+ */
+public class TractionControlTest{
+
+    private static final double RUN_TIME = 2.0;
+    private static final double SWITCH_TIME = 1.0; //Cases switch to their second command and start pushing here
+    private static final double SLICK_GRIP = 120; //Inches/second^2, front left wheel
+    private static final double GRIP_SLIP = 2; //Inches/second, true slip of a wheel that grips
+
+    private static final double MIN_RECALL = 0.9; //Of clearly slipping samples over every case
+    private static final double MIN_CASE_RECALL = 0.75;
+    private static final double MAX_FALSE_POSITIVES = 0.01; //Of gripping samples
+    private static final double MIN_SLIP_REDUCTION = 0.3; //Of the mean wheel slip over every case
+    private static final double MIN_ODOMETRY_REDUCTION = 0.1; //Of the odometry error over every case
+    private static final double MIN_DISTANCE_RATIO = 0.95; //Distance driven over the distance without control
+
+    private static final String[] NAMES = {"launch", "reverse", "slick", "slick+spin", "side push"};
+    private static final double[][] FIRST = {{1, 0, 0}, {1, 0, 0}, {1, 0, 0}, {0.7, 0, 0.4}, {0.6, 0, 0}};
+    private static final double[][] SECOND = {{1, 0, 0}, {-1, 0, 0}, {1, 0, 0}, {0.7, 0, 0.4}, {0.6, 0, 0}};
+    private static final double[] GRIPS = {SimConfig.WHEEL_GRIP_ACCEL, SimConfig.WHEEL_GRIP_ACCEL, SLICK_GRIP,
+        SLICK_GRIP, SimConfig.WHEEL_GRIP_ACCEL};
+    private static final double[][] PUSHES = {{0, 0}, {0, 0}, {0, 0}, {0, 0}, {0, 600}};
+
+    private static final int SLIP = 0, DISTANCE = 1, ODOMETRY_ERROR = 2, SLIP_SAMPLES = 3, DETECTED = 4,
+        GRIP_SAMPLES = 5, FALSE_DETECTIONS = 6;
+
+    @Test
+    public void detectsSlipWithoutFalsePositives(){
+        double framePeriod = SwerveConfig.FEEDBACK_FRAME_PERIOD / 1000.0;
+        double slipSamples = 0, detected = 0, gripSamples = 0, falseDetections = 0;
+        for(int i = 0; i < NAMES.length; i++){
+            double[] off = run(false, i, framePeriod);
+            if(off[SLIP_SAMPLES] > 0){
+                assertTrue(NAMES[i] + " detected " + off[DETECTED] + " of " + off[SLIP_SAMPLES],
+                    off[DETECTED] >= MIN_CASE_RECALL * off[SLIP_SAMPLES]);
+            }
+            slipSamples += off[SLIP_SAMPLES];
+            detected += off[DETECTED];
+            gripSamples += off[GRIP_SAMPLES];
+            falseDetections += off[FALSE_DETECTIONS];
+        }
+        assertTrue("detected " + detected + " of " + slipSamples, detected >= MIN_RECALL * slipSamples);
+        assertTrue("flagged " + falseDetections + " of " + gripSamples,
+            falseDetections <= MAX_FALSE_POSITIVES * gripSamples);
+    }
+
+    @Test
+    public void staleVelocityDetectsWorse(){
+        double framePeriod = SwerveConfig.FEEDBACK_FRAME_PERIOD / 1000.0;
+        double stalePeriod = StatusFrameManager.UNUSED_PERIOD / 1000.0;
+        double freshDetected = 0, staleDetected = 0;
+        for(int i = 0; i < NAMES.length; i++){
+            freshDetected += run(false, i, framePeriod)[DETECTED];
+            staleDetected += run(false, i, stalePeriod)[DETECTED];
+        }
+        assertTrue("detected " + freshDetected + " fresh and " + staleDetected + " stale",
+            staleDetected < freshDetected);
+    }
+
+    @Test
+    public void reducesSlipAndOdometryError(){
+        double framePeriod = SwerveConfig.FEEDBACK_FRAME_PERIOD / 1000.0;
+        double offSlip = 0, onSlip = 0, offOdometry = 0, onOdometry = 0;
+        for(int i = 0; i < NAMES.length; i++){
+            double[] off = run(false, i, framePeriod);
+            double[] on = run(true, i, framePeriod);
+            assertTrue(NAMES[i] + " slip " + off[SLIP] + " -> " + on[SLIP], on[SLIP] <= off[SLIP]);
+            assertTrue(NAMES[i] + " distance " + off[DISTANCE] + " -> " + on[DISTANCE],
+                on[DISTANCE] >= MIN_DISTANCE_RATIO * off[DISTANCE]);
+            offSlip += off[SLIP];
+            onSlip += on[SLIP];
+            offOdometry += off[ODOMETRY_ERROR];
+            onOdometry += on[ODOMETRY_ERROR];
+        }
+        assertTrue("slip " + offSlip + " -> " + onSlip, onSlip <= (1 - MIN_SLIP_REDUCTION) * offSlip);
+        assertTrue("odometry error " + offOdometry + " -> " + onOdometry,
+            onOdometry <= (1 - MIN_ODOMETRY_REDUCTION) * offOdometry);
+    }
+
+    /**
+     * Drives one case from a standstill
+     * @param tractionControl True to control traction
+     * @param index Case number
+     * @param framePeriod Seconds between the throttles' velocity reports
+     * @return Returns the mean true wheel spin in inches/second, the distance driven in inches, the odometry error
+     *         at the end in inches, the number of clearly slipping samples and how many of them were detected, and
+     *         the number of gripping samples and how many of them were flagged
+     */
+    private static double[] run(boolean tractionControl, int index, double framePeriod){
+        SwerveSimulation sim = new SwerveSimulation();
+        DirtySwerve drive = sim.getDrive();
+        drive.setHeadingHoldEnabled(false);
+        drive.setTractionControlEnabled(tractionControl);
+        sim.setWheelGrip(0, GRIPS[index]);
+        for(int i = 0; i < 4; i++){
+            sim.getThrottleMotor(i).setStatusPeriod(framePeriod);
+        }
+
+        TractionControl detector = new TractionControl();
+        double[] commanded = new double[4];
+        double[] measured = new double[4];
+        double[] azimuths = new double[4];
+        double setpointScale = SwerveConfig.SELECTED_THROTTLE_TYPE == ThrottleType.VelocityMode ? 1
+            : SwerveConfig.MAX_LINEAR_SPEED;
+
+        int steps = (int)Math.round(RUN_TIME / SimConfig.TIME_STEP);
+        double slip = 0, distance = 0;
+        double x = sim.getX(), y = sim.getY();
+        int slipSamples = 0, detected = 0, gripSamples = 0, falseDetections = 0;
+        for(int step = 0; step < steps; step++){
+            boolean switched = step * SimConfig.TIME_STEP >= SWITCH_TIME;
+            if(switched){
+                sim.setPush(PUSHES[index][0], PUSHES[index][1]);
+            }
+            double[] command = switched ? SECOND[index] : FIRST[index];
+            drive.drive(command[0], command[1], command[2]);
+
+            for(int i = 0; i < 4; i++){
+                SwerveModule module = sim.getModule(i);
+                commanded[i] = module.getSignedThrottleSetpoint() * setpointScale;
+                measured[i] = module.getThrottleVelocity();
+                azimuths[i] = module.getAbsoluteAzimuth();
+            }
+            detector.calculate(commanded, measured, azimuths, sim.getGyro().getFusedHeading(), SimConfig.TIME_STEP);
+            for(int i = 0; i < 4; i++){
+                double trueSlip = sim.getWheelSlip(i);
+                double allowance = SwerveConfig.TRACTION_SLIP_SPEED
+                    + SwerveConfig.TRACTION_SLIP_RATIO * Math.abs(sim.getGroundSpeed(i));
+                if(trueSlip > 2 * allowance){
+                    slipSamples++;
+                    detected += detector.isSlipping(i) ? 1 : 0;
+                }else if(trueSlip < GRIP_SLIP){
+                    gripSamples++;
+                    falseDetections += detector.isSlipping(i) ? 1 : 0;
+                }
+            }
+
+            sim.step(SimConfig.TIME_STEP);
+            for(int i = 0; i < 4; i++){
+                slip += Math.max(0, sim.getWheelSlip(i)) / (4 * steps);
+            }
+            distance += Math.hypot(sim.getX() - x, sim.getY() - y);
+            x = sim.getX();
+            y = sim.getY();
+        }
+
+        Pose pose = new Pose();
+        drive.getOdometry().getPose(pose);
+        double odometryError = Math.hypot(pose.getX() - sim.getX(), pose.getY() - sim.getY());
+        return new double[]{slip, distance, odometryError, slipSamples, detected, gripSamples, falseDetections};
+    }
+}
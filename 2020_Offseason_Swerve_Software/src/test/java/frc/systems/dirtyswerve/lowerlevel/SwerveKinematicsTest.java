@@ -0,0 +1,44 @@
+package frc.systems.dirtyswerve.lowerlevel;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+
+/**
+ * Checks that the fast kinematics give the same wheel speeds as the standard kinematics, and wheel azimuths within
+ * SwerveConfig.FAST_MATH_AZIMUTH_TOLERANCE, over random drive commands.
+ */
+public class SwerveKinematicsTest{
+
+  private static final int SAMPLES = 1_000_000;
+
+  @Test
+  public void fastMathMatchesStandardMath(){
+    SwerveKinematics standard = new SwerveKinematics(SwerveConfig.CHASSIS_LENGTH, SwerveConfig.CHASSIS_WIDTH, false);
+    SwerveKinematics fast = new SwerveKinematics(SwerveConfig.CHASSIS_LENGTH, SwerveConfig.CHASSIS_WIDTH, true);
+    double[] standardSpeeds = new double[4], standardAzms = new double[4];
+    double[] fastSpeeds = new double[4], fastAzms = new double[4];
+
+    Random random = new Random(4384);
+    double azimuthError = 0, speedError = 0;
+    for(int i = 0; i < SAMPLES; i++){
+      double forward = random.nextDouble() * 2 - 1;
+      double strafe = random.nextDouble() * 2 - 1;
+      double rotation = random.nextDouble() * 2 - 1;
+      standard.calculate(forward, strafe, rotation, standardSpeeds, standardAzms);
+      fast.calculate(forward, strafe, rotation, fastSpeeds, fastAzms);
+      for(int module = 0; module < 4; module++){
+        azimuthError = Math.max(azimuthError,
+            Math.abs(Math.IEEEremainder(fastAzms[module] - standardAzms[module], 360)));
+        speedError = Math.max(speedError, Math.abs(fastSpeeds[module] - standardSpeeds[module]));
+      }
+    }
+    assertTrue("Wheel azimuth error " + azimuthError + " degrees",
+        azimuthError <= SwerveConfig.FAST_MATH_AZIMUTH_TOLERANCE);
+    assertTrue("Wheel speed error " + speedError, speedError <= 1e-12);
+  }
+}
@@ -0,0 +1,70 @@
+package frc.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import frc.util.CalibrationStore.LoadStatus;
+
+public class CalibrationStoreTest{
+
+    private File directory;
+    private File file;
+
+    @Before
+    public void createDirectory() throws IOException{
+        directory = Files.createTempDirectory("CalibrationStoreTest").toFile();
+        file = new File(directory, "Calibration.dat");
+    }
+
+    @After
+    public void deleteDirectory(){
+        for(File child : directory.listFiles()){
+            child.delete();
+        }
+        directory.delete();
+    }
+
+    @Test
+    public void valuesSurviveReload(){
+        CalibrationStore store = new CalibrationStore(file);
+        store.put("FrontLeftModule.offset", 12.5);
+        store.put("RearRightModule.offset", -3);
+        store.flush(5000);
+
+        CalibrationStore reloaded = new CalibrationStore(file);
+        assertEquals(LoadStatus.LOADED, reloaded.load());
+        assertEquals(12.5, reloaded.get("FrontLeftModule.offset", 0), 0);
+        assertEquals(-3, reloaded.get("RearRightModule.offset", 0), 0);
+    }
+
+    @Test
+    public void corruptFileIsMovedAsideBeforeSaving() throws IOException{
+        byte[] damaged = {0x42, 0x42, 0x43, 0x41, 0, 0, 0, 1, 0, 0};
+        Files.write(file.toPath(), damaged);
+
+        CalibrationStore store = new CalibrationStore(file);
+        assertEquals(LoadStatus.CORRUPT, store.load());
+        store.put("FrontLeftModule.offset", 7);
+        store.flush(5000);
+
+        File corruptFile = new File(file.getPath() + ".corrupt");
+        assertTrue(corruptFile.isFile());
+        assertArrayEquals(damaged, Files.readAllBytes(corruptFile.toPath()));
+        assertEquals(LoadStatus.LOADED, new CalibrationStore(file).load());
+
+        //Only the first save after the corrupt load moves the file
+        store.put("FrontLeftModule.offset", 8);
+        store.flush(5000);
+        assertEquals(2, directory.list().length);
+        assertEquals(8, new CalibrationStore(file).get("FrontLeftModule.offset", 0), 0);
+    }
+}
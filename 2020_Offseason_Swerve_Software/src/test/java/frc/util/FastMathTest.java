@@ -0,0 +1,74 @@
+package frc.util;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks FastMath against java.lang.Math at random points and where atan2 changes octant, using the error bounds
+ * documented in FastMath.
+ */
+public class FastMathTest{
+
+    private static final int SAMPLES = 1_000_000;
+
+    private static final double TRIG_ERROR = 3e-7;
+    private static final double ATAN2_ERROR = 1.2e-5; //Radians
+    private static final double HYPOT_RELATIVE_ERROR = 3e-16;
+
+    private final Random random = new Random(4384);
+
+    @Test
+    public void sinAndCosStayWithinBound(){
+        double sinError = 0, cosError = 0;
+        for(int i = 0; i < SAMPLES; i++){
+            double angle = (random.nextDouble() * 2 - 1) * 4 * Math.PI;
+            sinError = Math.max(sinError, Math.abs(FastMath.sin(angle) - Math.sin(angle)));
+            cosError = Math.max(cosError, Math.abs(FastMath.cos(angle) - Math.cos(angle)));
+        }
+        assertWithin("sin absolute error", sinError, TRIG_ERROR);
+        assertWithin("cos absolute error", cosError, TRIG_ERROR);
+    }
+
+    @Test
+    public void atan2StaysWithinBound(){
+        double error = 0;
+        for(int i = 0; i < SAMPLES; i++){
+            double x = random.nextDouble() * 2 - 1;
+            double y = random.nextDouble() * 2 - 1;
+            error = Math.max(error, Math.abs(FastMath.atan2(y, x) - Math.atan2(y, x)));
+        }
+        assertWithin("atan2 absolute error", error, ATAN2_ERROR);
+    }
+
+    @Test
+    public void atan2StaysWithinBoundOnAxesAndDiagonals(){
+        double[] edges = {-1, -0.5, 0, 0.5, 1};
+        double error = 0;
+        for(double x : edges){
+            for(double y : edges){
+                error = Math.max(error, Math.abs(Math.IEEEremainder(FastMath.atan2(y, x) - Math.atan2(y, x),
+                    2 * Math.PI)));
+            }
+        }
+        assertWithin("atan2 error on axes and diagonals", error, ATAN2_ERROR);
+    }
+
+    @Test
+    public void hypotStaysWithinRelativeBound(){
+        double error = 0;
+        for(int i = 0; i < SAMPLES; i++){
+            double x = random.nextDouble() * 2 - 1;
+            double y = random.nextDouble() * 2 - 1;
+            double hypot = Math.hypot(x, y);
+            error = Math.max(error, Math.abs(FastMath.hypot(x, y) - hypot) / hypot);
+        }
+        assertWithin("hypot relative error", error, HYPOT_RELATIVE_ERROR);
+    }
+
+    private static void assertWithin(String name, double error, double limit){
+        assertTrue(name + " " + error + " exceeds " + limit, error <= limit);
+    }
+}
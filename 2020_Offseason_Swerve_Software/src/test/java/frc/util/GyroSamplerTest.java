@@ -0,0 +1,104 @@
+package frc.util;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Spins a fake gyro that reports the heading LATENCY seconds late, samples it every PERIOD on a fake clock and checks
+ * the compensated heading against the true heading at the time it is read
+ */
+public class GyroSamplerTest{
+
+    private static final double LATENCY = 0.02;
+    private static final double WINDOW = 0.04;
+    private static final double PERIOD = 0.005;
+    private static final double TOLERANCE = 1e-6; //Degrees
+
+    private double time;
+    private double rate = 360; //Degrees/second
+    private double rateChangeTime = Double.NEGATIVE_INFINITY;
+    private double rateBefore;
+    private boolean wrap;
+
+    private final GyroSampler sampler = new GyroSampler(this::reportedHeading, () -> time, LATENCY, WINDOW);
+
+    @Test
+    public void readsGyroBeforeFirstSample(){
+        time = 1.0;
+        assertEquals(reportedHeading(), sampler.getHeading(), 0);
+    }
+
+    @Test
+    public void constantRateIsCompensated(){
+        assertTracks(0, 1.0);
+        assertEquals(rate, sampler.getYawRate(), TOLERANCE);
+    }
+
+    @Test
+    public void compensatesBetweenSamples(){
+        run(0, 0.5);
+        sampler.sample();
+        for(double age = 0; age < PERIOD; age += PERIOD / 5){
+            assertHeading(time + age);
+        }
+    }
+
+    @Test
+    public void uncompensatedHeadingLags(){
+        run(0, 0.5);
+        assertEquals(rate * LATENCY, trueHeading(time) - reportedHeading(), TOLERANCE);
+    }
+
+    @Test
+    public void settlesAfterRateChange(){
+        rateBefore = 0;
+        rateChangeTime = 0.5;
+        run(0, rateChangeTime);
+        //The gyro shows the change LATENCY late and the rate is measured over WINDOW
+        assertTracks(rateChangeTime + LATENCY + WINDOW + PERIOD, 1.0);
+    }
+
+    @Test
+    public void followsWrappingGyro(){
+        wrap = true;
+        assertTracks(0, 2.0);
+        assertEquals(rate, sampler.getYawRate(), TOLERANCE);
+    }
+
+    /**
+     * Samples from the current time until end, checking the heading every sample from start on
+     */
+    private void assertTracks(double start, double end){
+        for(; time < end; time += PERIOD){
+            sampler.sample();
+            if(time >= start + WINDOW){
+                assertHeading(time);
+            }
+        }
+    }
+
+    private void run(double start, double end){
+        for(time = start; time < end; time += PERIOD){
+            sampler.sample();
+        }
+    }
+
+    private void assertHeading(double readTime){
+        double error = Math.IEEEremainder(sampler.getHeading(readTime) - trueHeading(readTime), 360);
+        assertEquals("Heading at " + readTime + " s", 0, error, TOLERANCE);
+    }
+
+    private double trueHeading(double at){
+        if(at < rateChangeTime){
+            return rateBefore * at;
+        }
+        double changeTime = Math.max(rateChangeTime, 0);
+        return rateBefore * changeTime + rate * (at - changeTime);
+    }
+
+    private double reportedHeading(){
+        double heading = trueHeading(time - LATENCY);
+        return wrap ? Math.IEEEremainder(heading, 360) : heading;
+    }
+}
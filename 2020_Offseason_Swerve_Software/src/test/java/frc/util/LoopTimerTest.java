@@ -0,0 +1,82 @@
+package frc.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Records loops with known stage durations and checks the statistics, including while another thread is recording
+ */
+public class LoopTimerTest{
+
+    private enum Stage{ FIRST, SECOND }
+
+    private static final int CAPACITY = 8;
+
+    private final LoopTimer<Stage> timer = new LoopTimer<>(Stage.class, CAPACITY);
+
+    @Test
+    public void keepsTheNewestLoops(){
+        for(int i = 1; i <= 20; i++){
+            record(i * 1000);
+        }
+        assertEquals(CAPACITY, timer.getCount());
+        assertEquals(20, timer.getMax(Stage.FIRST), 0);
+        assertEquals(13, timer.getPercentile(Stage.FIRST, 0), 0);
+        assertEquals(16, timer.getPercentile(Stage.FIRST, 50), 0);
+    }
+
+    @Test
+    public void loopInProgressIsNotRead(){
+        for(int i = 1; i <= CAPACITY; i++){
+            record(1000);
+        }
+        timer.start(0);
+        timer.mark(Stage.FIRST, 1_000_000);
+        assertEquals(CAPACITY, timer.getCount());
+        assertEquals(1, timer.getMax(Stage.FIRST), 0);
+    }
+
+    @Test
+    public void dumpsWhileAnotherThreadRecords() throws Exception{
+        Thread recorder = new Thread(() -> {
+            while(!Thread.currentThread().isInterrupted()){
+                record(1000);
+            }
+        });
+        recorder.start();
+
+        File file = File.createTempFile("LoopTimerTest", ".csv");
+        try{
+            for(int i = 0; i < 50; i++){
+                timer.dump(file);
+                List<String> lines = Files.readAllLines(file.toPath());
+                //Summary of two stages and the total, a blank line, the header and then one line per loop
+                assertTrue(lines.size() <= 6 + CAPACITY);
+                for(String line : lines.subList(6, lines.size())){
+                    assertEquals("1.0,1.0", line.substring(0, line.lastIndexOf(',')));
+                }
+            }
+        }finally{
+            recorder.interrupt();
+            recorder.join();
+            file.delete();
+        }
+    }
+
+    /**
+     * Records one loop where each stage takes the given time
+     * @param nanos Duration of each stage in nanoseconds
+     */
+    private void record(long nanos){
+        timer.start(0);
+        timer.mark(Stage.FIRST, nanos);
+        timer.mark(Stage.SECOND, 2 * nanos);
+        timer.end();
+    }
+}
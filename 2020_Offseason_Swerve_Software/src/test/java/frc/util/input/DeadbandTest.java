@@ -0,0 +1,29 @@
+package frc.util.input;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class DeadbandTest{
+
+    private static final double TOLERANCE = 1e-9;
+
+    private final Deadband deadband = new Deadband(0.1);
+
+    @Test
+    public void zeroInsideDeadband(){
+        assertEquals(0, deadband.calculate(0.1, StepResponse.DT), 0);
+        assertEquals(0, deadband.calculate(-0.05, StepResponse.DT), 0);
+    }
+
+    @Test
+    public void continuousAtEdge(){
+        assertEquals(0, deadband.calculate(0.1 + 1e-12, StepResponse.DT), TOLERANCE);
+    }
+
+    @Test
+    public void rescalesOutsideDeadband(){
+        assertEquals(-1.0, deadband.calculate(-1.0, StepResponse.DT), TOLERANCE);
+        assertEquals(0.5, deadband.calculate(0.55, StepResponse.DT), TOLERANCE);
+    }
+}
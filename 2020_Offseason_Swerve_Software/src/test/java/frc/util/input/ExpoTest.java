@@ -0,0 +1,26 @@
+package frc.util.input;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ExpoTest{
+
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void fullWeightKeepsSign(){
+        assertEquals(-0.25, new Expo(1.0, 2).calculate(-0.5, StepResponse.DT), TOLERANCE);
+    }
+
+    @Test
+    public void fullInputIsUnchanged(){
+        assertEquals(1.0, new Expo(1.0, 2).calculate(1.0, StepResponse.DT), TOLERANCE);
+        assertEquals(-1.0, new Expo(0.5, 3).calculate(-1.0, StepResponse.DT), TOLERANCE);
+    }
+
+    @Test
+    public void blendsWithLinear(){
+        assertEquals(0.3125, new Expo(0.5, 3).calculate(0.5, StepResponse.DT), TOLERANCE);
+    }
+}
@@ -0,0 +1,20 @@
+package frc.util.input;
+
+import org.junit.Test;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+
+public class InputPipelineTest{
+
+    @Test
+    public void teleopTranslationStaysInsideLimits(){
+        InputPipeline pipeline = new InputPipeline(
+            new Deadband(SwerveConfig.TRANSLATION_DEADBAND),
+            new Expo(SwerveConfig.INPUT_EXPO, SwerveConfig.INPUT_EXPO_DEGREE),
+            new SlewLimit(SwerveConfig.TRANSLATION_RISE_RATE, SwerveConfig.TRANSLATION_FALL_RATE),
+            new JerkLimit(SwerveConfig.TRANSLATION_JERK, SwerveConfig.TRANSLATION_RISE_RATE,
+                SwerveConfig.TRANSLATION_FALL_RATE));
+        StepResponse.check(pipeline, SwerveConfig.TRANSLATION_RISE_RATE, SwerveConfig.TRANSLATION_JERK,
+            SwerveConfig.TRANSLATION_FALL_RATE);
+    }
+}
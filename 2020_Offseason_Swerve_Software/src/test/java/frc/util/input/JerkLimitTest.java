@@ -0,0 +1,25 @@
+package frc.util.input;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class JerkLimitTest{
+
+    @Test
+    public void stepResponseStaysInsideJerk(){
+        StepResponse.check(new JerkLimit(20.0), Double.POSITIVE_INFINITY, 20.0, Double.POSITIVE_INFINITY);
+    }
+
+    @Test
+    public void stepResponseStaysInsideJerkAndRates(){
+        StepResponse.check(new JerkLimit(20.0, 2.0, 4.0), 2.0, 20.0, 4.0);
+    }
+
+    @Test
+    public void resetJumpsWithoutLimit(){
+        JerkLimit limit = new JerkLimit(20.0, 2.0, 4.0);
+        limit.reset(-0.6);
+        assertEquals(-0.6, limit.calculate(-0.6, StepResponse.DT), 0);
+    }
+}
@@ -0,0 +1,25 @@
+package frc.util.input;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class SlewLimitTest{
+
+    @Test
+    public void stepResponseStaysInsideRates(){
+        StepResponse.check(new SlewLimit(2.0, 4.0), 2.0, Double.POSITIVE_INFINITY, 4.0);
+    }
+
+    @Test
+    public void symmetricRate(){
+        StepResponse.check(new SlewLimit(3.0), 3.0, Double.POSITIVE_INFINITY, 3.0);
+    }
+
+    @Test
+    public void resetJumpsWithoutLimit(){
+        SlewLimit limit = new SlewLimit(2.0, 4.0);
+        limit.reset(0.8);
+        assertEquals(0.8, limit.calculate(0.8, StepResponse.DT), 0);
+    }
+}
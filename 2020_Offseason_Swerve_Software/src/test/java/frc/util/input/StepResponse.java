@@ -0,0 +1,58 @@
+package frc.util.input;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import frc.systems.dirtyswerve.toplevel.config.SwerveConfig;
+
+/**
+ * Steps an input stage from 0 to full, then to full reverse, then back to 0, and asserts that the output stays inside
+ * the rate and jerk limits, never overshoots and settles exactly on every target
+ */
+final class StepResponse{
+
+    static final double DT = SwerveConfig.INPUT_PERIOD;
+    private static final int STEPS = 200;
+    private static final double TOLERANCE = 1e-9;
+
+    private StepResponse(){
+    }
+
+    /**
+     * Checks the step response of a stage that starts at 0
+     * @param stage Stage to check
+     * @param riseRate Largest change per second allowed while the output grows in magnitude
+     * @param jerk Largest change of rate per second allowed
+     * @param fallRate Largest change per second allowed while the output shrinks or changes sign
+     */
+    static void check(InputStage stage, double riseRate, double jerk, double fallRate){
+        double[] targets = {1.0, -1.0, 0};
+        double output = 0, rate = 0;
+        double maxRise = 0, maxFall = 0, maxJerk = 0;
+        for(double target : targets){
+            double overshoot = 0;
+            boolean settled = false;
+            for(int i = 0; i < STEPS; i++){
+                double next = stage.calculate(target, DT);
+                double nextRate = (next - output) / DT;
+                boolean rising = output >= 0 ? next > output : next < output;
+                if(rising){
+                    maxRise = Math.max(maxRise, Math.abs(nextRate));
+                }else{
+                    maxFall = Math.max(maxFall, Math.abs(nextRate));
+                }
+                maxJerk = Math.max(maxJerk, Math.abs(nextRate - rate) / DT);
+                overshoot = Math.max(overshoot, target >= 0 ? next - target : target - next);
+                settled |= next == target;
+                output = next;
+                rate = nextRate;
+            }
+            assertEquals("Overshoot stepping to " + target, 0, Math.max(0, overshoot), TOLERANCE);
+            assertTrue("Never settled exactly on " + target, settled);
+            assertEquals("Left " + target + " after settling", target, output, 0);
+        }
+        assertTrue("Rise rate " + maxRise + " over " + riseRate, maxRise <= riseRate * (1 + TOLERANCE));
+        assertTrue("Fall rate " + maxFall + " over " + fallRate, maxFall <= fallRate * (1 + TOLERANCE));
+        assertTrue("Jerk " + maxJerk + " over " + jerk, maxJerk <= jerk * (1 + TOLERANCE));
+    }
+}